@@ -24,6 +24,11 @@ import java.util.Scanner;
  * complexity associated with managing multiple input streams.
  * </p>
  *
+ * <p>
+ * In server mode each connected user has their own input, so the scanner of the {@link Session} running on the
+ * current thread is returned instead, and the menus need no changes to serve several users at once.
+ * </p>
+ *
  * </p>
  */
 public class AppScanner {
@@ -41,9 +46,10 @@ public class AppScanner {
      * all parts of the application use the same instance for reading input.
      * </p>
      *
-     * @return the singleton {@code Scanner} instance
+     * @return the current session's {@code Scanner}, or the singleton {@code Scanner} instance on the console
      */
     public static Scanner getInstance() {
-        return sc;
+        Session session = Session.current();
+        return session == null ? sc : session.getScanner();
     }
 }
\ No newline at end of file
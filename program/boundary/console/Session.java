@@ -0,0 +1,234 @@
+package program.boundary.console;
+
+import program.boundary.menuTemplate.MenuNavigator;
+import program.entity.caching.Journal;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * The {@code Session} class represents one user connected to the server started with {@code --server}. Each session
+ * has its own input, output and {@link MenuNavigator}, while every session works on the same lists in
+ * {@link program.control.Main}.
+ * </p>
+ *
+ * <p>
+ * The menus were written for a single console user, so they read {@link AppScanner#getInstance()} and print to
+ * {@code System.out}. Rather than change every menu, the session running on the current thread is kept in a
+ * {@link ThreadLocal}: {@code AppScanner} hands out the session's scanner, and {@link #installOutput()} replaces
+ * {@code System.out} with a stream that forwards to the session's socket.
+ * </p>
+ *
+ * <p>
+ * The lists are not thread-safe, so a session holds a single shared lock whenever it is running menu code, and
+ * releases it only while it waits for the user to type something, or {@link #withoutDataLock(Supplier) hashes a
+ * password}. Each step of a menu therefore sees and leaves the
+ * data in a consistent state, just as it would on the console, and a slow user never holds up anyone else.
+ * </p>
+ *
+ * @see AppScanner
+ * @see program.control.SessionServer
+ */
+public final class Session {
+
+    /**
+     * Thrown from a read once the client has disconnected. It is an {@link Error} so that it passes through the
+     * {@code catch (Exception e)} blocks in the menus and ends the session in {@link #run(Runnable)}: as an exception,
+     * a menu would catch it, print the message and prompt again, reading from the dead connection forever.
+     */
+    public static final class Closed extends Error {
+        private static final long serialVersionUID = 1L;
+
+        private Closed() {
+            super("Session closed", null, false, false);
+        }
+    }
+
+    private static final ReentrantLock dataLock = new ReentrantLock(true);
+    private static final ThreadLocal<Session> current = new ThreadLocal<>();
+    private static PrintStream console = System.out;
+
+    private final Socket socket;
+    private final PrintStream out;
+    private final Scanner scanner;
+
+    /**
+     * Creates a session reading from and writing to the given connection.
+     *
+     * @param socket the client's connection
+     * @throws IOException if the connection's streams cannot be opened
+     */
+    public Session(Socket socket) throws IOException {
+        this.socket = socket;
+        this.out = new PrintStream(socket.getOutputStream(), false, StandardCharsets.UTF_8);
+        this.scanner = new Scanner(new SessionInput(socket.getInputStream()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the session running on the current thread.
+     *
+     * @return the session, or {@code null} on the console
+     */
+    public static Session current() {
+        return current.get();
+    }
+
+    /**
+     * Returns a name for the terminal the current thread is serving, such as {@code 127.0.0.1} for a session or
+     * {@code console} otherwise. Used to tell apart where login attempts come from. A session is named by the client's
+     * address alone, without its port, so that reconnecting does not make it a new terminal.
+     *
+     * @return the terminal's name
+     */
+    public static String terminal() {
+        Session session = current.get();
+        if (session == null) return "console";
+        SocketAddress address = session.socket.getRemoteSocketAddress();
+        return address instanceof InetSocketAddress inet && inet.getAddress() != null
+                ? inet.getAddress().getHostAddress()
+                : String.valueOf(address);
+    }
+
+    /**
+     * Returns the scanner reading this session's input.
+     *
+     * @return the session's scanner
+     */
+    public Scanner getScanner() {
+        return scanner;
+    }
+
+    /**
+     * Returns the lock that guards the shared data. Anything outside a session that reads or changes the lists while
+     * the server is running, such as the shutdown hook, must hold it.
+     *
+     * @return the shared data lock
+     */
+    public static ReentrantLock getDataLock() {
+        return dataLock;
+    }
+
+    /**
+     * Runs slow work that does not touch the shared lists, such as hashing a password, with the data lock released if
+     * the current thread holds it, so that other sessions carry on meanwhile. Anything the work needs from the lists
+     * must be read before, and the lists may have changed by the time it returns.
+     *
+     * @param work the work to run
+     * @param <T> the type of its result
+     * @return the result of the work
+     */
+    public static <T> T withoutDataLock(Supplier<T> work) {
+        int holds = dataLock.isHeldByCurrentThread() ? dataLock.getHoldCount() : 0;
+        for (int i = 0; i < holds; i++) dataLock.unlock();
+        try {
+            return work.get();
+        } finally {
+            for (int i = 0; i < holds; i++) dataLock.lock();
+        }
+    }
+
+    /**
+     * Replaces {@code System.out} with a stream that writes to the current thread's session, or to the original
+     * {@code System.out} on threads that are not running one. Called once when the server starts.
+     */
+    public static synchronized void installOutput() {
+        console = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                target().write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                target().write(b, off, len);
+            }
+
+            @Override
+            public void flush() {
+                target().flush();
+            }
+        }, true, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Runs the given code as this session on the current thread, holding the data lock except while waiting for
+     * input. Once the code returns or the client disconnects, any journalled changes are synced and the connection is
+     * closed.
+     *
+     * @param body the code to run, normally logging in and starting the menus
+     */
+    public void run(Runnable body) {
+        current.set(this);
+        dataLock.lock();
+        try {
+            body.run();
+        } catch (Closed e) {
+            // the client went away; nothing left to do but clean up
+        } finally {
+            Journal.sync();
+            MenuNavigator.release();
+            current.remove();
+            dataLock.unlock();
+            out.flush();
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static PrintStream target() {
+        Session session = current.get();
+        return session == null ? console : session.out;
+    }
+
+    /**
+     * Reads the client's input, flushing any pending output and releasing the data lock whenever a read would block.
+     */
+    private final class SessionInput extends FilterInputStream {
+
+        SessionInput(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read;
+            try {
+                if (in.available() > 0) {
+                    read = in.read(b, off, len);
+                } else {
+                    out.flush();
+                    dataLock.unlock();
+                    try {
+                        read = in.read(b, off, len);
+                    } finally {
+                        dataLock.lock();
+                    }
+                }
+            } catch (IOException e) {
+                throw new Closed(); // not an exception, or the menus' catch (Exception e) would retry the read
+            }
+            if (read < 0) throw new Closed();
+            return read;
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package program.boundary.enquiryIO;
 
-import java.util.Scanner;
 import java.util.function.Predicate;
 
 import program.boundary.console.AppScanner;
@@ -26,7 +25,6 @@ import program.entity.users.User;
  *
  */
 public class EnquirySelector {
-    private static final Scanner sc = AppScanner.getInstance();
 
     /**
      * <p>
@@ -70,7 +68,7 @@ public class EnquirySelector {
         int choice = -1;
         do {
             try {
-                choice = Integer.parseInt(sc.nextLine()) - 1;
+                choice = Integer.parseInt(AppScanner.getInstance().nextLine()) - 1;
             } catch (NumberFormatException e) {
                 System.out.println("Invalid input. Please enter a valid number.");
             }
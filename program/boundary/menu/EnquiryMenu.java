@@ -1,5 +1,6 @@
 package program.boundary.menu;
 
+import program.boundary.console.AppScanner;
 import program.boundary.enquiryIO.EnquiryPrinter;
 import program.boundary.enquiryIO.EnquirySelector;
 import program.boundary.menuTemplate.MenuGroup;
@@ -66,7 +67,7 @@ public class EnquiryMenu extends MenuGroup {
                 return;
             }
             System.out.println("Please enter your enquiry:");
-            String enquiryText = sc.nextLine();
+            String enquiryText = AppScanner.getInstance().nextLine();
             Enquiry newEnquiry = new Enquiry(user, enquiryText, targetProject);
             Main.enquiryList.add(newEnquiry);
             System.out.println("\nEnquiry saved. \nTime: " + newEnquiry.get(0).getTimeStamp() + "\nMessage: " + newEnquiry.get(0).getText());
@@ -97,7 +98,7 @@ public class EnquiryMenu extends MenuGroup {
             }
 
             System.out.println("Enter the new text for the enquiry:");
-            String newText = sc.nextLine();
+            String newText = AppScanner.getInstance().nextLine();
             if (selectedEnquiry.editMessage(0, newText)) {
                 System.out.println("Enquiry updated successfully.");
             } else {
@@ -132,7 +133,7 @@ public class EnquiryMenu extends MenuGroup {
             if (selectedEnquiry == null) return;
 
             System.out.println("Enter your reply:");
-            String replyText = sc.nextLine();
+            String replyText = AppScanner.getInstance().nextLine();
             selectedEnquiry.add(user, replyText);
             System.out.println("Reply saved successfully.");
         }, user_ -> user_ instanceof Officer);// officer and Manager can reply to Enquiries but not Applicants
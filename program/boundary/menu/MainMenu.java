@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import program.boundary.console.AppScanner;
 import program.boundary.menuTemplate.MenuGroup;
 import program.boundary.menuTemplate.MenuNavigator;
 import program.boundary.security.PasswordResetHandler;
@@ -64,9 +65,9 @@ public class MainMenu extends MenuGroup {
         this.addMenuItem("Reset Password",
                 () -> {
                     System.out.println("Please enter your new password: ");
-                    String proposedPassword = sc.nextLine();
+                    String proposedPassword = AppScanner.getInstance().nextLine();
                     System.out.println("Please enter your password again: ");
-                    if (proposedPassword.equals(sc.nextLine())){
+                    if (proposedPassword.equals(AppScanner.getInstance().nextLine())){
                         PasswordResetHandler.resetPassword(user, proposedPassword);
                         System.out.println("Password change successful. Please login again");
                         // exit system
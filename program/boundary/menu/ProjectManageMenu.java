@@ -1,25 +1,34 @@
 package program.boundary.menu;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 
+import program.boundary.console.AppScanner;
 import program.boundary.console.DateTimeFormat;
 import program.boundary.menuTemplate.MenuGroup;
+import program.boundary.menuTemplate.MenuItem;
 import program.boundary.menuTemplate.MenuNavigator;
 import program.boundary.menuTemplate.SelectionMenu;
 import program.boundary.officerAssignIO.OfficerAssignSelector;
 import program.boundary.projectIO.ProjectPrinter;
 import program.boundary.projectIO.SetUpProject;
 import program.control.Main;
-import program.control.TimeCompare;
+import program.control.ProjectCalendar;
+import program.control.housingApply.BallotEngine;
 import program.control.housingApply.HousingReq;
+import program.control.housingApply.HousingReqBatch;
+import program.control.housingApply.HousingReqBuckets;
 import program.control.housingApply.HousingReq.WITHDRAWAL_STATUS;
 import program.control.officerApply.AssignReq;
+import program.control.report.ApplicantReportEngine;
+import program.control.report.ReportExporter;
+import program.control.report.ReportQuery;
 import program.entity.project.Project;
 import program.entity.project.Project.ROOM_TYPE;
 import program.entity.users.Manager;
@@ -42,10 +51,14 @@ import program.entity.users.User.MARITAL_STATUS;
  * <li>Creating, editing, deleting, and toggling the visibility of BTO (Build-To-Order) project listings (Manager).</li>
  * <li>Viewing and approving incoming officer assignment requests for their projects (Manager).</li>
  * <li>Reviewing and deciding on HDB housing applications for their projects (Manager).</li>
+ * <li>Accepting or rejecting many pending applications in one step (Manager).</li>
+ * <li>Deciding all pending applications for a flat type at once by ballot (Manager).</li>
  * <li>Processing withdrawal requests from applicants for their projects (Manager).</li>
  * <li>Facilitating booking of successful housing applications for their assigned projects (Officer).</li>
  * <li>Generating booking receipts for applicants of their assigned projects (Officer).</li>
- * <li>Generating comprehensive reports on applicants associated with their managed projects (Manager).</li>
+ * <li>Generating comprehensive reports on applicants associated with their managed projects, and exporting them to
+ * CSV or JSON Lines files (Manager).</li>
+ * <li>Querying applications by several report criteria at once (Manager).</li>
  * </ul>
  *
  * <p>This class extends {@link MenuGroup}, inheriting its base menu structure and navigation capabilities.</p>
@@ -53,6 +66,7 @@ import program.entity.users.User.MARITAL_STATUS;
  * @see program.boundary.menuTemplate.MenuGroup
  */
 public class ProjectManageMenu extends MenuGroup {
+    private static final int BULK_LIST_LIMIT = 50;
     private Project selectedProjectForReport = null;
 
     /**
@@ -110,13 +124,8 @@ public class ProjectManageMenu extends MenuGroup {
         this.addSelectionMenu(
                 "Approve HDB Applications",
                 user_ -> user_ instanceof Manager, // Only visible to Managers.
-                () -> Main.housingReqList.stream()
-                        // Filter housing requests for the projects managed by the current manager.
-                        .filter(req -> req.getProject().getManager().equals(user))
-                        // Filter for requests that are currently pending approval.
-                        .filter(req -> req.getStatus() == HousingReq.REQUEST_STATUS.pending)
-                        // Collect the filtered requests into a list.
-                        .collect(Collectors.toList()),
+                // Pending requests for the projects managed by the current manager, read from the manager's own bucket.
+                () -> HousingReqBuckets.get((Manager) user, HousingReq.REQUEST_STATUS.pending),
                 HousingReq::toString, // How each HousingReq object should be displayed in the menu.
                 req -> { // Action to be performed when a HousingReq is selected.
                     // Check if there is vacancy for the requested room type in the project.
@@ -137,7 +146,17 @@ public class ProjectManageMenu extends MenuGroup {
                             () -> choices, // Provide the list of choices.
                             String::toString, // How each choice should be displayed.
                             strChoice -> { // Action based on the manager's choice.
+                                // Another manager of the project may have decided in the meantime.
+                                if (req.getStatus() != HousingReq.REQUEST_STATUS.pending){
+                                    System.out.println("Application has already been accepted/rejected.");
+                                    return;
+                                }
                                 if (strChoice.equals("Accept")){
+                                    // Hold a flat for the applicant; another manager may have taken the last one meanwhile.
+                                    if (!req.getProject().reserveRoomType(req.getRoomType())){
+                                        System.out.println("Sorry, not enough vacancy to accept application");
+                                        return;
+                                    }
                                     // Set the approving manager.
                                     req.setApprovedBy((Manager) user);
                                     // Update the status of the housing request to successful.
@@ -153,17 +172,84 @@ public class ProjectManageMenu extends MenuGroup {
                 }
         );
 
+        // Menu item for Managers to accept or reject many pending applications in one step.
+        this.addMenuItem("Decide HDB Applications in bulk", () -> {
+            List<HousingReq> pending = HousingReqBuckets.get((Manager) user, HousingReq.REQUEST_STATUS.pending);
+            if (pending.isEmpty()){
+                System.out.println("There are no pending applications.");
+                return;
+            }
+            // One line per request, and only the first few, so that a long queue does not flood the screen.
+            for (int i = 0; i < Math.min(pending.size(), BULK_LIST_LIMIT); i++){
+                HousingReq req = pending.get(i);
+                System.out.println((i + 1) + ". " + req.getUser().getName() + " (" + req.getUser().getUserId() + ") - "
+                        + req.getProject() + ", " + req.getRoomType());
+            }
+            if (pending.size() > BULK_LIST_LIMIT) System.out.println("... and " + (pending.size() - BULK_LIST_LIMIT) + " more");
+
+            System.out.println("Enter the applications to decide, as numbers or ranges (e.g. 1-20,25), 'all', or a project name:");
+            List<HousingReq> selected = selectBulk(AppScanner.getInstance().nextLine().trim(), pending);
+            if (selected == null || selected.isEmpty()){
+                System.out.println("No applications selected.");
+                return;
+            }
+            System.out.println("Accept or reject the " + selected.size() + " selected applications? (A/R)");
+            String decision = AppScanner.getInstance().nextLine().trim().toUpperCase();
+            if (!decision.equals("A") && !decision.equals("R")){
+                System.out.println("Cancelled.");
+                return;
+            }
+            try {
+                System.out.println(HousingReqBatch.decide(selected, decision.equals("A"), (Manager) user));
+            } catch (Exception e){
+                System.out.println("Error saving decisions: " + e.getMessage());
+            }
+        }, user_ -> user_ instanceof Manager);
+
+        // Selection menu for Managers to decide every pending application for a room type at once by ballot.
+        this.addSelectionMenu(
+                "Run HDB Application Ballot",
+                user_ -> user_ instanceof Manager, // Only visible to Managers.
+                () -> Main.projectList.stream()
+                        // Filter for projects managed by the current manager.
+                        .filter(project -> project.isManager((Manager) user))
+                        .collect(Collectors.toList()),
+                Project::toString, // Display each Project.
+                project -> MenuNavigator.getInstance().pushMenu(new SelectionMenu<>(
+                        "Please choose the flat type to ballot",
+                        () -> List.of(ROOM_TYPE.values()),
+                        roomType -> roomType + " (" + project.getVacancy(roomType) + " available)",
+                        roomType -> {
+                            System.out.println("Enter ballot seed (leave blank for a random seed):");
+                            String seedInput = AppScanner.getInstance().nextLine().trim();
+                            long seed = seedInput.isEmpty() ? System.nanoTime() : Long.parseLong(seedInput);
+                            BallotEngine.PRIORITY[] priorities = BallotEngine.PRIORITY.values();
+                            System.out.println("Choose the priority (leave blank for " + priorities[0] + "):");
+                            for (int i = 0; i < priorities.length; i++) System.out.println((i + 1) + ". " + priorities[i]);
+                            String priorityInput = AppScanner.getInstance().nextLine().trim();
+                            int choice = priorityInput.isEmpty() ? 1 : Integer.parseInt(priorityInput);
+                            if (choice < 1 || choice > priorities.length) {
+                                System.out.println("Invalid priority.");
+                                return;
+                            }
+                            try {
+                                BallotEngine.Result result = BallotEngine.run(project, roomType, priorities[choice - 1],
+                                        seed, (Manager) user);
+                                System.out.println("Ballot with seed " + seed + ": " + result.winners() + " of "
+                                        + result.applicants() + " applications accepted. Draw written to " + result.file());
+                            } catch (Exception e) {
+                                System.out.println("Error running ballot: " + e.getMessage());
+                            }
+                        }
+                ).setTransient(true))
+        );
+
         // Selection menu for Managers to process withdrawal requests from applicants.
         this.addSelectionMenu(
                 "Process withdrawal Requests",
                 user_ -> user_ instanceof Manager, // Only visible to Managers.
-                () -> Main.housingReqList.stream()
-                        // Filter requests for projects managed by the current manager.
-                        .filter(req -> req.getProject().getManager().equals(user))
-                        // Filter for requests where withdrawal has been requested.
-                        .filter(req -> req.getWithdrawalStatus().equals(HousingReq.WITHDRAWAL_STATUS.requested))
-                        // Collect the filtered requests.
-                        .collect(Collectors.toList()),
+                // Requests with a pending withdrawal for the projects managed by the current manager.
+                () -> HousingReqBuckets.get((Manager) user, HousingReq.WITHDRAWAL_STATUS.requested),
                 HousingReq::toString, // Display each HousingReq.
                 req -> MenuNavigator.getInstance().pushMenu(new SelectionMenu<>(
                         "Please choose to accept or reject this withdrawal",
@@ -174,9 +260,11 @@ public class ProjectManageMenu extends MenuGroup {
                                 // If accepted, clear the approved and booked by fields.
                                 req.setApprovedBy(null);
                                 req.setBookedBy(null);
-                                // If the original application was successful, increment the room vacancy.
+                                // If the flat was booked, return it; if it was only reserved, release the reservation.
                                 if (req.getStatus().equals(HousingReq.REQUEST_STATUS.booked))
                                     req.getProject().incrementRoomType(req.getRoomType());
+                                else if (req.getStatus().equals(HousingReq.REQUEST_STATUS.successful))
+                                    req.getProject().releaseRoomType(req.getRoomType());
                                 // Set the request status to unsuccessful due to withdrawal.
                                 req.setStatus(HousingReq.REQUEST_STATUS.unsuccessful);
                                 // Update the withdrawal status to approved.
@@ -193,16 +281,20 @@ public class ProjectManageMenu extends MenuGroup {
         this.addSelectionMenu(
                 "Help applicant book",
                 user_ -> user_ instanceof Officer && !(user_ instanceof Manager), // Only for Officers who are not Managers.
-                () -> Main.housingReqList.stream()
+                () -> ProjectCalendar.assignedProjects((Officer) user).stream()
+                        // Requests belonging to projects that the current officer is assigned to.
+                        .flatMap(project -> project.getReqList().stream())
                         // Filter for successful housing requests.
                         .filter(req -> req.getStatus().equals(HousingReq.REQUEST_STATUS.successful))
-                        // Filter for requests belonging to projects that the current officer is assigned to.
-                        .filter(req -> req.getProject().getOfficers().contains(user))
                         // Collect the filtered requests.
                         .collect(Collectors.toList()),
                 HousingReq::toString, // Display each HousingReq.
                 req -> { // Action when an application is selected for booking.
-                    req.getProject().decrementRoomType(req.getRoomType());
+                    // Turn the flat reserved at approval into a booking.
+                    if (!req.getProject().commitRoomType(req.getRoomType())){
+                        System.out.println("Error: no flat is reserved for this application.");
+                        return;
+                    }
                     // Set the current officer as the one who booked the flat.
                     req.setBookedBy((Officer) user);
                     // Update the status of the housing request to booked.
@@ -214,9 +306,9 @@ public class ProjectManageMenu extends MenuGroup {
         this.addSelectionMenu(
                 "Generate Receipt of Applicant Booking",
                 user_ -> user_ instanceof Officer && !(user_ instanceof Manager), // Only for Officers who are not Managers.
-                () -> Main.housingReqList.stream()
-                        // Filter for requests from projects the current officer is assigned to.
-                        .filter(req -> req.getProject().getOfficers().contains((Officer) user))
+                () -> ProjectCalendar.assignedProjects((Officer) user).stream()
+                        // Requests from projects the current officer is assigned to.
+                        .flatMap(project -> project.getReqList().stream())
                         // Filter for requests that have been successfully booked.
                         .filter(req -> req.getStatus().equals(HousingReq.REQUEST_STATUS.booked))
                         // Collect the filtered requests.
@@ -297,7 +389,7 @@ public class ProjectManageMenu extends MenuGroup {
             "Generate Report on Applicants",
             user_ -> user_ instanceof Manager &&
                 Main.projectList.stream().anyMatch(project -> project.isManager((Manager) user_)) &&
-                !(generateRelevantApplicants.apply((Manager) user_).isEmpty()),
+                ApplicantReportEngine.count((Manager) user_, ((Manager) user_).getReportFilter(), selectedProjectForReport) > 0,
             () -> List.of(REPORT_FILTER.values()),
             reportFilter -> ((Manager) user).getReportFilter().equals(reportFilter) ?
                 reportFilter.toString() + " <-- Current" :
@@ -309,11 +401,21 @@ public class ProjectManageMenu extends MenuGroup {
                     MenuNavigator.getInstance().pushMenu(selectProjectMenu.setTransient(true));
                 }
             }
-        );
+        ) {
+            // the filters, then an option to write the report shown to a file
+            @Override
+            public void refresh() {
+                super.refresh();
+                getItems().add(new MenuItem("Export this report to a file",
+                        () -> exportReport((Manager) user, selectedProjectForReport)));
+            }
+        };
 
         generateReportMenu.setDynamicDesc(() -> {
             Manager manager = (Manager) user;
-            List<User> relevantApplicants = generateRelevantApplicants.apply(manager);
+            // read from the aggregates kept by the engine, in time proportional to the report
+            List<ApplicantReportEngine.Entry> relevantApplicants =
+                    ApplicantReportEngine.view(manager, manager.getReportFilter(), selectedProjectForReport);
 
             StringBuilder sb = new StringBuilder(); 
             sb.append("Generate report on Applicants");
@@ -322,16 +424,20 @@ public class ProjectManageMenu extends MenuGroup {
             if (relevantApplicants.isEmpty()){
                 sb.append("Sorry, no relevant applicants\n").toString();
             }else{
-                relevantApplicants.stream().forEach(applicant -> {
+                sb.append("Applications: " + ApplicantReportEngine.count(manager, manager.getReportFilter(), selectedProjectForReport));
+                for (HousingReq.REQUEST_STATUS status : HousingReq.REQUEST_STATUS.values()) {
+                    sb.append(", " + status + ": " + ApplicantReportEngine.count(manager, manager.getReportFilter(), selectedProjectForReport, status));
+                }
+                sb.append("\n----------------------------------------\n");
+                relevantApplicants.forEach(entry -> {
+                    User applicant = entry.applicant();
                     sb.append("Name   : " + applicant.getName() + "\n");
                     sb.append("User type: " + applicant.getClass().getSimpleName() + "\n");
                     sb.append("Age              : " + applicant.getAge() + "\n");
                     sb.append("Marital Status   : " + (applicant.getMaritalStatus().equals(MARITAL_STATUS.Married) ? "Married\n" : "Single\n"));
 
                     // Get the housing requests for this applicant
-                    List<HousingReq> applicantRequests = Main.housingReqList.stream()
-                        .filter(req -> filterManagerReport(req, applicant, manager))
-                        .collect(Collectors.toList());
+                    List<HousingReq> applicantRequests = entry.requests();
 
                     if (applicantRequests.isEmpty()) {
                         sb.append("No flat bookings found for this applicant.\n");
@@ -354,6 +460,24 @@ public class ProjectManageMenu extends MenuGroup {
         this.addMenuItem("Generate report on Applicants", 
             () -> MenuNavigator.getInstance().pushMenu(generateReportMenu),
             (user_) -> user_ instanceof Manager);
+
+        // Menu item for Managers to combine several report criteria in one query.
+        this.addMenuItem("Query HDB Applications", () -> {
+            ReportQuery query = readQuery((Manager) user);
+            if (query == null) return;
+            System.out.println("Applications matching " + query + ": " + query.count());
+            for (HousingReq.REQUEST_STATUS status : HousingReq.REQUEST_STATUS.values()) {
+                System.out.println("  " + status + ": " + query.count(status));
+            }
+            List<HousingReq> matches = query.run(BULK_LIST_LIMIT);
+            for (int i = 0; i < matches.size(); i++){
+                HousingReq req = matches.get(i);
+                System.out.println((i + 1) + ". " + req.getUser().getName() + " (" + req.getUser().getUserId() + ", "
+                        + req.getUser().getAge() + ", " + req.getUser().getMaritalStatus() + ") - "
+                        + req.getProject().getName() + ", " + req.getRoomType() + ", " + req.getStatus());
+            }
+            if (query.count() > matches.size()) System.out.println("... and " + (query.count() - matches.size()) + " more");
+        }, user_ -> user_ instanceof Manager);
     }
 
     /**
@@ -368,43 +492,43 @@ public class ProjectManageMenu extends MenuGroup {
                 ProjectPrinter.getProjectDetailsString(project, true));
         editMenu.addMenuItem("Edit Project Name", () -> {
             System.out.println("Enter new project name:");
-            String newName = sc.nextLine().trim();
+            String newName = AppScanner.getInstance().nextLine().trim();
             project.setName(newName);
             System.out.println("Project name updated successfully.");
         });
         editMenu.addMenuItem("Edit Neighborhood", () -> {
             System.out.println("Enter new neighborhood:");
-            String newNeighborhood = sc.nextLine().trim();
+            String newNeighborhood = AppScanner.getInstance().nextLine().trim();
             project.setNeighbourhood(newNeighborhood);
             System.out.println("Neighborhood updated successfully.");
         });
         editMenu.addMenuItem("Edit 2-Room Units", () -> {
             System.out.println("Enter new number of 2-room units:");
-            int newUnits2Room = Integer.parseInt(sc.nextLine().trim());
+            int newUnits2Room = Integer.parseInt(AppScanner.getInstance().nextLine().trim());
             project.setUnits2Room(newUnits2Room);
             System.out.println("2-room units updated successfully.");
         });
         editMenu.addMenuItem("Edit 2-Room Price", () -> {
             System.out.println("Enter new price for 2-room units:");
-            int newPrice2Room = Integer.parseInt(sc.nextLine().trim());
+            int newPrice2Room = Integer.parseInt(AppScanner.getInstance().nextLine().trim());
             project.setUnits2RoomPrice(newPrice2Room);
             System.out.println("2-room price updated successfully.");
         });
         editMenu.addMenuItem("Edit 3-Room Units", () -> {
             System.out.println("Enter new number of 3-room units:");
-            int newUnits3Room = Integer.parseInt(sc.nextLine().trim());
+            int newUnits3Room = Integer.parseInt(AppScanner.getInstance().nextLine().trim());
             project.setUnits3Room(newUnits3Room);
             System.out.println("3-room units updated successfully.");
         });
         editMenu.addMenuItem("Edit 3-Room Price", () -> {
             System.out.println("Enter new price for 3-room units:");
-            int newPrice3Room = Integer.parseInt(sc.nextLine().trim());
+            int newPrice3Room = Integer.parseInt(AppScanner.getInstance().nextLine().trim());
             project.setUnits3RoomPrice(newPrice3Room);
             System.out.println("3-room price updated successfully.");
         });
         editMenu.addMenuItem("Edit Application Open Date", () -> {
             System.out.println("Enter new application open date (dd/MM/yyyy):");
-            String newOpenDate = sc.nextLine().trim();
+            String newOpenDate = AppScanner.getInstance().nextLine().trim();
             LocalDate targetDate;
             try {
                 targetDate = LocalDate.parse(newOpenDate, DateTimeFormatter.ofPattern("dd/MM/yyyy"));
@@ -420,25 +544,21 @@ public class ProjectManageMenu extends MenuGroup {
                 return;
             }
 
-            // Check for overlapping dates with other projects
-            Main.projectList.stream()
-                .filter(project_ -> project_.isManager(manager) &&
-                    project_ != project &&
-                    !(TimeCompare.timeSeparate(targetDate, project.getCloseDate(), project_.getOpenDate(), project_.getCloseDate())))
-                .findAny()
-                .ifPresent(project_ -> {
-                    System.out.println("Date given intersects with " + project_ + 
-                        "\nProject Open Date: " + project_.getOpenDate().format(DateTimeFormat.getDateFormatter()) + 
-                        "\nProject End Date: " + project_.getCloseDate().format(DateTimeFormat.getDateFormatter()));
-                    return;
-                });
+            // Check for overlapping dates with the manager's other projects
+            Project clash = ProjectCalendar.managerClash(manager, targetDate, project.getCloseDate(), project);
+            if (clash != null) {
+                System.out.println("Date given intersects with " + clash + 
+                    "\nProject Open Date: " + clash.getOpenDate().format(DateTimeFormat.getDateFormatter()) + 
+                    "\nProject End Date: " + clash.getCloseDate().format(DateTimeFormat.getDateFormatter()));
+                return;
+            }
 
             project.setOpenDate(targetDate);
             System.out.println("Application open date updated successfully.");
         });
         editMenu.addMenuItem("Edit Application Close Date", () -> {
             System.out.println("Enter new application close date (dd/MM/yyyy):");
-            String newCloseDate = sc.nextLine().trim();
+            String newCloseDate = AppScanner.getInstance().nextLine().trim();
             LocalDate targetDate;
             try {
                 targetDate = LocalDate.parse(newCloseDate, DateTimeFormatter.ofPattern("dd/MM/yyyy"));
@@ -446,17 +566,6 @@ public class ProjectManageMenu extends MenuGroup {
                 System.out.println("Date could not be resolved.");
                 return;
             }
-            Main.projectList.stream()
-                .filter(project_ -> project_.isManager(manager) &&
-                    project_ != project &&
-                    !(TimeCompare.timeSeparate(project.getOpenDate(), targetDate, project_.getOpenDate(), project_.getCloseDate())))
-                .findAny()
-                .ifPresent(project_ -> {
-                    System.out.println("Date given intersects with " + project_ + 
-                        "\nProject Open Date: " + project_.getOpenDate().format(DateTimeFormat.getDateFormatter()) + 
-                        "\nProject End Date: " + project_.getCloseDate().format(DateTimeFormat.getDateFormatter()));
-                        return;
-                });
             if (project.getOpenDate().isAfter(targetDate)){
                 System.out.println("Error: Project Start Date: " + 
                     project.getOpenDate().format(DateTimeFormat.getDateFormatter()) + 
@@ -464,12 +573,20 @@ public class ProjectManageMenu extends MenuGroup {
                     targetDate.format(DateTimeFormat.getDateFormatter()));
                 return;
             }
+            // Check for overlapping dates with the manager's other projects
+            Project clash = ProjectCalendar.managerClash(manager, project.getOpenDate(), targetDate, project);
+            if (clash != null) {
+                System.out.println("Date given intersects with " + clash + 
+                    "\nProject Open Date: " + clash.getOpenDate().format(DateTimeFormat.getDateFormatter()) + 
+                    "\nProject End Date: " + clash.getCloseDate().format(DateTimeFormat.getDateFormatter()));
+                return;
+            }
             project.setCloseDate(targetDate);
             System.out.println("Application close date updated successfully.");
         });
         editMenu.addMenuItem("Edit Officer Slots", () -> {
             System.out.println("Enter new number of officer slots:");
-            int newOfficerSlots = Integer.parseInt(sc.nextLine().trim());
+            int newOfficerSlots = Integer.parseInt(AppScanner.getInstance().nextLine().trim());
             project.setOfficerSlots(newOfficerSlots);
             System.out.println("Officer slots updated successfully.");
         });
@@ -479,50 +596,129 @@ public class ProjectManageMenu extends MenuGroup {
         return editMenu;
     }
     
-    private Function<Manager, List<User>> generateRelevantApplicants = 
-            (Manager manager) -> {
-                List<User> userList = new ArrayList<User>(Main.applicantList);
-                userList.addAll(Main.officerList);
-                userList = userList.stream()
-                    .filter(user_ -> Main.housingReqList.stream()
-                        .anyMatch(housingReq -> 
-                            filterManagerReport(housingReq, user_, manager)
-                    ))
-                    .collect(Collectors.toList());
-
-                return userList;
-    };
-
-    private boolean filterManagerReport(HousingReq req, User user, Manager manager) {
-        REPORT_FILTER filter = manager.getReportFilter();
-
-        // Check if the housing request belongs to the manager's project
-        if (!req.getProject().isManager(manager)) {
-            return false;
+    /**
+     * Asks a manager for a format and a file, and exports their report on applicants for their current filter to it.
+     *
+     * @param manager The manager whose report is exported.
+     * @param project The project reported on, for {@link REPORT_FILTER#PROJECT}.
+     */
+    private static void exportReport(Manager manager, Project project) {
+        System.out.println("Format (csv or jsonl):");
+        ReportExporter.FORMAT format;
+        try {
+            format = ReportExporter.FORMAT.valueOf(AppScanner.getInstance().nextLine().trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Unknown format.");
+            return;
+        }
+        String defaultFile = manager.getUserId() + "_" + manager.getReportFilter().toString().toLowerCase()
+                + "." + format.getExtension();
+        System.out.println("File in " + ReportExporter.FOLDER + " (blank for " + defaultFile + "):");
+        String name = AppScanner.getInstance().nextLine().trim();
+        try {
+            File file = ReportExporter.resolve(name.isEmpty() ? defaultFile : name);
+            System.out.println(ReportExporter.export(manager, manager.getReportFilter(), project, format, file));
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Could not export the report: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Asks a manager for the criteria of a {@link ReportQuery}. Each criterion may be left blank to accept everything,
+     * and a criterion that takes several values accepts a comma-separated list.
+     *
+     * @param manager The manager whose projects are queried.
+     * @return The query, or {@code null} if a criterion could not be understood.
+     */
+    private static ReportQuery readQuery(Manager manager) {
+        ReportQuery query = new ReportQuery(manager);
+        try {
+            System.out.println("Marital status (Married, Single, or blank for any):");
+            for (String value : readList()) query.maritalStatus(User.MARITAL_STATUS.valueOf(capitalise(value)));
+
+            System.out.println("Projects (names separated by commas, or blank for all of yours):");
+            for (String value : readList()) {
+                Project project = Main.projectList.get(value);
+                if (project == null) {
+                    System.out.println("Project not found: " + value);
+                    return null;
+                }
+                query.projects(project);
+            }
+
+            System.out.println("Flat types (room2, room3, or blank for any):");
+            for (String value : readList()) query.roomTypes(ROOM_TYPE.valueOf(value.toLowerCase()));
+
+            System.out.println("Applicant age range (e.g. 35-45, or blank for any):");
+            String ages = AppScanner.getInstance().nextLine().trim();
+            if (!ages.isEmpty()) {
+                String[] bounds = ages.split("-");
+                int min = Integer.parseInt(bounds[0].trim());
+                query.ages(min, bounds.length > 1 ? Integer.parseInt(bounds[1].trim()) : min);
+            }
+
+            System.out.println("Application statuses (pending, successful, unsuccessful, booked, or blank for any):");
+            for (String value : readList()) query.statuses(HousingReq.REQUEST_STATUS.valueOf(value.toLowerCase()));
+
+            System.out.println("Application period overlapping (dd-MM-yyyy to dd-MM-yyyy, or blank for any):");
+            String period = AppScanner.getInstance().nextLine().trim();
+            if (!period.isEmpty()) {
+                String[] dates = period.split("\\s+to\\s+");
+                LocalDate from = LocalDate.parse(dates[0], DateTimeFormat.getDateFormatter());
+                query.applicationPeriod(from, dates.length > 1 ? LocalDate.parse(dates[1], DateTimeFormat.getDateFormatter()) : from);
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            System.out.println("Invalid criterion: " + e.getMessage());
+            return null;
         }
+        return query;
+    }
 
-        // Check if the housing request belongs to the applicant
-        if (!req.getUser().equals(user)) {
-            return false;
+    // reads a comma-separated line, dropping blanks
+    private static List<String> readList() {
+        List<String> values = new ArrayList<>();
+        for (String value : AppScanner.getInstance().nextLine().split(",")) {
+            if (!value.isBlank()) values.add(value.trim());
         }
+        return values;
+    }
 
-        // Apply filters based on the manager's report filter
-        switch (filter) {
-            case MARRIED:
-                return user.getMaritalStatus() == MARITAL_STATUS.Married;
-            case SINGLE:
-                return user.getMaritalStatus() == MARITAL_STATUS.Single;
-            case PROJECT:
-                return selectedProjectForReport != null &&
-                       req.getProject().equals(selectedProjectForReport) &&
-                       req.getUser().equals(user);
-            case FLAT_TYPE_2_ROOM:
-                return req.getRoomType() == ROOM_TYPE.room2 && req.getUser().equals(user);
-            case FLAT_TYPE_3_ROOM:
-                return req.getRoomType() == ROOM_TYPE.room3 && req.getUser().equals(user);
-            default:
-                return true; // No specific filter applied
+    private static String capitalise(String value) {
+        return value.substring(0, 1).toUpperCase() + value.substring(1).toLowerCase();
+    }
+
+    /**
+     * Picks the requests named by a bulk selection: {@code all}, the name of a project, or a comma-separated list of
+     * positions and ranges such as {@code 1-20,25}.
+     *
+     * @param input The manager's selection.
+     * @param pending The pending requests, numbered from 1 as listed.
+     * @return The selected requests in listed order, or {@code null} if the selection could not be understood.
+     */
+    private static List<HousingReq> selectBulk(String input, List<HousingReq> pending) {
+        if (input.equalsIgnoreCase("all")) return pending;
+        Project project = Main.projectList.get(input);
+        if (project != null) {
+            return pending.stream().filter(req -> req.getProject() == project).collect(Collectors.toList());
         }
+        boolean[] chosen = new boolean[pending.size()];
+        try {
+            for (String part : input.split(",")) {
+                String[] bounds = part.trim().split("-");
+                int from = Integer.parseInt(bounds[0].trim());
+                int to = bounds.length > 1 ? Integer.parseInt(bounds[1].trim()) : from;
+                if (bounds.length > 2 || from < 1 || to > pending.size() || from > to) return null;
+                for (int i = from; i <= to; i++) chosen[i - 1] = true;
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        List<HousingReq> selected = new ArrayList<>();
+        for (int i = 0; i < chosen.length; i++) {
+            if (chosen[i]) selected.add(pending.get(i));
+        }
+        return selected;
     }
 }
-
@@ -1,8 +1,6 @@
 package program.boundary.menuTemplate;
 
-import java.util.Scanner;
 import java.util.function.Predicate;
-import program.boundary.console.AppScanner;
 import program.entity.users.User;
 
 /**
@@ -21,13 +19,6 @@ import program.entity.users.User;
  */
 public class MenuItem {
 
-    /**
-     * {@code sc} is a shared instance of the {@link Scanner} class, specifically obtained through {@link AppScanner}.
-     * This scanner is used to read input from the user's console when an action associated with a menu item requires it.
-     * By sharing a single instance, we ensure consistent input handling throughout the menu system.
-     */
-    protected static final Scanner sc = AppScanner.getInstance();
-
     /**
      * {@code description} is the text that will be displayed to the user for this menu item.
      * It should be clear and concise, indicating the purpose or action associated with this option.
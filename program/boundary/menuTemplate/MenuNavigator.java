@@ -1,20 +1,20 @@
 package program.boundary.menuTemplate;
 
 import java.util.List;
-import java.util.Scanner;
 import java.util.Stack;
 import java.util.stream.Collectors;
 
 import program.boundary.console.AppScanner;
 import program.boundary.console.ConsoleCommands;
+import program.entity.caching.Journal;
 import program.entity.users.User;
 
 /**
  * <p>
  * {@code MenuNavigator} plays the crucial role of managing how users move between different menus within the application.
- * It implements the Singleton design pattern, ensuring that only one central instance of {@code MenuNavigator} exists
- * throughout the entire application lifecycle. This single instance is responsible for keeping track of the current menu
- * and the history of visited menus.
+ * It implements the Singleton design pattern per thread: there is one central instance of {@code MenuNavigator} for each
+ * user session, which on the console means one for the entire application lifecycle. This instance is responsible for
+ * keeping track of the current menu and the history of visited menus.
  * </p>
  *
  * <p>
@@ -36,12 +36,6 @@ public class MenuNavigator {
      * previously viewed menu.
      */
     private final Stack<MenuGroup>menuStack = new Stack<>();
-    /**
-     * {@code sc} is a static and final instance of the {@link Scanner} class, obtained from {@link AppScanner}.
-     * This single scanner instance is used throughout the menu navigation process to read user input from the console,
-     * such as the number corresponding to their menu choice.
-     */
-    private static final Scanner sc = AppScanner.getInstance(); 
 
     /**
      * {@code user} stores the {@link User} object representing the currently logged-in user. This information is
@@ -51,10 +45,11 @@ public class MenuNavigator {
     private User user;
 
     /**
-     * {@code instance} holds the single instance of the {@code MenuNavigator} class, as per the Singleton pattern.
-     * It is initialized to {@code null} and created only when the {@link #getInstance()} method is called for the first time.
+     * {@code instance} holds the instance of the {@code MenuNavigator} class for the current thread. On the console
+     * there is only the main thread, so this is a plain singleton; in server mode every session runs on its own
+     * thread and so gets its own menu stack. It is created when {@link #getInstance()} is first called on a thread.
      */
-    private static MenuNavigator instance = null;
+    private static final ThreadLocal<MenuNavigator> instance = ThreadLocal.withInitial(MenuNavigator::new);
 
     /**
      * Private constructor to prevent direct instantiation of {@code MenuNavigator} from outside the class.
@@ -64,16 +59,20 @@ public class MenuNavigator {
     private MenuNavigator(){}
 
     /**
-     * Returns the single instance of the {@code MenuNavigator}. If an instance does not yet exist, a new one is created
-     * and then returned. Subsequent calls to this method will always return the same instance.
+     * Returns the instance of the {@code MenuNavigator} for the current thread. If an instance does not yet exist, a
+     * new one is created and then returned. Subsequent calls on the same thread will always return the same instance.
      *
-     * @return The singleton instance of {@code MenuNavigator} that manages menu navigation.
+     * @return The {@code MenuNavigator} that manages menu navigation for the current thread's user.
      */
     public static MenuNavigator getInstance(){
-        if (instance == null) {
-            instance = new MenuNavigator();// Create a new MenuNavigator only if one doesn't already exist.
-        }
-        return instance; // Return the single instance of the MenuNavigator.
+        return instance.get();
+    }
+
+    /**
+     * Discards the current thread's {@code MenuNavigator}, so that a pooled thread starts its next session afresh.
+     */
+    public static void release(){
+        instance.remove();
     }
 
     /**
@@ -120,7 +119,7 @@ public class MenuNavigator {
             System.out.printf("%d. Go back\n", items.size() + 1);// Add an option to go back to the previous menu.
 
             try{
-                choice = Integer.parseInt(sc.nextLine()) - 1; // Read the user's input and adjust it to be zero-based.
+                choice = Integer.parseInt(AppScanner.getInstance().nextLine()) - 1; // Read the user's input and adjust it to be zero-based.
 
                 // Validate the user's input to ensure it's within the valid range of menu options.
                 if (choice < 0 || choice > items.size()) throw new Exception("Please enter a number between 0 and " + String.valueOf(items.size()) + " inclusive. \n");
@@ -130,10 +129,11 @@ public class MenuNavigator {
                 else {
                     MenuItem selected = items.get(choice); // Get the MenuItem object corresponding to the user's choice.
                     selected.execute(); // Execute the action associated with the selected menu item.
+                    Journal.sync(); // Make the changes of this action durable before waiting on the user again.
                     // If the selected item is not another menu group (i.e., it's an action), wait for the user to press Enter before continuing.
                     if (!(selected instanceof MenuGroup)){
                         System.out.println("Press enter to continue...");
-                        sc.nextLine();
+                        AppScanner.getInstance().nextLine();
                     }
                 }
 
@@ -142,6 +142,7 @@ public class MenuNavigator {
             }catch (Exception e){
                 System.out.println(e.getMessage());
             }
+            Journal.sync(); // Also covers actions that failed part-way.
         }
     }
 
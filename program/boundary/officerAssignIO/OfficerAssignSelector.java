@@ -1,6 +1,5 @@
 package program.boundary.officerAssignIO;
 
-import java.util.Scanner;
 
 import program.boundary.console.AppScanner;
 import program.control.Main;
@@ -17,12 +16,6 @@ import program.entity.project.Project;
  * officer assignment requests through the console.</p>
  */
 public class OfficerAssignSelector {
-    /**
-     * {@code sc} is a static and final instance of the {@link Scanner} class, obtained
-     * from {@link AppScanner}. It is used to read input from the console when prompting
-     * the manager for choices.
-     */
-    private static final Scanner sc = AppScanner.getInstance();
 
     /**
      * Allows a manager to view all the officer assignment requests submitted for a given project
@@ -58,7 +51,7 @@ public class OfficerAssignSelector {
         do {
             System.out.print("Enter the number of your choice: ");
             try {
-                choice = Integer.parseInt(sc.nextLine()) - 1; // Read the input and adjust to be zero-based index.
+                choice = Integer.parseInt(AppScanner.getInstance().nextLine()) - 1; // Read the input and adjust to be zero-based index.
             } catch (NumberFormatException e) {
                 System.out.println("Invalid input. Please enter a valid number.");
             }
@@ -96,7 +89,7 @@ public class OfficerAssignSelector {
         // Prompt the manager to enter 'A' to accept or 'R' to reject the request.
         do {
             System.out.print("Accept or Reject this request? (A/R): ");
-            choice = sc.nextLine().trim().toUpperCase(); // Read input, remove leading/trailing spaces, and convert to uppercase for case-insensitive comparison.
+            choice = AppScanner.getInstance().nextLine().trim().toUpperCase(); // Read input, remove leading/trailing spaces, and convert to uppercase for case-insensitive comparison.
             // Keep prompting until the manager enters either 'A' or 'R'.
         } while (!choice.equals("A") && !choice.equals("R"));
 
@@ -123,7 +116,7 @@ public class OfficerAssignSelector {
             // Prompt the manager to decide whether to reject the request due to no available slots.
             do {
                 System.out.print("Reject this request? (Y/N): ");
-                choice = sc.nextLine().trim().toUpperCase();
+                choice = AppScanner.getInstance().nextLine().trim().toUpperCase();
             } while (!choice.equals("Y") && !choice.equals("N"));
 
             // If the manager chooses to reject the request due to no slots.
@@ -1,5 +1,6 @@
 package program.boundary.projectIO;
 
+import program.boundary.console.AppScanner;
 import program.control.Main;
 import program.control.TimeCompare;
 import program.entity.project.Project;
@@ -7,7 +8,6 @@ import program.entity.users.Officer;
 import program.entity.users.User;
 
 import java.util.List;
-import java.util.Scanner;
 import java.util.stream.Collectors;
 
 
@@ -21,14 +21,6 @@ import java.util.stream.Collectors;
  */
 public class ProjectSelector {
 
-    /**
-     * <p>
-     * The static {@code sc} instance of the {@link Scanner} class is used to read user input
-     * from the console during project selection.
-     * </p>
-     */
-    private static final Scanner sc = new Scanner(System.in);
-
     /**
      * <p>
      * Allows a client to choose a project from the list of visible projects. It filters the project list
@@ -144,7 +136,7 @@ public class ProjectSelector {
         do {
             System.out.print("\nEnter the number of your choice: ");
             try {
-                choice = Integer.parseInt(sc.nextLine()) - 1;  // Adjust input to 0-based index
+                choice = Integer.parseInt(AppScanner.getInstance().nextLine()) - 1;  // Adjust input to 0-based index
             } catch (NumberFormatException e) {
                 System.out.println("Invalid input. Please enter a valid number.");
             }
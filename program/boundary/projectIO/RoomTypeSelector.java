@@ -1,6 +1,5 @@
 package program.boundary.projectIO;
 
-import java.util.Scanner;
 
 import program.boundary.console.AppScanner;
 import program.entity.project.Project;
@@ -23,15 +22,6 @@ import program.entity.users.User;
  */
 public class RoomTypeSelector {
 
-    /**
-     * <p>
-     * {@code sc} is a static, final instance of the {@link Scanner} class, provided
-     * by {@link AppScanner}. It is used to capture user input from the console when
-     * prompting the user to select a room type.
-     * </p>
-     */
-    private static final Scanner sc = AppScanner.getInstance();
-
     /**
      * <p>
      * Determines the room type the user wants to apply for, based on their eligibility and
@@ -68,7 +58,7 @@ public class RoomTypeSelector {
                     System.out.println("1. 2-Room");
                     System.out.println("2. 3-Room");
                     System.out.println("3. Go Back");
-                    userInput = sc.nextLine();
+                    userInput = AppScanner.getInstance().nextLine();
                     // Keep prompting until the user enters a valid option
                 } while (!"1".equals(userInput) && !"2".equals(userInput) && !"3".equals(userInput));
 
@@ -3,13 +3,12 @@ package program.boundary.projectIO;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.Scanner;
 
 import program.boundary.console.AppScanner;
 import program.boundary.console.DateTimeFormat;
 import program.boundary.menuTemplate.MenuAction;
 import program.control.Main;
-import program.control.TimeCompare;
+import program.control.ProjectCalendar;
 import program.entity.project.Project;
 import program.entity.users.Manager;
 import program.entity.users.User;
@@ -36,14 +35,6 @@ public class SetUpProject implements MenuAction{
      */
     User user;
 
-    /**
-     * <p>
-     * {@code sc} is a static and final instance of the {@link Scanner} class, obtained from
-     * {@link AppScanner}. It is used to read input from the console when prompting the manager
-     * for project details.
-     * </p>
-     */
-    private static Scanner sc = AppScanner.getInstance();
     
     /**
      * <p>
@@ -76,41 +67,41 @@ public class SetUpProject implements MenuAction{
             Manager manager = (Manager) user;
 
             System.out.println("Enter Project Name:");
-            String name = sc.nextLine().trim();
+            String name = AppScanner.getInstance().nextLine().trim();
             if (name.isEmpty()) throw new Exception("Project Name cannot be empty.");
 
             System.out.println("Enter Neighborhood:");
-            String neighborhood = sc.nextLine().trim();
+            String neighborhood = AppScanner.getInstance().nextLine().trim();
             if (neighborhood.isEmpty()) throw new Exception("Neighborhood cannot be empty.");
 
             System.out.println("Enter number of 2-room units:");
-            String units2room = sc.nextLine().trim();
+            String units2room = AppScanner.getInstance().nextLine().trim();
             if (!units2room.matches("\\d+")) throw new Exception("Invalid number of 2-room units.");
 
             System.out.println("Enter price for 2-room units:");
-            String units2roomPrice = sc.nextLine().trim();
+            String units2roomPrice = AppScanner.getInstance().nextLine().trim();
             if (!units2roomPrice.matches("\\d+")) throw new Exception("Invalid price for 2-room units.");
 
             System.out.println("Enter number of 3-room units:");
-            String units3room = sc.nextLine().trim();
+            String units3room = AppScanner.getInstance().nextLine().trim();
             if (!units3room.matches("\\d+")) throw new Exception("Invalid number of 3-room units.");
 
             System.out.println("Enter price for 3-room units:");
-            String units3roomPrice = sc.nextLine().trim();
+            String units3roomPrice = AppScanner.getInstance().nextLine().trim();
             if (!units3roomPrice.matches("\\d+")) throw new Exception("Invalid price for 3-room units.");
 
             System.out.println("Take note you must not have a project assigned to you when you are busy");
             System.out.println("Times when you are busy: ");
-            Main.projectList.stream().filter(project -> project.isManager(manager)).forEach(
+            ProjectCalendar.managerProjects(manager).forEach(
                 project -> System.out.println("Start Date: " + project.getOpenDate().format(DateTimeFormat.getDateFormatter()) + 
                                                "\nClose Date: " + project.getCloseDate().format(DateTimeFormat.getDateFormatter()))
             );
 
             System.out.println("Enter application opening date (dd-MM-yyyy):");
-            String openDate = sc.nextLine().trim();
+            String openDate = AppScanner.getInstance().nextLine().trim();
 
             System.out.println("Enter application closing date (dd-MM-yyyy):");
-            String closeDate = sc.nextLine().trim();
+            String closeDate = AppScanner.getInstance().nextLine().trim();
 
             LocalDate parsedOpenDate;
             LocalDate parsedCloseDate;
@@ -128,18 +119,16 @@ public class SetUpProject implements MenuAction{
             }
 
             // Check for overlapping dates with other projects
-            if (Main.projectList.stream()
-                .anyMatch(project -> project.isManager(manager) &&
-                    !(TimeCompare.timeSeparate(parsedOpenDate, parsedCloseDate, project.getOpenDate(), project.getCloseDate())))) {
+            if (ProjectCalendar.managerClash(manager, parsedOpenDate, parsedCloseDate, null) != null) {
                 throw new Exception("You have another project assigned to you at that moment.");
             }
 
             System.out.println("Enter number of officer slots:");
-            String officerSlots = sc.nextLine().trim();
+            String officerSlots = AppScanner.getInstance().nextLine().trim();
             if (!officerSlots.matches("\\d+")) throw new Exception("Invalid number of officer slots.");
 
             System.out.println("Enter comma-separated list of officer names (leave blank if none):");
-            String officerList = sc.nextLine().trim();
+            String officerList = AppScanner.getInstance().nextLine().trim();
 
             // Create a new Project object with the collected information.
             Project newProject = new Project(
@@ -1,8 +1,9 @@
 package program.boundary.security;
 
-import java.util.Scanner;
 
 import program.boundary.console.AppScanner;
+import program.boundary.console.Session;
+import program.control.security.LoginThrottle;
 import program.control.security.UserFetcher;
 import program.entity.users.User;
 
@@ -13,31 +14,28 @@ import program.entity.users.User;
  * </p>
  * <p>
  * If the authentication fails, the class provides feedback on the incorrect credentials and limits the number of login attempts.
- * If the maximum number of attempts is exceeded, the application is terminated.
+ * If the maximum number of attempts is exceeded, the login is abandoned and the caller ends the session.
+ * </p>
+ * <p>
+ * Failed logins are counted by {@link LoginThrottle} per NRIC and per terminal, across sessions. Once an NRIC or a
+ * terminal has failed too often, attempts are turned away for a while without checking the password.
  * </p>
  */
 public class LoginHandler {
 
-    /**
-     * <p>
-     * A static and final instance of the {@link Scanner} class, used for reading user input from the console.
-     * This instance is provided by {@link AppScanner} to ensure consistent input handling.
-     * </p>
-     */
-    private static Scanner sc = AppScanner.getInstance();
-
     /**
      * <p>
      * Initiates the login process by prompting the user for their NRIC and password.
      * It allows a limited number of login attempts. If authentication succeeds, it returns the corresponding
-     * {@link User} object. If the maximum number of failed attempts is reached, the application is exited.
+     * {@link User} object. If the maximum number of failed attempts is reached, {@code null} is returned.
      * </p>
      *
      * @return the authenticated {@link User} object if login is successful, or {@code null} if the maximum number of login attempts is exceeded,
-     *         at which point the application will terminate.
+     *         in which case the caller ends the session.
      */
     public static User loginUser(){
         System.out.println("\nPlease Log In:");
+        String terminal = Session.terminal();
 
         // <p>Loop through a set number of login attempts.</p>
         for (int attemptsLeft =  4; attemptsLeft >= 0; attemptsLeft--){
@@ -47,23 +45,59 @@ public class LoginHandler {
             System.out.println("Please enter User Password: ");
 
             // <p>Capture the user's password input.</p>
-            String userInput = sc.nextLine();
+            String userInput = AppScanner.getInstance().nextLine();
+
+            // <p>Turn the attempt away without checking the password if the NRIC or this terminal is backing off.</p>
+            long wait = LoginThrottle.check(NRIC, terminal);
+            if (wait > 0) {
+                System.out.println("Too many failed logins. Please wait " + wait + " seconds before trying again. Number of tries left " + attemptsLeft);
+                continue;
+            }
 
             // <p>Attempt to retrieve the {@link User} object corresponding to the provided NRIC and password.</p>
             User user = UserFetcher.fetch(NRIC, userInput);
 
             // <p>If a matching user is found, authentication is successful, and the {@link User} object is returned.</p>
             if (user != null){
+                LoginThrottle.succeeded(NRIC);
                 return user;
             }
+            LoginThrottle.failed(NRIC, terminal);
 
             // <p>If login fails, inform the user of incorrect credentials and display remaining attempts.</p>
             System.out.println("Wrong Username or Password. Number of tries left " + attemptsLeft);
         }
 
-        // <p>If the maximum number of attempts is exceeded, notify the user and exit the application.</p>
+        // <p>If the maximum number of attempts is exceeded, notify the user and let the caller end the session.</p>
         System.out.println("Too many login attempts. \nExiting...");
-        System.exit(0);  // <p>Exit the application after failed login attempts.</p>
-        return null;  // <p>Technically unreachable due to the System.exit(0), but included for completeness.</p>
+        return null;  // <p>Not calling System.exit here, as in server mode other sessions are still running.</p>
+    }
+
+    /**
+     * <p>
+     * Makes a single login attempt with credentials given up front, as the command-line entry points in
+     * {@link program.control.Main} do, counting it against the NRIC and the terminal in {@link LoginThrottle} just
+     * like an attempt at the login prompt.
+     * </p>
+     *
+     * @param NRIC the NRIC entered
+     * @param password the password entered
+     * @param terminal where the attempt comes from, such as {@code cli}
+     * @return the authenticated {@link User}, or {@code null} after printing why the login failed
+     */
+    public static User login(String NRIC, String password, String terminal){
+        long wait = LoginThrottle.check(NRIC, terminal);
+        if (wait > 0) {
+            System.out.println("Too many failed logins. Please wait " + wait + " seconds before trying again.");
+            return null;
+        }
+        User user = UserFetcher.fetch(NRIC, password);
+        if (user == null) {
+            LoginThrottle.failed(NRIC, terminal);
+            System.out.println("Wrong Username or Password.");
+            return null;
+        }
+        LoginThrottle.succeeded(NRIC);
+        return user;
     }
 }
@@ -1,4 +1,5 @@
 package program.boundary.security;
+import program.boundary.console.Session;
 import program.control.security.Password;
 import program.entity.users.User;
 
@@ -30,7 +31,7 @@ public class PasswordResetHandler {
         }
 
         // <p>Generate a hashed version of the new password using the Password utility class.</p>
-        Password newPasswordObj = new Password(newPassword);
+        Password newPasswordObj = Session.withoutDataLock(() -> new Password(newPassword)); // <p>without holding up other sessions</p>
 
         // <p>Set the user's password to the newly hashed password.</p>
         user.setPassword(newPasswordObj);
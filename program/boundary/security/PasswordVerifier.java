@@ -1,10 +1,8 @@
 package program.boundary.security;
-import program.control.security.HashingUtils;
+import program.boundary.console.Session;
 import program.control.security.Password;
 import program.entity.users.User;
 
-import static program.control.security.Pepper.getPepper;
-
 /**
  * <p>
  * The {@code PasswordVerifier} class is responsible for verifying whether a provided password
@@ -30,7 +28,8 @@ public class PasswordVerifier {
         // <p>Retrieve the user's stored Password object which contains the hash and salt.</p>
         Password password = user.getPassword();
 
-        // <p>Hash the input password, appending the user's salt and a global pepper value, then compare it with the stored hash.</p>
-        return password.getHash().equals(HashingUtils.hash(passwordInput + password.getSalt() + getPepper()));
+        // <p>Hash the input password with the user's salt, a global pepper value and the stored function and cost, then compare it with the stored hash in constant time.</p>
+        // <p>Hashing is slow on purpose, so in server mode it runs without the data lock; the Password itself never changes.</p>
+        return Session.withoutDataLock(() -> password.matches(passwordInput));
     }
 }
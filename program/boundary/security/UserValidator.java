@@ -1,6 +1,5 @@
 package program.boundary.security;
 
-import java.util.Scanner;
 
 import program.boundary.console.AppScanner;
 
@@ -13,13 +12,6 @@ import program.boundary.console.AppScanner;
  * </p>
  */
 public class UserValidator {
-    /**
-     * <p>
-     * {@code sc} is a static and final instance of the {@link Scanner} class, obtained
-     * from {@link AppScanner}. It is used to read input from the console for the user's NRIC.
-     * </p>
-     */
-    private static Scanner sc = AppScanner.getInstance();
 
     /**
      * <p>
@@ -38,7 +30,7 @@ public class UserValidator {
             validNRIC = true; // <p>Assume the input is valid at the start of each iteration.</p>
             System.out.println("Please enter User NRIC: ");
             try {
-                NRIC = sc.nextLine(); // <p>Read the NRIC input from the user.</p>
+                NRIC = AppScanner.getInstance().nextLine(); // <p>Read the NRIC input from the user.</p>
                 validateNRIC(NRIC); // <p>Validate the entered NRIC.</p>
             } catch (Exception e) {
                 validNRIC = false; // <p>Set to false if validation fails.</p>
@@ -0,0 +1,245 @@
+package program.control;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * <p>
+ * The {@code IntervalTree} class stores closed intervals {@code [start, end]} with an attached value and answers
+ * overlap queries in logarithmic time. It is an AVL tree ordered by interval start, where every node also records
+ * the largest end point found in its subtree; a search can therefore skip any subtree whose largest end point lies
+ * before the query interval.
+ * </p>
+ *
+ * <p>
+ * Each value is held at most once: inserting a value that is already present replaces its interval, and values are
+ * removed by identity. Interval end points are {@code long}s, so dates are stored as epoch days.
+ * </p>
+ *
+ * <p>
+ * Supported queries:
+ * <ul>
+ *   <li>{@link #anyOverlap(long, long, Object)} — the first stored value overlapping an interval, optionally ignoring one value.</li>
+ *   <li>{@link #allOverlapping(long, long)} — every stored value overlapping an interval, ordered by start.</li>
+ *   <li>{@link #values()} — every stored value ordered by start.</li>
+ * </ul>
+ * </p>
+ *
+ * @param <T> the type of the values attached to the intervals
+ * @see ProjectCalendar for the per-manager and per-officer project calendars built on this tree.
+ */
+public class IntervalTree<T> {
+
+    private static final class Node<T> {
+        final long start;
+        final long end;
+        final long seq; // tie-breaker so that equal start points still have a strict order
+        final T value;
+        Node<T> left;
+        Node<T> right;
+        int height = 1;
+        long maxEnd;
+
+        Node(long start, long end, long seq, T value) {
+            this.start = start;
+            this.end = end;
+            this.seq = seq;
+            this.value = value;
+            this.maxEnd = end;
+        }
+    }
+
+    private Node<T> root;
+    private final IdentityHashMap<T, Node<T>> nodes = new IdentityHashMap<>();
+    private long nextSeq = 0;
+
+    /**
+     * Stores a value with the interval {@code [start, end]}, replacing the interval of the value if it is already stored.
+     *
+     * @param start the first point of the interval, inclusive
+     * @param end the last point of the interval, inclusive
+     * @param value the value to attach
+     */
+    public void insert(long start, long end, T value) {
+        remove(value);
+        Node<T> node = new Node<>(start, end, nextSeq++, value);
+        root = insert(root, node);
+        nodes.put(value, node);
+    }
+
+    /**
+     * Removes a value and its interval.
+     *
+     * @param value the value to remove, compared by identity
+     * @return {@code true} if the value was stored
+     */
+    public boolean remove(T value) {
+        Node<T> node = nodes.remove(value);
+        if (node == null) return false;
+        root = delete(root, node.start, node.seq);
+        return true;
+    }
+
+    /**
+     * Checks whether a value is stored.
+     *
+     * @param value the value to check, compared by identity
+     * @return {@code true} if the value is stored
+     */
+    public boolean contains(T value) {
+        return nodes.containsKey(value);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    /**
+     * Finds a stored value whose interval overlaps {@code [start, end]}.
+     *
+     * @param start the first point of the query interval, inclusive
+     * @param end the last point of the query interval, inclusive
+     * @param exclude a value to ignore, such as the one being edited; may be {@code null}
+     * @return the overlapping value with the earliest start, or {@code null} if there is none
+     */
+    public T anyOverlap(long start, long end, T exclude) {
+        Node<T> node = findOverlap(root, start, end, exclude);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Collects every stored value whose interval overlaps {@code [start, end]}.
+     *
+     * @param start the first point of the query interval, inclusive
+     * @param end the last point of the query interval, inclusive
+     * @return the overlapping values ordered by interval start
+     */
+    public List<T> allOverlapping(long start, long end) {
+        List<T> found = new ArrayList<>();
+        collectOverlaps(root, start, end, found);
+        return found;
+    }
+
+    /**
+     * Lists every stored value ordered by interval start.
+     *
+     * @return the stored values
+     */
+    public List<T> values() {
+        List<T> found = new ArrayList<>(nodes.size());
+        collectAll(root, found);
+        return found;
+    }
+
+    private Node<T> findOverlap(Node<T> node, long start, long end, T exclude) {
+        if (node == null || node.maxEnd < start) return null;
+        Node<T> found = findOverlap(node.left, start, end, exclude);
+        if (found != null) return found;
+        // everything from here on starts at or after node.start
+        if (node.start > end) return null;
+        if (node.end >= start && node.value != exclude) return node;
+        return findOverlap(node.right, start, end, exclude);
+    }
+
+    private void collectOverlaps(Node<T> node, long start, long end, List<T> found) {
+        if (node == null || node.maxEnd < start) return;
+        collectOverlaps(node.left, start, end, found);
+        if (node.start > end) return;
+        if (node.end >= start) found.add(node.value);
+        collectOverlaps(node.right, start, end, found);
+    }
+
+    private void collectAll(Node<T> node, List<T> found) {
+        if (node == null) return;
+        collectAll(node.left, found);
+        found.add(node.value);
+        collectAll(node.right, found);
+    }
+
+    private static <T> int compare(long start, long seq, Node<T> node) {
+        int cmp = Long.compare(start, node.start);
+        return cmp != 0 ? cmp : Long.compare(seq, node.seq);
+    }
+
+    private Node<T> insert(Node<T> node, Node<T> added) {
+        if (node == null) return added;
+        if (compare(added.start, added.seq, node) < 0) node.left = insert(node.left, added);
+        else node.right = insert(node.right, added);
+        return balance(node);
+    }
+
+    private Node<T> delete(Node<T> node, long start, long seq) {
+        if (node == null) return null;
+        int cmp = compare(start, seq, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, start, seq);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, start, seq);
+        } else {
+            if (node.left == null) return node.right;
+            if (node.right == null) return node.left;
+            // replace the node by its in-order successor
+            Node<T> successor = node.right;
+            while (successor.left != null) successor = successor.left;
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private Node<T> deleteMin(Node<T> node) {
+        if (node.left == null) return node.right;
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    private static <T> int height(Node<T> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static <T> void update(Node<T> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null) maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        if (node.right != null) maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        node.maxEnd = maxEnd;
+    }
+
+    private Node<T> balance(Node<T> node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) node.left = rotateLeft(node.left);
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) node.right = rotateRight(node.right);
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+}
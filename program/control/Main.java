@@ -1,17 +1,35 @@
 package program.control;
 
+import program.boundary.console.AppScanner;
 import program.boundary.menu.*;
 import program.boundary.menuTemplate.MenuNavigator;
 import program.boundary.security.LoginHandler;
 import program.control.enquiry.EnquiryList;
+import program.control.housingApply.HousingReq;
+import program.control.housingApply.HousingReqBatch;
+import program.control.housingApply.HousingReqBuckets;
 import program.control.housingApply.HousingReqList;
 import program.control.officerApply.AssignReqList;
+import program.control.report.ReportExporter;
+import program.control.security.LoginThrottle;
+import program.control.security.PasswordMigration;
 import program.entity.caching.DataInitializer;
+import program.entity.caching.Journal;
 import program.entity.caching.RecordSaver;
+import program.entity.project.Project;
+import program.entity.project.Project.ROOM_TYPE;
 import program.entity.project.ProjectList;
+import program.entity.users.Manager;
+import program.entity.users.Manager.REPORT_FILTER;
 import program.entity.users.User;
 import program.entity.users.UserList;
 
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * <p>
  * The {@code Main} class serves as the central control unit for initializing, running, and managing
@@ -25,12 +43,24 @@ import program.entity.users.UserList;
  *   <li>Handling login or skipping login for testing purposes.</li>
  *   <li>Starting the main menu navigation system.</li>
  *   <li>Saving all modified records before exiting the application.</li>
+ *   <li>Changes made during the session are also written to a {@link Journal} as they happen, so that they survive a crash.</li>
  * </ul>
  * </p>
  *
+ * <p>
+ * Started with {@code --server [port]}, the application instead serves many users at once over TCP through a
+ * {@link SessionServer}, each with their own login and menus on the shared lists below. With {@code --decide} it
+ * decides a manager's pending housing requests in bulk and exits, with {@code --export-report} it writes a manager's
+ * report on applicants to a CSV or JSON Lines file (see {@link ReportExporter}) and exits, and with
+ * {@code --migrate-passwords [threads]} it moves every stored password onto the current hashing settings
+ * (see {@link PasswordMigration}) and exits.
+ * </p>
+ *
  * @see DataInitializer for loading system data.
  * @see RecordSaver for saving data on shutdown.
+ * @see Journal for the write-ahead log replayed on startup.
  * @see MenuNavigator for user interface control flow.
+ * @see SessionServer for the multi-user server mode.
  */
 public class Main {
 
@@ -49,18 +79,45 @@ public class Main {
     /** List of officer assignment requests. */
     public static AssignReqList assignReqList = new AssignReqList();
 
+    /** The terminal that logins from the command-line entry points are counted against. */
+    private static final String CLI_TERMINAL = "cli";
+    /** Where the login counters of the command-line entry points are kept between runs. */
+    private static final Path CLI_LOGINS = Path.of("data", "cli_logins.txt");
+
     /**
      * The main entry point of the program.
      * <p>
      * It initializes system data, optionally skips login for testing, starts the menu navigation, and saves data on shutdown.
      * </p>
      *
-     * @param args Command-line arguments (not used).
+     * @param args Command-line arguments: {@code --server [port]} starts the multi-user server instead of the console,
+     *             {@code --decide} decides pending housing requests without the menus (see {@link #decide(String[])}),
+     *             {@code --export-report} writes a manager's report on applicants to a file (see
+     *             {@link #exportReport(String[])}), and {@code --migrate-passwords [threads]} rehashes the stored
+     *             passwords.
      * @throws Exception if an unexpected error occurs during initialization or saving.
      */
     public static void main(String[] args) throws Exception {
         DataInitializer.initialise();
 
+        if (args.length > 0 && args[0].equals("--server")) {
+            SessionServer.serve(args.length > 1 ? Integer.parseInt(args[1]) : SessionServer.DEFAULT_PORT);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--decide")) {
+            decide(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--export-report")) {
+            exportReport(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--migrate-passwords")) {
+            int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+            System.out.println(PasswordMigration.migrate(threads));
+            return;
+        }
+
         // Testing mode: skip login
         boolean skipLogin = false;
         User client;
@@ -68,6 +125,7 @@ public class Main {
             client = SkipLogin(USER.Manager);
         } else {
             client = LoginHandler.loginUser();
+            if (client == null) return; // too many failed attempts
         }
 
         // Production mode example
@@ -76,7 +134,90 @@ public class Main {
         MenuNavigator.getInstance().pushMenu(new MainMenu(client));
         MenuNavigator.getInstance().start(client);
 
-        RecordSaver.save();
+        Journal.close(); // saves the changed CSV files, empties the journal and refreshes the snapshot
+    }
+
+    /**
+     * Accepts or rejects a manager's pending housing requests in one step, without the menus:
+     * {@code --decide <manager NRIC> accept|reject [project [room2|room3]]}. Without a project, every pending request of
+     * the manager is decided. The manager's password is read from the first line of standard input, so that it does not
+     * appear in the process list.
+     *
+     * @param args The command-line arguments, starting with {@code --decide}.
+     * @throws Exception if the decisions cannot be saved.
+     */
+    private static void decide(String[] args) throws Exception {
+        if (args.length < 3 || !(args[2].equals("accept") || args[2].equals("reject"))
+                || (args.length > 4 && Arrays.stream(ROOM_TYPE.values()).noneMatch(type -> type.name().equals(args[4])))) {
+            System.out.println("Usage: --decide <manager NRIC> accept|reject [project [room2|room3]]");
+            return;
+        }
+        System.out.println("Please enter User Password: ");
+        LoginThrottle.persistTo(CLI_LOGINS); // each run is one attempt, so the counters must outlive it
+        User user = LoginHandler.login(args[1], AppScanner.getInstance().nextLine(), CLI_TERMINAL);
+        if (user == null) return;
+        if (!(user instanceof Manager)) {
+            System.out.println("The user is not a manager.");
+            return;
+        }
+        Project project = args.length > 3 ? projectList.get(args[3]) : null;
+        if (args.length > 3 && project == null) {
+            System.out.println("Project not found: " + args[3]);
+            return;
+        }
+        ROOM_TYPE roomType = args.length > 4 ? ROOM_TYPE.valueOf(args[4]) : null;
+
+        List<HousingReq> reqs = HousingReqBuckets.get((Manager) user, HousingReq.REQUEST_STATUS.pending).stream()
+                .filter(req -> project == null || req.getProject() == project)
+                .filter(req -> roomType == null || req.getRoomType() == roomType)
+                .collect(Collectors.toList());
+        System.out.println(HousingReqBatch.decide(reqs, args[2].equals("accept"), (Manager) user));
+    }
+
+    /**
+     * Exports a manager's report on applicants to a file without the menus:
+     * {@code --export-report <manager NRIC> csv|jsonl <file> [filter [project]]}, where the file is relative to
+     * {@value ReportExporter#FOLDER}, the filter is one of
+     * {@link REPORT_FILTER} and defaults to {@code VIEW_ALL}, and the project is needed for {@code PROJECT}. As with
+     * {@link #decide(String[])}, the manager's password is read from the first line of standard input.
+     *
+     * @param args The command-line arguments, starting with {@code --export-report}.
+     * @throws Exception if the file cannot be written.
+     */
+    private static void exportReport(String[] args) throws Exception {
+        ReportExporter.FORMAT format = null;
+        REPORT_FILTER filter = REPORT_FILTER.VIEW_ALL;
+        try {
+            if (args.length >= 4) format = ReportExporter.FORMAT.valueOf(args[2].toUpperCase());
+            if (args.length > 4) filter = REPORT_FILTER.valueOf(args[4].toUpperCase());
+        } catch (IllegalArgumentException e) {
+            format = null;
+        }
+        if (format == null || (filter == REPORT_FILTER.PROJECT && args.length < 6)) {
+            System.out.println("Usage: --export-report <manager NRIC> csv|jsonl <file> [filter [project]]");
+            return;
+        }
+        File file;
+        try {
+            file = ReportExporter.resolve(args[3]);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+        System.out.println("Please enter User Password: ");
+        LoginThrottle.persistTo(CLI_LOGINS); // each run is one attempt, so the counters must outlive it
+        User user = LoginHandler.login(args[1], AppScanner.getInstance().nextLine(), CLI_TERMINAL);
+        if (user == null) return;
+        if (!(user instanceof Manager)) {
+            System.out.println("The user is not a manager.");
+            return;
+        }
+        Project project = args.length > 5 ? projectList.get(args[5]) : null;
+        if (args.length > 5 && project == null) {
+            System.out.println("Project not found: " + args[5]);
+            return;
+        }
+        System.out.println(ReportExporter.export((Manager) user, filter, project, format, file));
     }
 
     /**
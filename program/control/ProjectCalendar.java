@@ -0,0 +1,240 @@
+package program.control;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import program.entity.project.Project;
+import program.entity.users.Manager;
+import program.entity.users.Officer;
+import program.entity.users.User;
+
+/**
+ * <p>
+ * The {@code ProjectCalendar} class keeps the application periods {@code [openDate, closeDate]} of every project in
+ * {@link Main#projectList} in interval trees partitioned per manager and per assigned officer. It answers the
+ * "is this person already busy during these dates" questions asked by {@link TimeCompare#officerUnassigned},
+ * project creation and the open/close date editors in logarithmic time instead of scanning every project.
+ * </p>
+ *
+ * <p>
+ * The calendar is kept consistent by the code that changes its inputs:
+ * <ul>
+ *   <li>{@code ProjectList} registers and unregisters projects as they are added to or removed from the master list.</li>
+ *   <li>{@link Project#setOpenDate}, {@link Project#setCloseDate}, {@link Project#setManager} and
+ *   {@link Project#setOfficerList} reschedule the project.</li>
+ *   <li>{@link Project#addOfficer} files the project in the new officer's calendar.</li>
+ * </ul>
+ * Projects that have not been added to the master list are not part of any calendar.
+ * </p>
+ *
+ * @see IntervalTree
+ * @see TimeCompare
+ */
+public class ProjectCalendar {
+
+    private static final Map<Manager, IntervalTree<Project>> managerCalendars = new HashMap<>();
+    private static final Map<Officer, IntervalTree<Project>> officerCalendars = new HashMap<>();
+    // what each registered project was filed under, so it can be removed again after its fields change
+    private static final Map<Project, Filing> filings = new IdentityHashMap<>();
+
+    private static final class Filing {
+        final Manager manager;
+        final List<Officer> officers;
+
+        Filing(Manager manager, List<Officer> officers) {
+            this.manager = manager;
+            this.officers = officers;
+        }
+    }
+
+    /**
+     * Files a project under its manager and each of its officers. A project that is already registered is refiled.
+     *
+     * @param project the project added to the master list
+     */
+    public static void register(Project project) {
+        unregister(project);
+        List<Officer> officers = new ArrayList<>();
+        for (User user : project.getOfficers()) {
+            if (user instanceof Officer officer) officers.add(officer);
+        }
+        Filing filing = new Filing(project.getManager(), officers);
+        filings.put(project, filing);
+        long start = start(project);
+        long end = end(project);
+        calendarOf(managerCalendars, filing.manager).insert(start, end, project);
+        for (Officer officer : officers) {
+            calendarOf(officerCalendars, officer).insert(start, end, project);
+        }
+    }
+
+    /**
+     * Removes a project from every calendar it was filed in.
+     *
+     * @param project the project removed from the master list
+     */
+    public static void unregister(Project project) {
+        Filing filing = filings.remove(project);
+        if (filing == null) return;
+        removeFrom(managerCalendars, filing.manager, project);
+        for (Officer officer : filing.officers) {
+            removeFrom(officerCalendars, officer, project);
+        }
+    }
+
+    /**
+     * Refiles a registered project after its dates, manager or officers have changed.
+     * Does nothing for a project that is not registered.
+     *
+     * @param project the project that changed
+     */
+    public static void reschedule(Project project) {
+        if (filings.containsKey(project)) register(project);
+    }
+
+    /**
+     * Files a registered project in the calendar of an officer who was just added to it.
+     *
+     * @param project the project the officer joined
+     * @param officer the officer added to the project
+     */
+    public static void officerAdded(Project project, Officer officer) {
+        Filing filing = filings.get(project);
+        if (filing == null) return;
+        filing.officers.add(officer);
+        calendarOf(officerCalendars, officer).insert(start(project), end(project), project);
+    }
+
+    /**
+     * Finds a project of the manager whose application period overlaps the given dates.
+     *
+     * @param manager the manager whose projects are checked
+     * @param start the first day of the period, inclusive
+     * @param end the last day of the period, inclusive
+     * @param exclude a project to ignore, such as the one being edited; may be {@code null}
+     * @return the earliest overlapping project, or {@code null} if the manager is free for the whole period
+     */
+    public static Project managerClash(Manager manager, LocalDate start, LocalDate end, Project exclude) {
+        IntervalTree<Project> calendar = managerCalendars.get(manager);
+        return calendar == null ? null : calendar.anyOverlap(start.toEpochDay(), end.toEpochDay(), exclude);
+    }
+
+    /**
+     * Finds a project the officer is assigned to whose application period overlaps the given dates.
+     *
+     * @param officer the officer whose assignments are checked
+     * @param start the first day of the period, inclusive
+     * @param end the last day of the period, inclusive
+     * @param exclude a project to ignore; may be {@code null}
+     * @return the earliest overlapping project, or {@code null} if the officer is free for the whole period
+     */
+    public static Project officerClash(Officer officer, LocalDate start, LocalDate end, Project exclude) {
+        IntervalTree<Project> calendar = officerCalendars.get(officer);
+        return calendar == null ? null : calendar.anyOverlap(start.toEpochDay(), end.toEpochDay(), exclude);
+    }
+
+    /**
+     * Lists every project of the manager whose application period overlaps the given dates.
+     *
+     * @param manager the manager whose projects are checked
+     * @param start the first day of the period, inclusive
+     * @param end the last day of the period, inclusive
+     * @return the overlapping projects ordered by open date
+     */
+    public static List<Project> managerOverlaps(Manager manager, LocalDate start, LocalDate end) {
+        IntervalTree<Project> calendar = managerCalendars.get(manager);
+        return calendar == null ? Collections.emptyList() : calendar.allOverlapping(start.toEpochDay(), end.toEpochDay());
+    }
+
+    /**
+     * Lists every project the officer is assigned to whose application period overlaps the given dates.
+     *
+     * @param officer the officer whose assignments are checked
+     * @param start the first day of the period, inclusive
+     * @param end the last day of the period, inclusive
+     * @return the overlapping projects ordered by open date
+     */
+    public static List<Project> officerOverlaps(Officer officer, LocalDate start, LocalDate end) {
+        IntervalTree<Project> calendar = officerCalendars.get(officer);
+        return calendar == null ? Collections.emptyList() : calendar.allOverlapping(start.toEpochDay(), end.toEpochDay());
+    }
+
+    /**
+     * Lists every project of the manager, ordered by open date.
+     *
+     * @param manager the manager whose projects are listed
+     * @return the manager's projects
+     */
+    public static List<Project> managerProjects(Manager manager) {
+        IntervalTree<Project> calendar = managerCalendars.get(manager);
+        return calendar == null ? Collections.emptyList() : calendar.values();
+    }
+
+    /**
+     * Lists every project the officer is assigned to, ordered by open date. The officer calendars double as the
+     * officer-to-projects reverse index, kept current by {@link Project#addOfficer}, {@link Project#setOfficerList}
+     * and the assignment accept path, which goes through {@code addOfficer}.
+     *
+     * @param officer the officer whose assignments are listed
+     * @return the officer's projects
+     */
+    public static List<Project> assignedProjects(Officer officer) {
+        IntervalTree<Project> calendar = officerCalendars.get(officer);
+        return calendar == null ? Collections.emptyList() : calendar.values();
+    }
+
+    /**
+     * Finds a project the officer is assigned to whose application period includes the given day.
+     *
+     * @param officer the officer whose assignments are checked
+     * @param day the day to check
+     * @return the assigned project open on that day with the earliest open date, or {@code null} if there is none
+     */
+    public static Project officerProjectOn(Officer officer, LocalDate day) {
+        return officerClash(officer, day, day, null);
+    }
+
+    /**
+     * Checks whether the officer is assigned to any project at all.
+     *
+     * @param officer the officer to check
+     * @return {@code true} if the officer appears in at least one registered project
+     */
+    public static boolean hasAssignments(Officer officer) {
+        IntervalTree<Project> calendar = officerCalendars.get(officer);
+        return calendar != null && !calendar.isEmpty();
+    }
+
+    /**
+     * Empties every calendar. Used when the dataset is reloaded.
+     */
+    public static void clear() {
+        managerCalendars.clear();
+        officerCalendars.clear();
+        filings.clear();
+    }
+
+    private static long start(Project project) {
+        return project.getOpenDate().toEpochDay();
+    }
+
+    private static long end(Project project) {
+        return project.getCloseDate().toEpochDay();
+    }
+
+    private static <K> IntervalTree<Project> calendarOf(Map<K, IntervalTree<Project>> calendars, K owner) {
+        return calendars.computeIfAbsent(owner, key -> new IntervalTree<>());
+    }
+
+    private static <K> void removeFrom(Map<K, IntervalTree<Project>> calendars, K owner, Project project) {
+        IntervalTree<Project> calendar = calendars.get(owner);
+        if (calendar == null) return;
+        calendar.remove(project);
+        if (calendar.isEmpty()) calendars.remove(owner);
+    }
+}
@@ -0,0 +1,360 @@
+package program.control;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * <p>
+ * The {@code Repository} class is the base of the request lists held in {@link Main}, in each user and in each
+ * project. It is still an {@link ArrayList}, so the menus and selectors that read and write the lists are unchanged,
+ * but every access goes through a read/write lock, so that several sessions and background jobs can share the lists.
+ * </p>
+ *
+ * <p>
+ * Accesses fall into three groups:
+ * <ul>
+ *   <li>Single reads such as {@link #get(int)}, {@link #size()} and {@link #contains(Object)} hold the read lock, so
+ *   they never see a list half way through a change.</li>
+ *   <li>Iteration, {@link #forEach(Consumer)} and streams read the list itself, {@value #BATCH} items at a time under
+ *   the read lock, so they cost no copy and never block a writer for long. A loop still sees the list as it was when
+ *   the loop began: a change made while any loop is open first freezes a copy of the list for the open loops, which
+ *   carry on over it. So a loop never throws a {@code ConcurrentModificationException}, even if it changes the list
+ *   itself, and the list is only copied when a change actually overlaps a loop; a loop left early with
+ *   {@code break} counts as open until the next change, which copies the list once for it. {@link #snapshot()},
+ *   {@link #listIterator()} and {@link #subList(int, int)} work on an unmodifiable copy, taken when first asked for
+ *   after a change.</li>
+ *   <li>Every change holds the write lock. A change made of several steps, for example one that also updates an
+ *   index kept by a subclass, is wrapped in {@link #write(Supplier)} or {@link #write(Runnable)}. The lock is
+ *   reentrant, so the steps may call any other method of the list.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Each list has its own lock. Operations that change several lists at once, such as placing a new request in the
+ * master list, the user's list and the project's list, take the locks one after another, so a reader of one list sees
+ * each list change as a whole. In server mode the session lock in {@link program.boundary.console.Session} also keeps
+ * such operations from interleaving with each other.
+ * </p>
+ *
+ * @param <T> the type of the items in the list
+ * @see program.control.housingApply.HousingReqList
+ * @see program.control.enquiry.EnquiryList
+ * @see program.control.officerApply.AssignReqList
+ */
+public class Repository<T> extends ArrayList<T> {
+
+    private static final long serialVersionUID = 1L;
+    private static final int BATCH = 1024; // items an iterator reads per hold of the read lock
+
+    private final transient ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private transient volatile List<T> snapshot = null; // null whenever the list has changed since the last copy
+    private transient Generation<T> generation = new Generation<>(); // the loops open on the list as it is now; guarded by the lock
+
+    // the loops opened between two changes; the first change made while any is open freezes a copy for them
+    private static final class Generation<T> {
+        final AtomicInteger readers = new AtomicInteger();
+        List<T> frozen = null; // written under the write lock, read under the read lock
+    }
+
+    // walks the list, or the copy frozen for it, a batch at a time
+    private final class Cursor implements Iterator<T> {
+        private final Generation<T> generation;
+        private final Object[] batch = new Object[BATCH];
+        private int index = 0, at = 0, filled = 0;
+        private boolean closed = false;
+
+        Cursor() {
+            lock.readLock().lock();
+            try {
+                generation = Repository.this.generation;
+                generation.readers.incrementAndGet();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (at < filled) return true;
+            if (closed) return false;
+            lock.readLock().lock();
+            try {
+                List<T> frozen = generation.frozen;
+                int size = frozen != null ? frozen.size() : Repository.super.size();
+                filled = Math.min(BATCH, size - index);
+                if (filled > 0) {
+                    (frozen != null ? frozen : Repository.super.subList(0, size)).subList(index, index + filled)
+                            .toArray(batch);
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            index += filled;
+            at = 0;
+            if (filled > 0) return true;
+            close();
+            return false;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            T item = (T) batch[at];
+            batch[at++] = null;
+            return item;
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+            generation.readers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns an unmodifiable copy of the list as it is now. The copy is shared until the list next changes, so
+     * repeated calls without a change in between cost nothing. Loops over the list do not need it.
+     *
+     * @return the items in the list, in order
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> snapshot() {
+        List<T> copy = snapshot;
+        if (copy != null) return copy;
+        lock.readLock().lock();
+        try {
+            copy = Collections.unmodifiableList(Arrays.asList((T[]) super.toArray()));
+            snapshot = copy; // still under the read lock, so no writer can have made it stale
+            return copy;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a read made of several steps under the read lock, so that no change happens in between.
+     *
+     * @param read the steps
+     * @param <R> the type of the result
+     * @return the result of the steps
+     */
+    public <R> R read(Supplier<R> read) {
+        lock.readLock().lock();
+        try {
+            return read.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a change made of several steps under the write lock, so that readers see either none or all of it.
+     *
+     * @param change the steps
+     * @param <R> the type of the result
+     * @return the result of the steps
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R write(Supplier<R> change) {
+        lock.writeLock().lock();
+        snapshot = null; // the steps may iterate the list they are changing
+        try {
+            if (generation.readers.get() > 0) { // loops are open on the list as it is: let them finish on a copy
+                generation.frozen = Collections.unmodifiableList(Arrays.asList((T[]) super.toArray()));
+                generation = new Generation<>();
+            }
+            return change.get();
+        } finally {
+            snapshot = null;
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a change made of several steps under the write lock, so that readers see either none or all of it.
+     *
+     * @param change the steps
+     */
+    public void write(Runnable change) {
+        write(() -> {
+            change.run();
+            return null;
+        });
+    }
+
+    // single reads
+
+    @Override
+    public T get(int index) {
+        return read(() -> super.get(index));
+    }
+
+    @Override
+    public int size() {
+        return read(super::size);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return read(super::isEmpty);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return read(() -> super.contains(o));
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return read(() -> super.indexOf(o));
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return read(() -> super.lastIndexOf(o));
+    }
+
+    @Override
+    public Object[] toArray() {
+        return read(super::toArray);
+    }
+
+    @Override
+    public <A> A[] toArray(A[] a) {
+        return read(() -> super.toArray(a));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return read(() -> super.equals(o));
+    }
+
+    @Override
+    public int hashCode() {
+        return read(super::hashCode);
+    }
+
+    // iteration
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Cursor();
+    }
+
+    @Override
+    public ListIterator<T> listIterator() {
+        return snapshot().listIterator();
+    }
+
+    @Override
+    public ListIterator<T> listIterator(int index) {
+        return snapshot().listIterator(index);
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliteratorUnknownSize(new Cursor(), Spliterator.ORDERED);
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        Cursor cursor = new Cursor();
+        try {
+            while (cursor.hasNext()) action.accept(cursor.next());
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Returns a read-only view of part of the snapshot. Unlike {@link ArrayList#subList(int, int)}, it does not write
+     * through to the list.
+     */
+    @Override
+    public List<T> subList(int fromIndex, int toIndex) {
+        return snapshot().subList(fromIndex, toIndex);
+    }
+
+    // changes
+
+    @Override
+    public boolean add(T item) {
+        return write(() -> super.add(item));
+    }
+
+    @Override
+    public void add(int index, T item) {
+        write(() -> super.add(index, item));
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> items) {
+        return write(() -> super.addAll(items));
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends T> items) {
+        return write(() -> super.addAll(index, items));
+    }
+
+    @Override
+    public T set(int index, T item) {
+        return write(() -> super.set(index, item));
+    }
+
+    @Override
+    public T remove(int index) {
+        return write(() -> super.remove(index));
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return write(() -> super.remove(o));
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        return write(() -> super.removeAll(c));
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        return write(() -> super.retainAll(c));
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        return write(() -> super.removeIf(filter));
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<T> operator) {
+        write(() -> super.replaceAll(operator));
+    }
+
+    @Override
+    public void sort(Comparator<? super T> c) {
+        write(() -> super.sort(c));
+    }
+
+    @Override
+    public void clear() {
+        write(super::clear);
+    }
+}
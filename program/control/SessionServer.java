@@ -0,0 +1,102 @@
+package program.control;
+
+import program.boundary.console.Session;
+import program.boundary.menu.MainMenu;
+import program.boundary.menuTemplate.MenuNavigator;
+import program.boundary.security.LoginHandler;
+import program.entity.caching.Journal;
+import program.entity.users.User;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * <p>
+ * The {@code SessionServer} class lets several users work on the system at the same time. It listens on a TCP port on
+ * the local machine, and every connection, for example from {@code nc localhost 5050}, gets its own {@link Session}:
+ * the same login prompt and menus as the console, on its own thread, sharing the lists loaded by
+ * {@link program.entity.caching.DataInitializer}.
+ * </p>
+ *
+ * <p>
+ * Sessions spend nearly all their time waiting for their user to type, so each is given a thread of its own rather
+ * than a slot in a small pool. Virtual threads are used when the Java runtime provides them, and ordinary threads
+ * otherwise. Changes are journalled as each menu action completes, exactly as on the console, and everything is saved
+ * to the CSV files when the server is stopped.
+ * </p>
+ *
+ * @see Session
+ * @see Main
+ */
+public class SessionServer {
+
+    /** The port listened on when none is given. */
+    public static final int DEFAULT_PORT = 5050;
+
+    /**
+     * Accepts connections on the given port until the process is stopped, running each one as a {@link Session}.
+     *
+     * @param port the port to listen on
+     * @throws IOException if the port cannot be opened
+     */
+    public static void serve(int port) throws IOException {
+        Session.installOutput();
+        Runtime.getRuntime().addShutdownHook(new Thread(SessionServer::shutdown));
+
+        ExecutorService executor = newExecutor();
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.out.println("Listening for sessions on " + server.getLocalSocketAddress());
+            while (true) {
+                Socket socket = server.accept();
+                executor.execute(() -> {
+                    try {
+                        new Session(socket).run(SessionServer::runSession);
+                    } catch (IOException e) {
+                        System.out.println("Error opening session: " + e.getMessage());
+                    }
+                });
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs one user's session: the login prompt, then the menus until they log out.
+     */
+    private static void runSession() {
+        User client = LoginHandler.loginUser();
+        if (client == null) return;
+        MenuNavigator.getInstance().pushMenu(new MainMenu(client));
+        MenuNavigator.getInstance().start(client);
+    }
+
+    /**
+     * Saves everything when the server is stopped. Sessions still connected are left waiting for input, so the data
+     * is consistent once the lock is held.
+     */
+    private static void shutdown() {
+        Session.getDataLock().lock();
+        try {
+            Journal.close();
+        } catch (Exception e) {
+            System.out.println("Error saving on shutdown: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns an executor that starts a virtual thread per task, falling back to a cached pool of platform threads on
+     * runtimes that do not support virtual threads.
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
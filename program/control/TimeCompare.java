@@ -26,8 +26,9 @@ public class TimeCompare {
      * Checks if an officer is unassigned to a project by ensuring there are no overlapping dates
      * between the officer's current projects and the target project.
      * <p>
-     * This method filters all projects assigned to the officer and checks if any of them have
-     * overlapping dates with the target project.
+     * This method asks the officer's {@link ProjectCalendar} whether any project assigned to the officer
+     * has dates overlapping the target project, which takes logarithmic time in the number of assignments.
+     * A project the officer is already assigned to overlaps itself, so it never counts as unassigned.
      * </p>
      *
      * @param officer The officer to check.
@@ -36,9 +37,8 @@ public class TimeCompare {
      *         {@code false} if there are any conflicts with the officer's existing assignments.
      */
     public static boolean officerUnassigned (Officer officer, Project targetProject){
-        return Main.projectList.stream()
-            .filter(project -> project.getOfficers().contains(officer))
-            .allMatch(project -> projectTimingSeparate(project, targetProject));
+        if (targetProject == null) return !ProjectCalendar.hasAssignments(officer);
+        return ProjectCalendar.officerClash(officer, targetProject.getOpenDate(), targetProject.getCloseDate(), null) == null;
     }
 
     /**
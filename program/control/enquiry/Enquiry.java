@@ -3,6 +3,8 @@ package program.control.enquiry;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 
+import program.entity.caching.Journal;
+import program.entity.caching.RecordSaver;
 import program.entity.project.Project;
 import program.entity.users.User;
 
@@ -79,7 +81,10 @@ public class Enquiry extends ArrayList<Message> {
      * @param enquiry the content of the message being added
      */
     public void add(User client, String enquiry) {
-        this.add(new Message(client, enquiry));
+        Message message = new Message(client, enquiry);
+        this.add(message);
+        Journal.messageAdded(this, message);
+        RecordSaver.messageAdded(this, message);
     }
 
     /**
@@ -162,6 +167,8 @@ public class Enquiry extends ArrayList<Message> {
         if (!m.getUser().equals(applicant)) return false;
 
         m.setText(newText);
+        Journal.messageEdited(this, index);
+        RecordSaver.markDirty(RecordSaver.TABLE.ENQUIRIES);
         return true;
     }
 
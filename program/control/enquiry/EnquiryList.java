@@ -1,6 +1,5 @@
 package program.control.enquiry;
 
-import java.util.ArrayList;
 import java.util.Scanner;
 
 import program.boundary.console.AppScanner;
@@ -8,6 +7,9 @@ import program.boundary.console.DateTimeFormat;
 import program.boundary.enquiryIO.EnquirySelector;
 import program.boundary.projectIO.ProjectSelect;
 import program.control.Main;
+import program.control.Repository;
+import program.entity.caching.Journal;
+import program.entity.caching.RecordSaver;
 import program.entity.project.Project;
 import program.entity.users.User;
 
@@ -25,11 +27,15 @@ import program.entity.users.User;
  * and handle enquiry-related actions.
  * </p>
  *
+ * <p>
+ * As a {@link Repository}, the list can be read by one session while another adds or deletes an enquiry.
+ * </p>
+ *
  * @see program.control.enquiry.Enquiry
  * @see program.entity.users.User
  * @see program.entity.project.Project
  */
-public class EnquiryList extends ArrayList<Enquiry> {
+public class EnquiryList extends Repository<Enquiry> {
 
     /**
      * <p>
@@ -145,6 +151,8 @@ public class EnquiryList extends ArrayList<Enquiry> {
         enquiry.getProject().getEnquiryList().add(0, enquiry);
         enquiry.getUser().getEnquiryList().add(0, enquiry);
         Main.enquiryList.add(0, enquiry);
+        Journal.enquiryAdded(enquiry);
+        RecordSaver.enquiryAdded(enquiry);
         return true;
     }
 
@@ -211,6 +219,8 @@ public class EnquiryList extends ArrayList<Enquiry> {
         enq.getProject().getEnquiryList().remove(enq);
         enq.getUser().getEnquiryList().remove(enq);
         Main.enquiryList.remove(enq);
+        Journal.enquiryDeleted(enq);
+        RecordSaver.markDirty(RecordSaver.TABLE.ENQUIRIES);
         System.out.println("\nRemoval Successful");
     }
 }
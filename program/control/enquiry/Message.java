@@ -2,6 +2,7 @@ package program.control.enquiry;
 
 import java.time.LocalDateTime;
 
+import program.entity.caching.MappedText;
 import program.entity.users.User;
 
 /**
@@ -17,12 +18,21 @@ import program.entity.users.User;
  * the message content and metadata such as the sender and the timestamp.
  * </p>
  *
+ * <p>
+ * A message loaded from the binary snapshot keeps its text in the memory-mapped file as a {@link MappedText}, and
+ * decodes it only when {@link #getText()} is first called, so the heap only holds the text of the threads a
+ * session actually opens. Code that only passes the text through, such as the savers, uses {@link #readText()}
+ * so that it is not kept.
+ * </p>
+ *
  * @see program.entity.users.User
  */
 public class Message {
 
     private final User client;
     private String text;
+    // the text as stored in the snapshot; null for a message created or edited in this session
+    private MappedText mappedText;
     private final LocalDateTime timeStamp;
 
     /**
@@ -56,6 +66,21 @@ public class Message {
         this.timeStamp = timeStamp;
     }
 
+    /**
+     * <p>
+     * Constructs a {@code Message} whose text stays in the memory-mapped snapshot until it is first read.
+     * </p>
+     *
+     * @param client the {@link User} who sent the message
+     * @param text the content of the message, as stored in the snapshot
+     * @param timeStamp the timestamp when the message was sent
+     */
+    public Message(User client, MappedText text, LocalDateTime timeStamp){
+        this.client = client;
+        this.mappedText = text;
+        this.timeStamp = timeStamp;
+    }
+
     /**
      * <p>
      * Gets the user who sent the message.
@@ -69,15 +94,41 @@ public class Message {
 
     /**
      * <p>
-     * Gets the content of the message.
+     * Gets the content of the message, decoding it from the snapshot and keeping it on first use.
      * </p>
      *
      * @return the content of the message
      */
     public String getText(){
+        MappedText mapped = mappedText;
+        if (text == null && mapped != null) text = mapped.decode();
         return text;
     }
 
+    /**
+     * <p>
+     * Gets the content of the message without keeping a decoded copy.
+     * </p>
+     *
+     * @return the content of the message
+     */
+    public String readText(){
+        MappedText mapped = mappedText;
+        String current = text;
+        return current != null || mapped == null ? current : mapped.decode();
+    }
+
+    /**
+     * <p>
+     * Gets the content of the message as stored in the snapshot, so that it can be copied without decoding.
+     * </p>
+     *
+     * @return the stored text, or {@code null} if the message was created or edited since the snapshot was loaded
+     */
+    public MappedText getMappedText(){
+        return mappedText;
+    }
+
     /**
      * <p>
      * Gets the timestamp indicating when the message was sent.
@@ -98,5 +149,6 @@ public class Message {
      */
     public void setText(String newText) {
         this.text = newText;
+        this.mappedText = null;
     }
 }
@@ -0,0 +1,172 @@
+package program.control.housingApply;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import program.control.housingApply.HousingReq.REQUEST_STATUS;
+import program.entity.caching.Journal;
+import program.entity.project.Project;
+import program.entity.project.Project.ROOM_TYPE;
+import program.entity.users.Manager;
+import program.entity.users.User.MARITAL_STATUS;
+
+/**
+ * <p>
+ * The {@code BallotEngine} class decides all pending applications for one room type of a {@link Project} at once,
+ * for launches with far more applicants than flats. Instead of the manager approving requests one by one, every
+ * pending request takes part in a ballot:
+ * <ul>
+ *   <li>each applicant is placed in a priority tier by the {@link PRIORITY} the manager chose, lower tiers being
+ *   allocated first;</li>
+ *   <li>within a tier, applicants are ordered by a ballot number drawn from the seed and their NRIC;</li>
+ *   <li>flats are reserved in that order through the project's {@link program.entity.project.FlatInventory} until
+ *   none is free; those applicants are approved and everyone after them is rejected.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * A ballot number depends only on the seed and the applicant, not on the order of the requests or on which thread
+ * computed it, so running the ballot again with the same seed and applicants gives the same result. The numbers are
+ * computed and sorted in parallel; only the status changes, which go through the usual setters, are applied one at a
+ * time. They are saved together through {@link Journal#bulk(java.util.concurrent.Callable)}, and put back if the
+ * ballot fails part-way, so a ballot reaches disk whole or not at all. Only the manager of the project may run it.
+ * </p>
+ *
+ * <p>
+ * The full order of the draw is written to {@code data/ballot_<project>_<room type>.csv}, so that the outcome can be
+ * published and checked.
+ * </p>
+ *
+ * @see HousingReq
+ * @see program.boundary.menu.ProjectManageMenu
+ */
+public class BallotEngine {
+
+    /**
+     * The outcome of a ballot.
+     *
+     * @param applicants the pending requests that took part
+     * @param winners the requests approved
+     * @param file the file the draw was written to
+     */
+    public record Result(int applicants, int winners, Path file) {}
+
+    /**
+     * The priority rules a manager can choose for a ballot. Each places an applicant in a tier, lower tiers being
+     * allocated first.
+     */
+    public enum PRIORITY {
+        /** Everyone is in one tier, so the ballot number alone decides. */
+        NONE("No priority"),
+        /**
+         * Married applicants come before singles. Only married applicants may apply for 3-room flats (see
+         * {@link program.entity.users.User#see3Rooms()}), so this only changes a 2-room ballot, where singles may get
+         * no flat at all if married demand covers the supply.
+         */
+        MARRIED_FIRST("Married applicants first");
+
+        private final String description;
+
+        PRIORITY(String description) {
+            this.description = description;
+        }
+
+        /**
+         * Returns the tier of a request under this rule.
+         *
+         * @param req the request
+         * @return the tier, lower tiers being allocated first
+         */
+        public int tier(HousingReq req) {
+            if (this == NONE) return 0;
+            return req.getUser().getMaritalStatus() == MARITAL_STATUS.Married ? 0 : 1;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+
+    // one applicant in the draw
+    private record Entry(HousingReq req, int tier, long ballotNumber) {}
+
+    private static final Comparator<Entry> DRAW_ORDER = Comparator.comparingInt(Entry::tier)
+            .thenComparingLong(Entry::ballotNumber)
+            .thenComparing(entry -> entry.req().getUser().getUserId()); // ballot numbers can collide
+
+    /**
+     * Runs a ballot over the pending requests for a room type of a project.
+     *
+     * @param project the project
+     * @param roomType the room type being allocated
+     * @param priority the rule placing applicants in tiers
+     * @param seed the seed of the draw; the same seed and applicants always give the same result
+     * @param manager the manager recorded as having decided the requests
+     * @return the outcome of the ballot
+     * @throws IllegalArgumentException if the manager does not manage the project
+     * @throws Exception if the decisions cannot be saved, or the result file cannot be written once they are
+     */
+    public static Result run(Project project, ROOM_TYPE roomType, PRIORITY priority, long seed, Manager manager)
+            throws Exception {
+        if (!project.isManager(manager)) {
+            throw new IllegalArgumentException(manager.getName() + " does not manage " + project.getName());
+        }
+        Entry[] draw = project.getReqList().snapshot().parallelStream()
+                .filter(req -> req.getStatus() == REQUEST_STATUS.pending && req.getRoomType() == roomType)
+                .map(req -> new Entry(req, priority.tier(req), ballotNumber(seed, req.getUser().getUserId())))
+                .toArray(Entry[]::new);
+        Arrays.parallelSort(draw, DRAW_ORDER);
+
+        int winners = Journal.bulk(() -> {
+            HousingReqBatch.Applied applied = new HousingReqBatch.Applied();
+            int approved = 0;
+            boolean soldOut = false;
+            try {
+                for (Entry entry : draw) {
+                    soldOut = soldOut || !project.reserveRoomType(roomType);
+                    applied.decide(entry.req(), soldOut ? REQUEST_STATUS.unsuccessful : REQUEST_STATUS.successful,
+                            manager, !soldOut);
+                    if (!soldOut) approved++;
+                }
+            } catch (RuntimeException | Error e) {
+                applied.undo();
+                throw e;
+            }
+            return approved;
+        });
+
+        Path file = Paths.get("data", "ballot_" + project.getName().replace(' ', '_') + "_" + roomType + ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("Rank,User ID,Name,Tier,Ballot Number,Result\n");
+            for (int rank = 0; rank < draw.length; rank++) {
+                Entry entry = draw[rank];
+                writer.write((rank + 1) + "," + entry.req().getUser().getUserId() + "," + entry.req().getUser().getName()
+                        + "," + entry.tier() + "," + entry.ballotNumber() + ","
+                        + entry.req().getStatus() + "\n");
+            }
+        }
+        return new Result(draw.length, winners, file);
+    }
+
+    /**
+     * Draws an applicant's ballot number from the seed and their NRIC, using the SplitMix64 finaliser so that
+     * neighbouring NRICs get unrelated numbers.
+     */
+    private static long ballotNumber(long seed, String NRIC) {
+        long z = seed;
+        for (int i = 0; i < NRIC.length(); i++) z = mix(z + NRIC.charAt(i) * 0x9E3779B97F4A7C15L);
+        return z;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,6 +1,11 @@
 package program.control.housingApply;
 
+import program.control.report.ApplicantReportEngine;
+import program.control.report.ReportIndex;
+import program.entity.caching.Journal;
+import program.entity.caching.RecordSaver;
 import program.entity.project.Project;
+import program.entity.project.ProjectVisibility;
 import program.entity.project.Project.ROOM_TYPE;
 import program.entity.users.Manager;
 import program.entity.users.Officer;
@@ -68,7 +73,14 @@ public class HousingReq {
      * @param withdrawalStatus the new withdrawal status
      */
     public void setWithdrawalStatus(WITHDRAWAL_STATUS withdrawalStatus) {
+        WITHDRAWAL_STATUS previous = this.withdrawalStatus;
         this.withdrawalStatus = withdrawalStatus;
+        if (previous != withdrawalStatus) {
+            HousingReqBuckets.withdrawalChanged(this, previous);
+            ProjectVisibility.invalidate(user);
+            Journal.housingReq(this);
+            RecordSaver.markDirty(RecordSaver.TABLE.HOUSING_REQS);
+        }
     }
 
     /**
@@ -87,6 +99,8 @@ public class HousingReq {
      */
     public void setApprovedBy(Manager manager) {
         approvedBy = manager;
+        Journal.housingReq(this);
+        RecordSaver.markDirty(RecordSaver.TABLE.HOUSING_REQS);
     }
 
     /**
@@ -105,6 +119,8 @@ public class HousingReq {
      */
     public void setBookedBy(Officer officer) {
         bookedBy = officer;
+        Journal.housingReq(this);
+        RecordSaver.markDirty(RecordSaver.TABLE.HOUSING_REQS);
     }
 
     /**
@@ -127,6 +143,7 @@ public class HousingReq {
         this.user = client;
         this.project = project;
         this.roomType = roomType;
+        Journal.housingReq(this);
     }
 
     /**
@@ -154,6 +171,10 @@ public class HousingReq {
      */
     public void setRoomType(ROOM_TYPE roomType) {
         this.roomType = roomType;
+        ApplicantReportEngine.roomTypeChanged(this);
+        ReportIndex.roomTypeChanged(this);
+        Journal.housingReq(this);
+        RecordSaver.markDirty(RecordSaver.TABLE.HOUSING_REQS);
     }
 
     /**
@@ -187,7 +208,16 @@ public class HousingReq {
      * @param status the new status of the request
      */
     public void setStatus(REQUEST_STATUS status) {
+        REQUEST_STATUS previous = this.requestStatus;
         this.requestStatus = status;
+        if (previous != status) {
+            HousingReqBuckets.statusChanged(this, previous);
+            ApplicantReportEngine.statusChanged(this, previous);
+            ReportIndex.statusChanged(this, previous);
+            ProjectVisibility.invalidate(user);
+            Journal.housingReq(this);
+            RecordSaver.markDirty(RecordSaver.TABLE.HOUSING_REQS);
+        }
     }
 
     /**
@@ -0,0 +1,124 @@
+package program.control.housingApply;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import program.control.housingApply.HousingReq.REQUEST_STATUS;
+import program.entity.caching.Journal;
+import program.entity.users.Manager;
+
+/**
+ * <p>
+ * The {@code HousingReqBatch} class applies one decision, accept or reject, to many pending {@link HousingReq}s in a
+ * single step, so that a manager can clear a long queue without going through the approval menu once per request.
+ * It is used by the "Decide HDB Applications in bulk" menu item and by the {@code --decide} command line option of
+ * {@link program.control.Main}.
+ * </p>
+ *
+ * <p>
+ * Each request is decided exactly as the approval menu would decide it, through the same setters, with two checks:
+ * <ul>
+ *   <li>a request that is no longer pending, or whose project the manager does not manage, is skipped;</li>
+ *   <li>an accepted request must reserve a flat of its room type in its project's
+ *   {@link program.entity.project.FlatInventory}; once a room type runs out, the remaining requests for it are
+ *   skipped and stay pending.</li>
+ * </ul>
+ * The whole batch runs in one {@link Journal#bulk(java.util.concurrent.Callable)}, so it is saved with a single
+ * checkpoint rather than journalled request by request. If it fails part-way, the decisions already made are put
+ * back before the error is passed on, so nothing of it is saved.
+ * </p>
+ *
+ * @see BallotEngine for deciding a whole room type by ballot instead.
+ */
+public class HousingReqBatch {
+
+    /**
+     * The outcome of a batch.
+     *
+     * @param accepted the requests approved
+     * @param rejected the requests rejected
+     * @param noVacancy the requests left pending because no flat of their room type was free
+     * @param skipped the requests left alone because they were no longer pending or not the manager's
+     */
+    public record Outcome(int accepted, int rejected, int noVacancy, int skipped) {
+        @Override
+        public String toString() {
+            return accepted + " accepted, " + rejected + " rejected, " + noVacancy + " left pending for lack of vacancy, "
+                    + skipped + " skipped";
+        }
+    }
+
+    /**
+     * The decisions made so far by a batch or a ballot, so that they can be put back if it fails part-way.
+     */
+    static final class Applied {
+
+        // a decided request, who had approved it before, and whether a flat was reserved for it
+        private record Decision(HousingReq req, Manager approvedBy, boolean reserved) {}
+
+        private final List<Decision> decisions = new ArrayList<>();
+
+        /**
+         * Decides a pending request, remembering how to put it back.
+         *
+         * @param req the request
+         * @param status the new status
+         * @param manager the manager deciding it
+         * @param reserved whether a flat of its room type has just been reserved for it
+         */
+        void decide(HousingReq req, REQUEST_STATUS status, Manager manager, boolean reserved) {
+            decisions.add(new Decision(req, req.getApprovedBy(), reserved));
+            req.setApprovedBy(manager);
+            req.setStatus(status);
+        }
+
+        /**
+         * Puts every decided request back to pending, newest decision first, and releases the flats reserved for them.
+         */
+        void undo() {
+            for (int i = decisions.size() - 1; i >= 0; i--) {
+                Decision decision = decisions.get(i);
+                HousingReq req = decision.req();
+                req.setStatus(REQUEST_STATUS.pending);
+                req.setApprovedBy(decision.approvedBy());
+                if (decision.reserved()) req.getProject().releaseRoomType(req.getRoomType());
+            }
+            decisions.clear();
+        }
+    }
+
+    /**
+     * Applies one decision to every given request.
+     *
+     * @param reqs the requests to decide, in the order in which flats should be given out
+     * @param accept {@code true} to accept the requests, {@code false} to reject them
+     * @param manager the manager deciding the requests
+     * @return how many requests ended up in each outcome
+     * @throws Exception if the decisions cannot be saved
+     */
+    public static Outcome decide(List<HousingReq> reqs, boolean accept, Manager manager) throws Exception {
+        return Journal.bulk(() -> {
+            Applied applied = new Applied();
+            int accepted = 0, rejected = 0, noVacancy = 0, skipped = 0;
+            try {
+                for (HousingReq req : reqs) {
+                    if (req.getStatus() != REQUEST_STATUS.pending || !req.getProject().isManager(manager)) {
+                        skipped++;
+                    } else if (!accept) {
+                        applied.decide(req, REQUEST_STATUS.unsuccessful, manager, false);
+                        rejected++;
+                    } else if (req.getProject().reserveRoomType(req.getRoomType())) {
+                        applied.decide(req, REQUEST_STATUS.successful, manager, true);
+                        accepted++;
+                    } else {
+                        noVacancy++;
+                    }
+                }
+            } catch (RuntimeException | Error e) {
+                applied.undo();
+                throw e;
+            }
+            return new Outcome(accepted, rejected, noVacancy, skipped);
+        });
+    }
+}
@@ -0,0 +1,190 @@
+package program.control.housingApply;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import program.control.Main;
+import program.control.housingApply.HousingReq.REQUEST_STATUS;
+import program.control.housingApply.HousingReq.WITHDRAWAL_STATUS;
+import program.entity.project.Project;
+import program.entity.users.Manager;
+
+/**
+ * <p>
+ * {@code HousingReqBuckets} keeps the requests in {@link Main#housingReqList} partitioned by the manager of their
+ * project and by status, so that a manager's approval queue or withdrawal queue can be read in time proportional
+ * to its own size instead of filtering the whole master list.
+ * </p>
+ *
+ * <p>
+ * Two sets of buckets are maintained:
+ * <ul>
+ *     <li>one per (manager, {@link REQUEST_STATUS}), used by "Approve HDB Applications";</li>
+ *     <li>one per (manager, {@link WITHDRAWAL_STATUS}), used by "Process withdrawal Requests"
+ *     and {@link HousingReqList#getWithdrawalList(Manager, boolean)}.</li>
+ * </ul>
+ * A request enters the buckets when it is added to the master list ({@link #track(HousingReq)}) and moves between
+ * them whenever {@link HousingReq#setStatus(REQUEST_STATUS)} or {@link HousingReq#setWithdrawalStatus(WITHDRAWAL_STATUS)}
+ * changes its status. Requests that are not in the master list yet (for example while the CSV loader is still
+ * filling in their fields) are ignored until they are tracked.
+ * </p>
+ *
+ * <p>
+ * Each request keeps its order of arrival in the master list, and views are sorted on it, newest first, so that
+ * they come in the order of the master list, where new requests are inserted at the front, even after requests have
+ * moved between buckets.
+ * </p>
+ *
+ * @see HousingReq
+ * @see HousingReqList
+ */
+public class HousingReqBuckets {
+
+    private static final Map<Manager, EnumMap<REQUEST_STATUS, LinkedHashSet<HousingReq>>> statusBuckets = new HashMap<>();
+    private static final Map<Manager, EnumMap<WITHDRAWAL_STATUS, LinkedHashSet<HousingReq>>> withdrawalBuckets = new HashMap<>();
+    // the manager each tracked request is currently filed under, and its order of arrival in the master list
+    private record Filing(Manager manager, long seq) {}
+
+    private static final Map<HousingReq, Filing> filedUnder = new IdentityHashMap<>();
+    private static long arrivals = 0;
+
+    /**
+     * Files a request that has just been added to the master list under its project's manager.
+     *
+     * @param req the newly added housing request
+     */
+    public static void track(HousingReq req) {
+        if (filedUnder.containsKey(req)) return;
+        Manager manager = req.getManager();
+        filedUnder.put(req, new Filing(manager, arrivals++));
+        statusBucket(manager, req.getStatus()).add(req);
+        withdrawalBucket(manager, req.getWithdrawalStatus()).add(req);
+    }
+
+    /**
+     * Moves a tracked request to the bucket for its new request status.
+     *
+     * @param req the request whose status was changed
+     * @param previous the status before the change
+     */
+    static void statusChanged(HousingReq req, REQUEST_STATUS previous) {
+        Filing filing = filedUnder.get(req);
+        if (filing == null) return;
+        Manager manager = filing.manager();
+        statusBucket(manager, previous).remove(req);
+        statusBucket(manager, req.getStatus()).add(req);
+    }
+
+    /**
+     * Moves a tracked request to the bucket for its new withdrawal status.
+     *
+     * @param req the request whose withdrawal status was changed
+     * @param previous the withdrawal status before the change
+     */
+    static void withdrawalChanged(HousingReq req, WITHDRAWAL_STATUS previous) {
+        Filing filing = filedUnder.get(req);
+        if (filing == null) return;
+        Manager manager = filing.manager();
+        withdrawalBucket(manager, previous).remove(req);
+        withdrawalBucket(manager, req.getWithdrawalStatus()).add(req);
+    }
+
+    /**
+     * Refiles every tracked request of a project after the project has been handed to a different manager.
+     *
+     * @param project the project whose manager changed
+     */
+    public static void managerChanged(Project project) {
+        Manager manager = project.getManager();
+        for (HousingReq req : project.getReqList()) {
+            Filing filing = filedUnder.get(req);
+            if (filing == null || filing.manager() == manager) continue;
+            statusBucket(filing.manager(), req.getStatus()).remove(req);
+            withdrawalBucket(filing.manager(), req.getWithdrawalStatus()).remove(req);
+            filedUnder.put(req, new Filing(manager, filing.seq()));
+            statusBucket(manager, req.getStatus()).add(req);
+            withdrawalBucket(manager, req.getWithdrawalStatus()).add(req);
+        }
+    }
+
+    /**
+     * Returns the requests for a manager's projects that have the given request status, newest first.
+     *
+     * @param manager the manager whose projects are queried
+     * @param status the request status to filter by
+     * @return a new list holding the matching requests
+     */
+    public static List<HousingReq> get(Manager manager, REQUEST_STATUS status) {
+        return newestFirst(statusBucket(manager, status));
+    }
+
+    /**
+     * Returns the requests for a manager's projects that have the given withdrawal status, newest first.
+     *
+     * @param manager the manager whose projects are queried
+     * @param status the withdrawal status to filter by
+     * @return a new list holding the matching requests
+     */
+    public static List<HousingReq> get(Manager manager, WITHDRAWAL_STATUS status) {
+        return newestFirst(withdrawalBucket(manager, status));
+    }
+
+    /**
+     * Counts the requests for a manager's projects that have the given request status.
+     *
+     * @param manager the manager whose projects are queried
+     * @param status the request status to count
+     * @return the size of the bucket
+     */
+    public static int count(Manager manager, REQUEST_STATUS status) {
+        return statusBucket(manager, status).size();
+    }
+
+    /**
+     * Returns every tracked request for a manager's projects, newest first, in the order of the master list.
+     *
+     * @param manager the manager whose projects are queried
+     * @return a new list holding all of the manager's requests
+     */
+    public static List<HousingReq> getAll(Manager manager) {
+        List<HousingReq> all = new ArrayList<>();
+        for (REQUEST_STATUS status : REQUEST_STATUS.values()) {
+            all.addAll(statusBucket(manager, status));
+        }
+        return newestFirst(all);
+    }
+
+    /**
+     * Forgets all tracked requests. Called when the master list is {@link HousingReqList#clear() cleared}.
+     */
+    public static void clear() {
+        statusBuckets.clear();
+        withdrawalBuckets.clear();
+        filedUnder.clear();
+        arrivals = 0;
+    }
+
+    private static LinkedHashSet<HousingReq> statusBucket(Manager manager, REQUEST_STATUS status) {
+        return statusBuckets.computeIfAbsent(manager, key -> new EnumMap<>(REQUEST_STATUS.class))
+                .computeIfAbsent(status, key -> new LinkedHashSet<>());
+    }
+
+    private static LinkedHashSet<HousingReq> withdrawalBucket(Manager manager, WITHDRAWAL_STATUS status) {
+        return withdrawalBuckets.computeIfAbsent(manager, key -> new EnumMap<>(WITHDRAWAL_STATUS.class))
+                .computeIfAbsent(status, key -> new LinkedHashSet<>());
+    }
+
+    // in the order of the master list, newest first; a bucket's own order is that in which requests moved into it
+    private static List<HousingReq> newestFirst(Collection<HousingReq> bucket) {
+        List<HousingReq> requests = new ArrayList<>(bucket);
+        requests.sort(Comparator.comparingLong((HousingReq req) -> filedUnder.get(req).seq()).reversed());
+        return requests;
+    }
+}
@@ -2,14 +2,20 @@ package program.control.housingApply;
 
 import program.boundary.projectIO.ProjectSelect;
 import program.control.Main;
+import program.control.Repository;
 import program.control.housingApply.HousingReq.REQUEST_STATUS;
 import program.control.housingApply.HousingReq.WITHDRAWAL_STATUS;
+import program.control.report.ApplicantReportEngine;
+import program.control.report.ReportIndex;
+import program.entity.caching.Journal;
+import program.entity.caching.RecordSaver;
 import program.entity.project.Project;
+import program.entity.project.ProjectVisibility;
 import program.entity.project.Project.ROOM_TYPE;
 import program.entity.users.Manager;
 import program.entity.users.User;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 
 /**
  * <p>
@@ -34,10 +40,29 @@ import java.util.ArrayList;
  * </ul>
  * </p>
  *
+ * <p>
+ * Each list keeps a composite (user, project) index over its requests, so {@link #get(User, Project)} and the
+ * duplicate and prior-rejection checks in {@link #add(HousingReq)} take constant time instead of scanning the
+ * master list. The index points at the first matching request in list order, which is what the scan returned.
+ * It is read and updated under the list's own lock, together with the change to the list that it follows.
+ * </p>
+ *
  * @see HousingReq A single housing request.
  * @see Main The central control class managing system-wide data.
  */
-public class HousingReqList extends ArrayList<HousingReq> {
+public class HousingReqList extends Repository<HousingReq> {
+
+    private final HashMap<ReqKey, HousingReq> reqIndex = new HashMap<>();
+
+    /**
+     * Composite key identifying the request a user made for a project. Users and projects do not override
+     * {@code equals}, so the key compares them by identity, as the original scan did.
+     */
+    private record ReqKey(User user, Project project) {
+        ReqKey(HousingReq req) {
+            this(req.getUser(), req.getProject());
+        }
+    }
 
     /**
      * <p>
@@ -49,12 +74,78 @@ public class HousingReqList extends ArrayList<HousingReq> {
      * @return The matching {@code HousingReq}, or {@code null} if no match is found.
      */
     public HousingReq get(User client, Project project){
+        return read(() -> reqIndex.get(new ReqKey(client, project)));
+    }
+
+    /**
+     * <p>
+     * Inserts a {@link HousingReq} at the given position and keeps the (user, project) index pointing at the
+     * first matching request. Used by {@link #add(HousingReq)} and the CSV loader to place new requests at the front.
+     * </p>
+     *
+     * @param index The position to insert at.
+     * @param req The housing request to insert.
+     */
+    @Override
+    public void add(int index, HousingReq req){
+        write(() -> {
+            super.add(index, req);
+            ReqKey key = new ReqKey(req);
+            HousingReq current = reqIndex.get(key);
+            if (current == null || index == 0 || indexOf(req) < indexOf(current)){
+                reqIndex.put(key, req);
+            }
+        });
+    }
+
+    @Override
+    public HousingReq remove(int index){
+        return write(() -> {
+            HousingReq removed = super.remove(index);
+            unindex(removed);
+            return removed;
+        });
+    }
+
+    @Override
+    public boolean remove(Object o){
+        return write(() -> {
+            boolean removed = super.remove(o);
+            if (removed) unindex((HousingReq) o);
+            return removed;
+        });
+    }
+
+    /**
+     * Empties the list. Emptying the master list also empties the indexes kept over it by
+     * {@link HousingReqBuckets}, {@link ApplicantReportEngine} and {@link ReportIndex}.
+     */
+    @Override
+    public void clear(){
+        write(() -> {
+            super.clear();
+            reqIndex.clear();
+            if (this == Main.housingReqList){
+                HousingReqBuckets.clear();
+                ApplicantReportEngine.clear();
+                ReportIndex.clear();
+            }
+        });
+    }
+
+    /**
+     * Drops a removed request from the index, promoting the next request for the same user and project if any.
+     */
+    private void unindex(HousingReq req){
+        ReqKey key = new ReqKey(req);
+        if (reqIndex.get(key) != req) return;
+        reqIndex.remove(key);
         for (HousingReq request : this){
-            if (request.getUser() == client && request.getProject() == project){
-                return request;
+            if (request.getUser() == key.user() && request.getProject() == key.project()){
+                reqIndex.put(key, request);
+                return;
             }
         }
-        return null;
     }
 
     /**
@@ -97,10 +188,29 @@ public class HousingReqList extends ArrayList<HousingReq> {
             }
         }
 
-        project.getReqList().add(0, req);
+        insert(req);
+        Journal.housingReq(req);
+        return true;
+    }
+
+    /**
+     * <p>
+     * Inserts a {@link HousingReq} at the front of the project's, the user's and the master request list without
+     * any validation. Used by {@link #add(HousingReq)} once the request has been accepted, and by the journal replay.
+     * </p>
+     *
+     * @param req The housing request to be inserted.
+     */
+    public void insert(HousingReq req){
+        User client = req.getUser();
+        req.getProject().getReqList().add(0, req);
         client.getReqList().add(0, req);
         Main.housingReqList.add(0, req);
-        return true;
+        HousingReqBuckets.track(req);
+        ApplicantReportEngine.track(req);
+        ReportIndex.track(req);
+        ProjectVisibility.invalidate(client);
+        RecordSaver.markDirty(RecordSaver.TABLE.HOUSING_REQS);
     }
 
     /**
@@ -113,7 +223,10 @@ public class HousingReqList extends ArrayList<HousingReq> {
      * @return {@code true} if the request was added.
      */
     private boolean superAdd(HousingReq req){
-        return super.add(req);
+        return write(() -> {
+            reqIndex.putIfAbsent(new ReqKey(req), req);
+            return super.add(req);
+        });
     }
 
     /**
@@ -220,21 +333,14 @@ public class HousingReqList extends ArrayList<HousingReq> {
      *
      * @param manager The manager responsible for the projects.
      * @param unprocessedOnly {@code true} to retrieve only pending withdrawal requests; {@code false} to retrieve all.
-     * @return A {@code HousingReqList} matching the criteria.
+     * @return A {@code HousingReqList} matching the criteria, in the order of the master list.
      */
     public static HousingReqList getWithdrawalList(Manager manager, boolean unprocessedOnly){
         HousingReqList managerReqList = new HousingReqList();
-        for (HousingReq req : Main.housingReqList){
-            if (!req.getProject().isManager(manager)){
-                continue;
-            }
-            if (unprocessedOnly){
-                if (req.getWithdrawalStatus() == WITHDRAWAL_STATUS.requested){
-                    managerReqList.superAdd(req);
-                }
-            } else {
-                managerReqList.superAdd(req);
-            }
+        if (unprocessedOnly){
+            HousingReqBuckets.get(manager, WITHDRAWAL_STATUS.requested).forEach(managerReqList::superAdd);
+        } else {
+            HousingReqBuckets.getAll(manager).forEach(managerReqList::superAdd);
         }
         return managerReqList;
     }
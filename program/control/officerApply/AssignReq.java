@@ -2,6 +2,8 @@ package program.control.officerApply;
 
 import program.boundary.console.DateTimeFormat;
 import program.control.TimeCompare;
+import program.entity.caching.Journal;
+import program.entity.caching.RecordSaver;
 import program.entity.project.Project;
 import program.entity.users.Manager;
 import program.entity.users.Officer;
@@ -82,6 +84,8 @@ public class AssignReq {
      */
     public void setApplicationStatus(APPLICATION_STATUS applicationStatus) {
         this.applicationStatus = applicationStatus;
+        Journal.assignReq(this);
+        RecordSaver.markDirty(RecordSaver.TABLE.ASSIGN_REQS);
     }
 
     /**
@@ -1,8 +1,10 @@
 package program.control.officerApply;
 
-import java.util.ArrayList;
 import program.control.Main;
+import program.control.Repository;
 import program.control.TimeCompare;
+import program.entity.caching.Journal;
+import program.entity.caching.RecordSaver;
 import program.entity.project.Project;
 import program.entity.users.Officer;
 
@@ -13,8 +15,8 @@ import program.entity.users.Officer;
  * </p>
  *
  * <p>
- * This class extends {@link ArrayList} and overrides certain methods to provide
- * custom behaviors, such as checking for duplicate requests, validating officer
+ * This class extends {@link Repository}, so it can be read and changed from several sessions at once, and
+ * overrides certain methods to provide custom behaviors, such as checking for duplicate requests, validating officer
  * assignment status, and handling safe removal and addition of requests.
  * </p>
  *
@@ -27,7 +29,7 @@ import program.entity.users.Officer;
  * @see Officer The user submitting the request.
  * @see Project The target project of the request.
  */
-public class AssignReqList extends ArrayList<AssignReq> {
+public class AssignReqList extends Repository<AssignReq> {
 
     /**
      * Retrieves an existing {@code AssignReq} matching the specified officer and project.
@@ -79,6 +81,8 @@ public class AssignReqList extends ArrayList<AssignReq> {
             }
         }
         Main.assignReqList.add(0,req);
+        Journal.assignReq(req);
+        RecordSaver.markDirty(RecordSaver.TABLE.ASSIGN_REQS);
         System.out.println("Requested successfully");
         return true;
     }
@@ -124,6 +128,7 @@ public class AssignReqList extends ArrayList<AssignReq> {
             return;
         }
         Main.assignReqList.remove(req);
+        RecordSaver.markDirty(RecordSaver.TABLE.ASSIGN_REQS);
         System.out.println("\nRemoval Successful");
     }
 }
@@ -0,0 +1,348 @@
+package program.control.report;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import program.control.Main;
+import program.control.housingApply.HousingReq;
+import program.control.housingApply.HousingReq.REQUEST_STATUS;
+import program.entity.project.Project;
+import program.entity.project.Project.ROOM_TYPE;
+import program.entity.users.Manager;
+import program.entity.users.Manager.REPORT_FILTER;
+import program.entity.users.Officer;
+import program.entity.users.User;
+import program.entity.users.User.MARITAL_STATUS;
+
+/**
+ * <p>
+ * {@code ApplicantReportEngine} keeps the data behind the "Generate Report on Applicants" menu up to date as requests
+ * change, so that a report is read rather than recomputed from every user and every request on each refresh.
+ * </p>
+ *
+ * <p>
+ * Each request made by an applicant or officer is filed under the manager of its project, in a cell for its project,
+ * the applicant's {@link MARITAL_STATUS} and its {@link ROOM_TYPE}. Every {@link REPORT_FILTER} is a union of a
+ * manager's cells, so a report only reads the requests it shows. Alongside the cells, each manager has counts of the
+ * requests in each {@link REQUEST_STATUS}, in total and grouped by project, by marital status and by room type, so
+ * the size of any report is known without reading it.
+ * </p>
+ *
+ * <p>
+ * Requests are filed when they enter the master list ({@link #track(HousingReq)}), and refiled by the setters that
+ * move them: {@link HousingReq#setStatus(REQUEST_STATUS)}, {@link HousingReq#setRoomType(ROOM_TYPE)},
+ * {@link User#setMaritalStatus(MARITAL_STATUS)} and {@link Project#setManager(Manager)}. As with
+ * {@link program.control.housingApply.HousingReqBuckets}, requests not yet in the master list are ignored. When a
+ * project is deleted its requests are dropped ({@link #projectDeleted(Project)}), and {@link ReportIndex} does the
+ * same, so reports and {@link ReportQuery queries} both cover listed projects only.
+ * </p>
+ *
+ * @see program.boundary.menu.ProjectManageMenu
+ */
+public class ApplicantReportEngine {
+
+    /**
+     * One applicant in a report, with their requests that the report covers, newest first.
+     *
+     * @param applicant the applicant or officer
+     * @param requests the applicant's requests in the report
+     */
+    public record Entry(User applicant, List<HousingReq> requests) {}
+
+    // the requests of one project from applicants of one marital status for one room type
+    private record Cell(Project project, MARITAL_STATUS maritalStatus, ROOM_TYPE roomType) {
+
+        boolean matches(REPORT_FILTER filter, Project selected) {
+            return switch (filter) {
+                case MARRIED -> maritalStatus == MARITAL_STATUS.Married;
+                case SINGLE -> maritalStatus == MARITAL_STATUS.Single;
+                case PROJECT -> project == selected;
+                case FLAT_TYPE_2_ROOM -> roomType == ROOM_TYPE.room2;
+                case FLAT_TYPE_3_ROOM -> roomType == ROOM_TYPE.room3;
+                case VIEW_ALL -> true;
+            };
+        }
+    }
+
+    // where a tracked request is filed, and its order of arrival in the master list
+    private record Filing(Manager manager, Cell cell, long seq) {}
+
+    // a request in a report, with its sort keys
+    private record Row(HousingReq req, long rank, long seq) {}
+
+    private static final Comparator<Row> REPORT_ORDER = Comparator.comparingLong(Row::rank)
+            .thenComparing(Comparator.comparingLong(Row::seq).reversed());
+
+    // the cells of one manager and their counts per status
+    private static final class ManagerReport {
+        final Map<Cell, LinkedHashSet<HousingReq>> cells = new HashMap<>();
+        final int[] total = new int[STATUSES];
+        final Map<Project, int[]> byProject = new HashMap<>();
+        final EnumMap<MARITAL_STATUS, int[]> byMaritalStatus = new EnumMap<>(MARITAL_STATUS.class);
+        final EnumMap<ROOM_TYPE, int[]> byRoomType = new EnumMap<>(ROOM_TYPE.class);
+
+        void file(HousingReq req, Cell cell) {
+            cells.computeIfAbsent(cell, key -> new LinkedHashSet<>()).add(req);
+            count(cell, req.getStatus(), 1);
+        }
+
+        void unfile(HousingReq req, Cell cell, REQUEST_STATUS status) {
+            LinkedHashSet<HousingReq> reqs = cells.get(cell);
+            reqs.remove(req);
+            if (reqs.isEmpty()) cells.remove(cell);
+            count(cell, status, -1);
+        }
+
+        void count(Cell cell, REQUEST_STATUS status, int delta) {
+            int at = status.ordinal();
+            total[at] += delta;
+            byProject.computeIfAbsent(cell.project(), key -> new int[STATUSES])[at] += delta;
+            byMaritalStatus.computeIfAbsent(cell.maritalStatus(), key -> new int[STATUSES])[at] += delta;
+            byRoomType.computeIfAbsent(cell.roomType(), key -> new int[STATUSES])[at] += delta;
+        }
+
+        int[] counts(REPORT_FILTER filter, Project selected) {
+            int[] counts = switch (filter) {
+                case MARRIED -> byMaritalStatus.get(MARITAL_STATUS.Married);
+                case SINGLE -> byMaritalStatus.get(MARITAL_STATUS.Single);
+                case PROJECT -> byProject.get(selected);
+                case FLAT_TYPE_2_ROOM -> byRoomType.get(ROOM_TYPE.room2);
+                case FLAT_TYPE_3_ROOM -> byRoomType.get(ROOM_TYPE.room3);
+                case VIEW_ALL -> total;
+            };
+            return counts == null ? new int[STATUSES] : counts.clone();
+        }
+    }
+
+    private static final int STATUSES = REQUEST_STATUS.values().length;
+
+    private static final Map<Manager, ManagerReport> reports = new HashMap<>();
+    private static final Map<HousingReq, Filing> filings = new IdentityHashMap<>();
+    private static long arrivals = 0;
+
+    /**
+     * Files a request that has just been added to the master list. Requests made by managers are left out, as the
+     * report only covers applicants and officers.
+     *
+     * @param req the newly added housing request
+     */
+    public static void track(HousingReq req) {
+        if (filings.containsKey(req) || req.getUser() instanceof Manager) return;
+        Filing filing = new Filing(req.getProject().getManager(), cellOf(req), arrivals++);
+        filings.put(req, filing);
+        reportOf(filing.manager()).file(req, filing.cell());
+    }
+
+    /**
+     * Moves a tracked request to the counts of its new status.
+     *
+     * @param req the request whose status was changed
+     * @param previous the status before the change
+     */
+    public static void statusChanged(HousingReq req, REQUEST_STATUS previous) {
+        Filing filing = filings.get(req);
+        if (filing == null) return;
+        ManagerReport report = reportOf(filing.manager());
+        report.count(filing.cell(), previous, -1);
+        report.count(filing.cell(), req.getStatus(), 1);
+    }
+
+    /**
+     * Moves a tracked request to the cell of its new room type.
+     *
+     * @param req the request whose room type was changed
+     */
+    public static void roomTypeChanged(HousingReq req) {
+        refile(req);
+    }
+
+    /**
+     * Moves the tracked requests of a user to the cells of their new marital status.
+     *
+     * @param user the user whose marital status was changed
+     */
+    public static void maritalStatusChanged(User user) {
+        for (HousingReq req : user.getReqList()) refile(req);
+    }
+
+    /**
+     * Refiles every tracked request of a project after the project has been handed to a different manager.
+     *
+     * @param project the project whose manager changed
+     */
+    public static void managerChanged(Project project) {
+        for (HousingReq req : project.getReqList()) refile(req);
+    }
+
+    /**
+     * Drops the requests of a project that has been deleted, so that no report shows them.
+     *
+     * @param project the project removed from the master list
+     */
+    public static void projectDeleted(Project project) {
+        for (HousingReq req : project.getReqList()) {
+            Filing filing = filings.remove(req);
+            if (filing != null) reportOf(filing.manager()).unfile(req, filing.cell(), req.getStatus());
+        }
+    }
+
+    /**
+     * Returns a manager's report for a filter: the applicants and officers with requests for the manager's projects
+     * that pass the filter, in the order of the applicant list and then the officer list, each with those requests,
+     * newest first. It takes time in proportion to the number of requests in the report.
+     *
+     * @param manager the manager
+     * @param filter the filter
+     * @param project the project reported on, for {@link REPORT_FILTER#PROJECT}
+     * @return the applicants in the report
+     */
+    public static List<Entry> view(Manager manager, REPORT_FILTER filter, Project project) {
+        List<Row> rows = new ArrayList<>();
+        for (Map.Entry<Cell, LinkedHashSet<HousingReq>> cell : reportOf(manager).cells.entrySet()) {
+            if (!cell.getKey().matches(filter, project)) continue;
+            for (HousingReq req : cell.getValue()) {
+                long rank = rank(req.getUser());
+                if (rank >= 0) rows.add(new Row(req, rank, filings.get(req).seq())); // users in neither list are left out
+            }
+        }
+        rows.sort(REPORT_ORDER);
+
+        List<Entry> entries = new ArrayList<>();
+        for (Row row : rows) {
+            HousingReq req = row.req();
+            Entry last = entries.isEmpty() ? null : entries.get(entries.size() - 1);
+            if (last == null || last.applicant() != req.getUser()) {
+                last = new Entry(req.getUser(), new ArrayList<>());
+                entries.add(last);
+            }
+            last.requests().add(req);
+        }
+        return entries;
+    }
+
+    /**
+     * Walks a manager's report for a filter one applicant at a time, in the same order and with the same requests as
+     * {@link #view(Manager, REPORT_FILTER, Project)}, without holding the report: each entry is worked out when it is
+     * reached, by going down the applicant list and then the officer list. It suits exporting a large report, where
+     * memory matters more than time, as it reads every applicant and officer whatever the size of the report.
+     *
+     * @param manager the manager
+     * @param filter the filter
+     * @param project the project reported on, for {@link REPORT_FILTER#PROJECT}
+     * @return the applicants in the report, one by one
+     */
+    public static Iterator<Entry> iterator(Manager manager, REPORT_FILTER filter, Project project) {
+        Iterator<User> users = Stream.concat(
+                Main.applicantList.stream().filter(user -> !(user instanceof Officer)), // officers rank in their own list
+                Main.officerList.stream()).iterator();
+        return new Iterator<>() {
+            private Entry next = advance();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Entry next() {
+                if (next == null) throw new NoSuchElementException();
+                Entry entry = next;
+                next = advance();
+                return entry;
+            }
+
+            private Entry advance() {
+                while (users.hasNext()) {
+                    User user = users.next();
+                    List<HousingReq> reqs = new ArrayList<>();
+                    for (HousingReq req : user.getReqList()) {
+                        Filing filing = filings.get(req);
+                        if (filing != null && Objects.equals(filing.manager(), manager)
+                                && filing.cell().matches(filter, project)) reqs.add(req);
+                    }
+                    if (reqs.isEmpty()) continue;
+                    reqs.sort(Comparator.comparingLong((HousingReq req) -> filings.get(req).seq()).reversed());
+                    return new Entry(user, reqs);
+                }
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Counts the requests in a manager's report for a filter that have a given status, without building the report.
+     *
+     * @param manager the manager
+     * @param filter the filter
+     * @param project the project reported on, for {@link REPORT_FILTER#PROJECT}
+     * @param status the status to count
+     * @return the number of requests
+     */
+    public static int count(Manager manager, REPORT_FILTER filter, Project project, REQUEST_STATUS status) {
+        return reportOf(manager).counts(filter, project)[status.ordinal()];
+    }
+
+    /**
+     * Counts all the requests in a manager's report for a filter, without building the report.
+     *
+     * @param manager the manager
+     * @param filter the filter
+     * @param project the project reported on, for {@link REPORT_FILTER#PROJECT}
+     * @return the number of requests
+     */
+    public static int count(Manager manager, REPORT_FILTER filter, Project project) {
+        return Arrays.stream(reportOf(manager).counts(filter, project)).sum();
+    }
+
+    /**
+     * Forgets all tracked requests. Called when the master list is {@link program.control.housingApply.HousingReqList#clear() cleared}.
+     */
+    public static void clear() {
+        reports.clear();
+        filings.clear();
+        arrivals = 0;
+    }
+
+    private static void refile(HousingReq req) {
+        Filing filing = filings.get(req);
+        if (filing == null) return;
+        Filing moved = new Filing(req.getProject().getManager(), cellOf(req), filing.seq());
+        if (moved.equals(filing)) return;
+        reportOf(filing.manager()).unfile(req, filing.cell(), req.getStatus());
+        filings.put(req, moved);
+        reportOf(moved.manager()).file(req, moved.cell());
+    }
+
+    private static Cell cellOf(HousingReq req) {
+        return new Cell(req.getProject(), req.getUser().getMaritalStatus(), req.getRoomType());
+    }
+
+    private static ManagerReport reportOf(Manager manager) {
+        ManagerReport report = reports.get(manager);
+        if (report == null) {
+            report = new ManagerReport();
+            reports.put(manager, report);
+        }
+        return report;
+    }
+
+    // the place of a user in the applicant list followed by the officer list, or -1 if in neither
+    private static long rank(User user) {
+        if (user instanceof Officer) {
+            int at = Main.officerList.indexOf(user);
+            return at < 0 ? -1 : Main.applicantList.size() + (long) at;
+        }
+        return Main.applicantList.indexOf(user);
+    }
+}
@@ -0,0 +1,244 @@
+package program.control.report;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+
+import program.control.housingApply.HousingReq;
+import program.entity.project.Project;
+import program.entity.users.Manager;
+import program.entity.users.Manager.REPORT_FILTER;
+import program.entity.users.User;
+
+/**
+ * <p>
+ * {@code ReportExporter} writes a manager's report on applicants to a file for auditors, in CSV or in JSON Lines, with
+ * one row per housing request carrying the applicant's details alongside the request's.
+ * </p>
+ *
+ * <p>
+ * Rows are streamed: the report is walked one applicant at a time with
+ * {@link ApplicantReportEngine#iterator(Manager, REPORT_FILTER, Project)} and each row goes straight into a
+ * {@value #BUFFER_SIZE}-character buffered writer, so the memory used does not grow with the size of the report, unlike
+ * the report shown in the menu, which is built as one string. The rows come in the same order as in the menu.
+ * </p>
+ *
+ * <p>
+ * Reports are only written under {@value #FOLDER}: the name a manager gives is {@link #resolve(String) resolved}
+ * against that folder, and absolute names or names going up with {@code ..} are refused. The rows are written to a
+ * temporary file beside the report, which is renamed over it only once complete, so an export that fails half-way
+ * leaves any earlier report of the same name as it was.
+ * </p>
+ *
+ * @see ApplicantReportEngine
+ */
+public class ReportExporter {
+
+    /** The folder reports are exported to. */
+    public static final String FOLDER = "data/reports";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String[] COLUMNS =
+            { "name", "nric", "userType", "age", "maritalStatus", "project", "flatType", "status" };
+
+    /**
+     * The file formats a report can be exported to.
+     */
+    public enum FORMAT {
+        /** Comma-separated values, with a header row. */
+        CSV("csv"),
+        /** One JSON object per line. */
+        JSONL("jsonl");
+
+        private final String extension;
+
+        FORMAT(String extension) {
+            this.extension = extension;
+        }
+
+        /**
+         * Returns the usual file extension of this format, without the dot.
+         *
+         * @return the extension
+         */
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * The outcome of an export.
+     *
+     * @param file the file written
+     * @param applicants the applicants in the report
+     * @param requests the rows written, one per request
+     */
+    public record Result(File file, int applicants, int requests) {
+        @Override
+        public String toString() {
+            return "Exported " + requests + " applications from " + applicants + " applicants to " + file.getPath();
+        }
+    }
+
+    /**
+     * Resolves the name of a report file against {@value #FOLDER}.
+     *
+     * @param name the name given, relative to the folder; it may name a subfolder
+     * @return the file in the folder
+     * @throws IllegalArgumentException if the name is blank, absolute, or would leave the folder
+     */
+    public static File resolve(String name) {
+        Path relative;
+        try {
+            relative = Paths.get(name);
+        } catch (InvalidPathException e) {
+            throw new IllegalArgumentException("Invalid file name: " + name);
+        }
+        if (name.isBlank() || relative.isAbsolute() || relative.getRoot() != null) {
+            throw new IllegalArgumentException("The file name must be relative to " + FOLDER + ": " + name);
+        }
+        for (Path part : relative) {
+            if (part.toString().equals("..")) {
+                throw new IllegalArgumentException("The file name must not contain \"..\": " + name);
+            }
+        }
+        Path folder = Paths.get(FOLDER).toAbsolutePath().normalize();
+        Path file = folder.resolve(relative).normalize();
+        if (!file.startsWith(folder) || file.equals(folder)) {
+            throw new IllegalArgumentException("The file name must be inside " + FOLDER + ": " + name);
+        }
+        return Paths.get(FOLDER).resolve(relative).normalize().toFile();
+    }
+
+    /**
+     * Exports a manager's report for a filter to a file, creating its folder if needed and replacing the file if it
+     * exists. The report is written to a temporary file in the same folder first and renamed into place when complete.
+     *
+     * @param manager the manager
+     * @param filter the filter
+     * @param project the project reported on, for {@link REPORT_FILTER#PROJECT}
+     * @param format the file format
+     * @param file the file to write, as given by {@link #resolve(String)}
+     * @return the number of applicants and rows written
+     * @throws IOException if the file cannot be written
+     */
+    public static Result export(Manager manager, REPORT_FILTER filter, Project project, FORMAT format, File file)
+            throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        Path folder = target.getParent();
+        Files.createDirectories(folder);
+        Path temp = Files.createTempFile(folder, target.getFileName().toString(), ".tmp");
+        try {
+            int[] counts;
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(temp.toFile()), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                counts = write(manager, filter, project, format, out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return new Result(file, counts[0], counts[1]);
+        } finally {
+            Files.deleteIfExists(temp); // only left behind if the export failed
+        }
+    }
+
+    /**
+     * Writes a manager's report for a filter to a writer, row by row. The writer is neither buffered nor closed here.
+     *
+     * @param manager the manager
+     * @param filter the filter
+     * @param project the project reported on, for {@link REPORT_FILTER#PROJECT}
+     * @param format the format to write in
+     * @param out where to write
+     * @return the number of applicants and the number of rows written, in that order
+     * @throws IOException if writing fails
+     */
+    public static int[] write(Manager manager, REPORT_FILTER filter, Project project, FORMAT format, Writer out)
+            throws IOException {
+        if (format == FORMAT.CSV) {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) out.write(',');
+                out.write(COLUMNS[i]);
+            }
+            out.write('\n');
+        }
+
+        int applicants = 0, requests = 0;
+        String[] fields = new String[COLUMNS.length];
+        for (Iterator<ApplicantReportEngine.Entry> entries = ApplicantReportEngine.iterator(manager, filter, project);
+                entries.hasNext();) {
+            ApplicantReportEngine.Entry entry = entries.next();
+            User applicant = entry.applicant();
+            fields[0] = applicant.getName();
+            fields[1] = applicant.getUserId();
+            fields[2] = applicant.getClass().getSimpleName();
+            fields[3] = String.valueOf(applicant.getAge());
+            fields[4] = String.valueOf(applicant.getMaritalStatus());
+            for (HousingReq req : entry.requests()) {
+                fields[5] = req.getProject().getName();
+                fields[6] = String.valueOf(req.getRoomType());
+                fields[7] = String.valueOf(req.getStatus());
+                if (format == FORMAT.CSV) writeCsv(fields, out);
+                else writeJson(fields, out);
+                requests++;
+            }
+            applicants++;
+        }
+        return new int[] { applicants, requests };
+    }
+
+    private static void writeCsv(String[] fields, Writer out) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) out.write(',');
+            String field = fields[i];
+            if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+                out.write(field);
+            } else {
+                out.write('"');
+                out.write(field.replace("\"", "\"\""));
+                out.write('"');
+            }
+        }
+        out.write('\n');
+    }
+
+    private static void writeJson(String[] fields, Writer out) throws IOException {
+        out.write('{');
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) out.write(',');
+            out.write('"');
+            out.write(COLUMNS[i]);
+            out.write("\":");
+            if (i == 3) { // the age is a number
+                out.write(fields[i]);
+                continue;
+            }
+            out.write('"');
+            for (int at = 0; at < fields[i].length(); at++) {
+                char c = fields[i].charAt(at);
+                switch (c) {
+                    case '"' -> out.write("\\\"");
+                    case '\\' -> out.write("\\\\");
+                    case '\n' -> out.write("\\n");
+                    case '\r' -> out.write("\\r");
+                    case '\t' -> out.write("\\t");
+                    default -> {
+                        if (c < 0x20) out.write(String.format("\\u%04x", (int) c));
+                        else out.write(c);
+                    }
+                }
+            }
+            out.write('"');
+        }
+        out.write("}\n");
+    }
+}
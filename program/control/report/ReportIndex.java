@@ -0,0 +1,183 @@
+package program.control.report;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import program.control.housingApply.HousingReq;
+import program.control.housingApply.HousingReq.REQUEST_STATUS;
+import program.entity.project.Project;
+import program.entity.project.Project.ROOM_TYPE;
+import program.entity.users.Manager;
+import program.entity.users.User;
+import program.entity.users.User.MARITAL_STATUS;
+
+/**
+ * <p>
+ * {@code ReportIndex} keeps bitmap indexes over the housing requests made by applicants and officers, for
+ * {@link ReportQuery}. Each tracked request is given a slot, in order of arrival, and for every value of every
+ * dimension a {@link BitSet} has the slots of the requests with that value:
+ * <ul>
+ *   <li>the project, from which the manager and the application period follow;</li>
+ *   <li>the applicant's {@link MARITAL_STATUS} and age;</li>
+ *   <li>the {@link ROOM_TYPE} and the {@link REQUEST_STATUS}.</li>
+ * </ul>
+ * A query over several dimensions is then the intersection of one union of bitmaps per dimension, which costs a pass
+ * over a few machine words per thousand requests, whatever the number of criteria.
+ * </p>
+ *
+ * <p>
+ * Like {@link ApplicantReportEngine}, the index is updated by the setters that change a request's place in it,
+ * requests not yet in the master list are ignored, and those of a deleted project are dropped. A project's manager is
+ * not indexed, as it is looked up on the projects when a query runs, so handing a project to another manager needs no
+ * update here.
+ * </p>
+ *
+ * @see ReportQuery
+ */
+public class ReportIndex {
+
+    private static final int MAX_AGE = 150;
+
+    private static final List<HousingReq> rows = new ArrayList<>();
+    private static final Map<HousingReq, Integer> slots = new IdentityHashMap<>();
+
+    private static final Map<Project, BitSet> byProject = new HashMap<>();
+    private static final EnumMap<MARITAL_STATUS, BitSet> byMaritalStatus = new EnumMap<>(MARITAL_STATUS.class);
+    private static final BitSet[] byAge = new BitSet[MAX_AGE + 1];
+    private static final EnumMap<ROOM_TYPE, BitSet> byRoomType = new EnumMap<>(ROOM_TYPE.class);
+    private static final EnumMap<REQUEST_STATUS, BitSet> byStatus = new EnumMap<>(REQUEST_STATUS.class);
+
+    /**
+     * Gives a slot to a request that has just been added to the master list. Requests made by managers are left out,
+     * as reports only cover applicants and officers.
+     *
+     * @param req the newly added housing request
+     */
+    public static void track(HousingReq req) {
+        if (slots.containsKey(req) || req.getUser() instanceof Manager) return;
+        int slot = rows.size();
+        rows.add(req);
+        slots.put(req, slot);
+        byProject.computeIfAbsent(req.getProject(), key -> new BitSet()).set(slot);
+        byMaritalStatus.computeIfAbsent(req.getUser().getMaritalStatus(), key -> new BitSet()).set(slot);
+        ageBitmap(req.getUser().getAge()).set(slot);
+        byRoomType.computeIfAbsent(req.getRoomType(), key -> new BitSet()).set(slot);
+        byStatus.computeIfAbsent(req.getStatus(), key -> new BitSet()).set(slot);
+    }
+
+    /**
+     * Moves a tracked request to the bitmap of its new status.
+     *
+     * @param req the request whose status was changed
+     * @param previous the status before the change
+     */
+    public static void statusChanged(HousingReq req, REQUEST_STATUS previous) {
+        Integer slot = slots.get(req);
+        if (slot == null) return;
+        byStatus.get(previous).clear(slot);
+        byStatus.computeIfAbsent(req.getStatus(), key -> new BitSet()).set(slot);
+    }
+
+    /**
+     * Moves a tracked request to the bitmap of its new room type.
+     *
+     * @param req the request whose room type was changed
+     */
+    public static void roomTypeChanged(HousingReq req) {
+        Integer slot = slots.get(req);
+        if (slot == null) return;
+        byRoomType.values().forEach(bitmap -> bitmap.clear(slot));
+        byRoomType.computeIfAbsent(req.getRoomType(), key -> new BitSet()).set(slot);
+    }
+
+    /**
+     * Moves the tracked requests of a user to the bitmap of their new marital status.
+     *
+     * @param user the user whose marital status was changed
+     */
+    public static void maritalStatusChanged(User user) {
+        for (HousingReq req : user.getReqList()) {
+            Integer slot = slots.get(req);
+            if (slot == null) continue;
+            byMaritalStatus.values().forEach(bitmap -> bitmap.clear(slot));
+            byMaritalStatus.computeIfAbsent(user.getMaritalStatus(), key -> new BitSet()).set(slot);
+        }
+    }
+
+    /**
+     * Drops the requests of a project that has been deleted, so that no query counts them.
+     *
+     * @param project the project removed from the master list
+     */
+    public static void projectDeleted(Project project) {
+        BitSet deleted = byProject.remove(project);
+        if (deleted == null) return;
+        byMaritalStatus.values().forEach(bitmap -> bitmap.andNot(deleted));
+        for (BitSet bitmap : byAge) if (bitmap != null) bitmap.andNot(deleted);
+        byRoomType.values().forEach(bitmap -> bitmap.andNot(deleted));
+        byStatus.values().forEach(bitmap -> bitmap.andNot(deleted));
+        for (int slot = deleted.nextSetBit(0); slot >= 0; slot = deleted.nextSetBit(slot + 1)) {
+            slots.remove(rows.get(slot));
+            rows.set(slot, null); // the slot stays taken, so later slots keep their order of arrival
+        }
+    }
+
+    /**
+     * Forgets all tracked requests. Called when the master list is {@link program.control.housingApply.HousingReqList#clear() cleared}.
+     */
+    public static void clear() {
+        rows.clear();
+        slots.clear();
+        byProject.clear();
+        byMaritalStatus.clear();
+        Arrays.fill(byAge, null);
+        byRoomType.clear();
+        byStatus.clear();
+    }
+
+    // ---- read by ReportQuery; the returned bitmaps must not be changed --------------------------------------------
+
+    static HousingReq row(int slot) {
+        return rows.get(slot);
+    }
+
+    static BitSet project(Project project) {
+        return orEmpty(byProject.get(project));
+    }
+
+    static BitSet maritalStatus(MARITAL_STATUS maritalStatus) {
+        return orEmpty(byMaritalStatus.get(maritalStatus));
+    }
+
+    static BitSet roomType(ROOM_TYPE roomType) {
+        return orEmpty(byRoomType.get(roomType));
+    }
+
+    static BitSet status(REQUEST_STATUS status) {
+        return orEmpty(byStatus.get(status));
+    }
+
+    static BitSet ages(int min, int max) {
+        BitSet union = new BitSet();
+        for (int age = Math.max(0, min); age <= Math.min(MAX_AGE, max); age++) {
+            if (byAge[age] != null) union.or(byAge[age]);
+        }
+        return union;
+    }
+
+    private static BitSet ageBitmap(int age) {
+        int at = Math.max(0, Math.min(MAX_AGE, age));
+        if (byAge[at] == null) byAge[at] = new BitSet();
+        return byAge[at];
+    }
+
+    private static BitSet orEmpty(BitSet bitmap) {
+        return bitmap == null ? new BitSet() : bitmap;
+    }
+}
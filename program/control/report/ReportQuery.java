@@ -0,0 +1,240 @@
+package program.control.report;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import program.control.Main;
+import program.control.housingApply.HousingReq;
+import program.control.housingApply.HousingReq.REQUEST_STATUS;
+import program.entity.project.Project;
+import program.entity.project.Project.ROOM_TYPE;
+import program.entity.users.Manager;
+import program.entity.users.Manager.REPORT_FILTER;
+import program.entity.users.User.MARITAL_STATUS;
+
+/**
+ * <p>
+ * A {@code ReportQuery} selects housing requests for a manager's projects by any combination of criteria, where a
+ * {@link REPORT_FILTER} only allows one at a time:
+ * </p>
+ *
+ * <pre>
+ *     new ReportQuery(manager)
+ *             .maritalStatus(MARITAL_STATUS.Married)
+ *             .roomTypes(ROOM_TYPE.room3)
+ *             .ages(35, 45)
+ *             .statuses(REQUEST_STATUS.pending, REQUEST_STATUS.successful)
+ *             .count();
+ * </pre>
+ *
+ * <p>
+ * Each criterion narrows one dimension: marital status, project, room type, age, request status, or the application
+ * period of the project, which matches when it overlaps a range of dates. Giving several values for one dimension
+ * accepts any of them, and a dimension with no criterion accepts everything. The existing single filters can be
+ * added with {@link #and(REPORT_FILTER, Project)}, so that, for example, MARRIED and FLAT_TYPE_3_ROOM combine.
+ * </p>
+ *
+ * <p>
+ * A query is answered from the bitmaps in {@link ReportIndex}: the union of the bitmaps of the accepted values of each
+ * dimension, intersected across dimensions. Its cost grows with the number of requests only by a machine word per 64
+ * of them, so queries stay interactive with millions of requests; only the requests actually listed are read.
+ * </p>
+ *
+ * @see ReportIndex
+ * @see ApplicantReportEngine
+ */
+public class ReportQuery {
+
+    private final Manager manager;
+    private final Set<Project> projects = new LinkedHashSet<>();
+    private final EnumSet<MARITAL_STATUS> maritalStatuses = EnumSet.noneOf(MARITAL_STATUS.class);
+    private final EnumSet<ROOM_TYPE> roomTypes = EnumSet.noneOf(ROOM_TYPE.class);
+    private final EnumSet<REQUEST_STATUS> statuses = EnumSet.noneOf(REQUEST_STATUS.class);
+    private int minAge = 0;
+    private int maxAge = Integer.MAX_VALUE;
+    private LocalDate from = null;
+    private LocalDate to = null;
+
+    /**
+     * Creates a query over all the requests for a manager's projects.
+     *
+     * @param manager the manager whose projects are queried
+     */
+    public ReportQuery(Manager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Keeps the requests from applicants with one of the given marital statuses.
+     *
+     * @param maritalStatuses the accepted marital statuses
+     * @return this query
+     */
+    public ReportQuery maritalStatus(MARITAL_STATUS... maritalStatuses) {
+        this.maritalStatuses.addAll(List.of(maritalStatuses));
+        return this;
+    }
+
+    /**
+     * Keeps the requests for one of the given projects.
+     *
+     * @param projects the accepted projects
+     * @return this query
+     */
+    public ReportQuery projects(Project... projects) {
+        this.projects.addAll(List.of(projects));
+        return this;
+    }
+
+    /**
+     * Keeps the requests for one of the given room types.
+     *
+     * @param roomTypes the accepted room types
+     * @return this query
+     */
+    public ReportQuery roomTypes(ROOM_TYPE... roomTypes) {
+        this.roomTypes.addAll(List.of(roomTypes));
+        return this;
+    }
+
+    /**
+     * Keeps the requests in one of the given statuses.
+     *
+     * @param statuses the accepted statuses
+     * @return this query
+     */
+    public ReportQuery statuses(REQUEST_STATUS... statuses) {
+        this.statuses.addAll(List.of(statuses));
+        return this;
+    }
+
+    /**
+     * Keeps the requests from applicants aged between two ages, both included.
+     *
+     * @param minAge the youngest accepted age
+     * @param maxAge the oldest accepted age
+     * @return this query
+     */
+    public ReportQuery ages(int minAge, int maxAge) {
+        this.minAge = Math.max(this.minAge, minAge);
+        this.maxAge = Math.min(this.maxAge, maxAge);
+        return this;
+    }
+
+    /**
+     * Keeps the requests for projects whose application period overlaps a range of dates, both included.
+     *
+     * @param from the first date of the range
+     * @param to the last date of the range
+     * @return this query
+     */
+    public ReportQuery applicationPeriod(LocalDate from, LocalDate to) {
+        this.from = this.from == null || from.isAfter(this.from) ? from : this.from;
+        this.to = this.to == null || to.isBefore(this.to) ? to : this.to;
+        return this;
+    }
+
+    /**
+     * Adds the criterion of one of the single report filters to this query.
+     *
+     * @param filter the filter
+     * @param project the project reported on, for {@link REPORT_FILTER#PROJECT}
+     * @return this query
+     */
+    public ReportQuery and(REPORT_FILTER filter, Project project) {
+        return switch (filter) {
+            case MARRIED -> maritalStatus(MARITAL_STATUS.Married);
+            case SINGLE -> maritalStatus(MARITAL_STATUS.Single);
+            case PROJECT -> project == null ? this : projects(project);
+            case FLAT_TYPE_2_ROOM -> roomTypes(ROOM_TYPE.room2);
+            case FLAT_TYPE_3_ROOM -> roomTypes(ROOM_TYPE.room3);
+            case VIEW_ALL -> this;
+        };
+    }
+
+    /**
+     * Counts the requests that match.
+     *
+     * @return the number of matching requests
+     */
+    public int count() {
+        return evaluate().cardinality();
+    }
+
+    /**
+     * Counts the requests that match and are in a given status.
+     *
+     * @param status the status
+     * @return the number of matching requests in that status
+     */
+    public int count(REQUEST_STATUS status) {
+        BitSet matches = evaluate();
+        matches.and(ReportIndex.status(status));
+        return matches.cardinality();
+    }
+
+    /**
+     * Lists the requests that match, newest first.
+     *
+     * @param limit the most requests to list
+     * @return the first {@code limit} matching requests
+     */
+    public List<HousingReq> run(int limit) {
+        BitSet matches = evaluate();
+        List<HousingReq> reqs = new ArrayList<>(Math.min(limit, matches.cardinality()));
+        for (int slot = matches.length() - 1; slot >= 0 && reqs.size() < limit; slot = matches.previousSetBit(slot - 1)) {
+            reqs.add(ReportIndex.row(slot));
+        }
+        return reqs;
+    }
+
+    /**
+     * Describes the criteria of this query, for display.
+     *
+     * @return the criteria, or "all applications" if there are none
+     */
+    @Override
+    public String toString() {
+        List<String> criteria = new ArrayList<>();
+        if (!maritalStatuses.isEmpty()) criteria.add("marital status " + maritalStatuses);
+        if (!projects.isEmpty()) criteria.add("project " + projects.stream().map(Project::getName).toList());
+        if (!roomTypes.isEmpty()) criteria.add("room type " + roomTypes);
+        if (minAge > 0 || maxAge < Integer.MAX_VALUE) criteria.add("age " + minAge + "-" + (maxAge == Integer.MAX_VALUE ? "" : maxAge));
+        if (!statuses.isEmpty()) criteria.add("status " + statuses);
+        if (from != null) criteria.add("application period overlapping " + from + " to " + to);
+        return criteria.isEmpty() ? "all applications" : String.join(", ", criteria);
+    }
+
+    // the slots of the matching requests, in a new bitmap
+    private BitSet evaluate() {
+        BitSet matches = new BitSet();
+        for (Project project : Main.projectList) {
+            if (!project.isManager(manager)) continue;
+            if (!projects.isEmpty() && !projects.contains(project)) continue;
+            if (from != null && (project.getCloseDate().isBefore(from) || project.getOpenDate().isAfter(to))) continue;
+            matches.or(ReportIndex.project(project));
+        }
+        if (!maritalStatuses.isEmpty()) {
+            BitSet union = new BitSet();
+            maritalStatuses.forEach(maritalStatus -> union.or(ReportIndex.maritalStatus(maritalStatus)));
+            matches.and(union);
+        }
+        if (!roomTypes.isEmpty()) {
+            BitSet union = new BitSet();
+            roomTypes.forEach(roomType -> union.or(ReportIndex.roomType(roomType)));
+            matches.and(union);
+        }
+        if (!statuses.isEmpty()) {
+            BitSet union = new BitSet();
+            statuses.forEach(status -> union.or(ReportIndex.status(status)));
+            matches.and(union);
+        }
+        if (minAge > 0 || maxAge < Integer.MAX_VALUE) matches.and(ReportIndex.ages(minAge, maxAge));
+        return matches;
+    }
+}
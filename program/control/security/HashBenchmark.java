@@ -0,0 +1,77 @@
+package program.control.security;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ * {@code HashBenchmark} measures how many password verifications per second this machine can do with each registered
+ * {@link Kdf}, so that the cost of new passwords and the number of threads serving logins can be chosen together.
+ * It is run by hand:
+ * </p>
+ *
+ * <pre>
+ *     java program.control.security.HashBenchmark [threads] [verifications]
+ * </pre>
+ *
+ * <p>
+ * Each function is benchmarked at its default cost. Every thread verifies its share of the total against passwords
+ * hashed beforehand, half with the right password and half with a wrong one, after a short warm-up.
+ * </p>
+ */
+public class HashBenchmark {
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the number of threads (default: available processors) and verifications per function (default 2000)
+     * @throws Exception if a verification thread fails
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            System.out.println("Verifying " + count + " passwords on " + threads + " threads");
+            for (String id : new String[] {Sha256Kdf.ID, Pbkdf2Kdf.ID}) {
+                Kdf kdf = HashingUtils.getKdf(id);
+                run(executor, threads, kdf, Math.max(threads, count / 10)); // warm-up
+                long start = System.nanoTime();
+                int matched = run(executor, threads, kdf, count);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("%-14s cost %-6d %10.0f verifications/s (%d matched)%n",
+                        id, kdf.getDefaultCost(), count / seconds, matched);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // verifies count attempts split over the threads, returning how many matched
+    private static int run(ExecutorService executor, int threads, Kdf kdf, int count) throws Exception {
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int share = count / threads + (t < count % threads ? 1 : 0);
+            int thread = t;
+            results.add(executor.submit(() -> {
+                String salt = HashingUtils.genSalt();
+                String plaintext = "password" + thread;
+                byte[] hash = kdf.derive(plaintext, salt, Pepper.getPepper(), kdf.getDefaultCost());
+                Password password = new Password(
+                        kdf.getId() + "$" + kdf.getDefaultCost() + "$" + HashingUtils.toHex(hash), salt);
+                int matched = 0;
+                for (int i = 0; i < share; i++) {
+                    if (password.matches(i % 2 == 0 ? plaintext : plaintext + "!")) matched++;
+                }
+                return matched;
+            }));
+        }
+        int matched = 0;
+        for (Future<Integer> result : results) matched += result.get();
+        return matched;
+    }
+}
@@ -1,8 +1,11 @@
 package program.control.security;
 
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * <p>
@@ -15,15 +18,46 @@ import java.security.SecureRandom;
  * <ul>
  *   <li>Generating a SHA-256 hash from a given input string.</li>
  *   <li>Creating a random salt using a cryptographically strong random number generator.</li>
+ *   <li>Keeping the registry of {@link Kdf key derivation functions} and the one used for new passwords.</li>
+ *   <li>Converting hashes between bytes and hexadecimal text, and comparing them in constant time.</li>
  * </ul>
  *
  * <p>
- * This class is typically used in contexts where data security, password storage,
- * or verification processes are required.
+ * A {@link MessageDigest} is kept per thread and reused, rather than looked up on every call, since a bulk operation
+ * such as verifying many logins would otherwise spend much of its time in the provider lookup.
+ * </p>
+ *
+ * <p>
+ * The function for new passwords is {@link Pbkdf2Kdf} at its default cost, unless the system properties
+ * {@code bto.kdf} (a function id) and {@code bto.kdf.cost} say otherwise.
  * </p>
  */
 public class HashingUtils {
 
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int SALT_BYTES = 16;
+
+    private static final ThreadLocal<MessageDigest> sha256 = ThreadLocal.withInitial(() -> {
+        try {
+            // Obtain an instance of the SHA-256 hashing algorithm
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            System.out.println("Error: SHA-256 algorithm not found.");
+            throw new RuntimeException(e);
+        }
+    });
+    private static final SecureRandom secureRandom = new SecureRandom();
+
+    private static final Map<String, Kdf> kdfs = new ConcurrentHashMap<>();
+    private static volatile Kdf defaultKdf;
+    private static volatile int defaultCost;
+
+    static {
+        register(new Sha256Kdf());
+        register(new Pbkdf2Kdf());
+        setDefaultKdf(System.getProperty("bto.kdf", Pbkdf2Kdf.ID), Integer.getInteger("bto.kdf.cost", 0));
+    }
+
     /**
      * Generates a SHA-256 hash for the specified input string.
      *
@@ -32,37 +66,130 @@ public class HashingUtils {
      * @throws RuntimeException if the SHA-256 algorithm is not available on the system.
      */
     public static String hash(String input) {
-        MessageDigest digest;
-        try {
-            // Obtain an instance of the SHA-256 hashing algorithm
-            digest = MessageDigest.getInstance("SHA-256");
-        } catch (NoSuchAlgorithmException e) {
-            System.out.println("Error: SHA-256 algorithm not found.");
-            throw new RuntimeException(e);
-        }
-
-        // Compute the SHA-256 hash of the input string
-        byte[] hash = digest.digest(input.getBytes());
+        return toHex(sha256().digest(input.getBytes(StandardCharsets.UTF_8)));
+    }
 
-        // Convert the resulting byte array to a hexadecimal string
-        StringBuilder hexHash = new StringBuilder();
-        for (byte b : hash) {
-            hexHash.append(String.format("%02x", b));
-        }
-        return hexHash.toString();
+    /**
+     * Returns this thread's SHA-256 digest, reset and ready for use. It must not be handed to another thread.
+     *
+     * @return the digest
+     * @throws RuntimeException if the SHA-256 algorithm is not available on the system.
+     */
+    public static MessageDigest sha256() {
+        MessageDigest digest = sha256.get();
+        digest.reset();
+        return digest;
     }
 
     /**
      * Generates a random salt value.
      * <p>
      * The salt is produced using a cryptographically secure random number generator
-     * and returned as a string representing an integer between 0 and 1023 (inclusive).
+     * and returned as {@value #SALT_BYTES} random bytes in hexadecimal.
      * </p>
      *
      * @return A random salt string.
      */
     public static String genSalt() {
-        SecureRandom secureRandom = new SecureRandom();
-        return String.valueOf(secureRandom.nextInt(1 << 10)); // 1 << 10 = 1024 possible values
+        byte[] salt = new byte[SALT_BYTES];
+        secureRandom.nextBytes(salt);
+        return toHex(salt);
+    }
+
+    /**
+     * Makes a key derivation function available for stored hashes and as a default, replacing any with the same id.
+     *
+     * @param kdf The function to register.
+     */
+    public static void register(Kdf kdf) {
+        kdfs.put(kdf.getId(), kdf);
+    }
+
+    /**
+     * Returns a registered key derivation function.
+     *
+     * @param id The id of the function.
+     * @return The function, or {@code null} if none is registered under the id.
+     */
+    public static Kdf getKdf(String id) {
+        return kdfs.get(id);
+    }
+
+    /**
+     * Chooses the key derivation function and cost used for new passwords.
+     *
+     * @param id The id of a registered function.
+     * @param cost The cost, or 0 or less for the function's default.
+     * @throws IllegalArgumentException if no function is registered under the id.
+     */
+    public static void setDefaultKdf(String id, int cost) {
+        Kdf kdf = kdfs.get(id);
+        if (kdf == null) throw new IllegalArgumentException("Unknown key derivation function: " + id);
+        defaultCost = cost > 0 ? cost : kdf.getDefaultCost();
+        defaultKdf = kdf;
+    }
+
+    /**
+     * Returns the key derivation function used for new passwords.
+     *
+     * @return The default function.
+     */
+    public static Kdf getDefaultKdf() {
+        return defaultKdf;
+    }
+
+    /**
+     * Returns the cost used for new passwords.
+     *
+     * @return The default cost.
+     */
+    public static int getDefaultCost() {
+        return defaultCost;
+    }
+
+    /**
+     * Compares two hashes in time that depends only on their length, so that a failed login reveals nothing about
+     * how much of the hash was right.
+     *
+     * @param a One hash.
+     * @param b The other hash.
+     * @return {@code true} if the hashes are equal.
+     */
+    public static boolean equals(byte[] a, byte[] b) {
+        return MessageDigest.isEqual(a, b);
+    }
+
+    /**
+     * Writes bytes as lower-case hexadecimal.
+     *
+     * @param bytes The bytes.
+     * @return Two hexadecimal digits per byte.
+     */
+    public static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = HEX[(bytes[i] >> 4) & 0xF];
+            hex[2 * i + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * Reads hexadecimal text back into bytes.
+     *
+     * @param hex The text, with an even number of hexadecimal digits in either case.
+     * @return The bytes.
+     * @throws IllegalArgumentException if the text is not hexadecimal.
+     */
+    public static byte[] fromHex(String hex) {
+        if (hex.length() % 2 != 0) throw new IllegalArgumentException("Odd length hexadecimal: " + hex);
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(hex.charAt(2 * i), 16);
+            int low = Character.digit(hex.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) throw new IllegalArgumentException("Not hexadecimal: " + hex);
+            bytes[i] = (byte) (high << 4 | low);
+        }
+        return bytes;
     }
 }
@@ -0,0 +1,53 @@
+package program.control.security;
+
+/**
+ * <p>
+ * A {@code Kdf} is a key derivation function that turns a password, its salt and the application pepper into the
+ * bytes stored in a {@link Password}. Each function is known by an id, which is saved with every hash it produced, and
+ * takes a cost parameter, so that the work needed per guess can be raised over time without invalidating the hashes
+ * already stored.
+ * </p>
+ *
+ * <p>
+ * Implementations are registered with {@link HashingUtils#register(Kdf)}, and the one used for new passwords is chosen
+ * with {@link HashingUtils#setDefaultKdf(String, int)}. Two are built in:
+ * <ul>
+ *   <li>{@link Sha256Kdf} — SHA-256 repeated {@code cost} times; at cost 1 it is the original password hash;</li>
+ *   <li>{@link Pbkdf2Kdf} — PBKDF2 with HMAC-SHA256 and {@code cost} iterations, the default for new passwords.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Implementations must be thread-safe, as logins from several sessions are verified at the same time.
+ * </p>
+ *
+ * @see HashingUtils
+ * @see Password
+ */
+public interface Kdf {
+
+    /**
+     * Returns the id saved with the hashes produced by this function. It must not contain {@code $} or {@code ,}.
+     *
+     * @return the function's id
+     */
+    String getId();
+
+    /**
+     * Returns the cost used for new passwords unless another is configured.
+     *
+     * @return the default cost
+     */
+    int getDefaultCost();
+
+    /**
+     * Derives the hash of a password.
+     *
+     * @param password the password
+     * @param salt the password's salt
+     * @param pepper the application pepper
+     * @param cost the work factor, at least 1
+     * @return the 32-byte hash
+     */
+    byte[] derive(String password, String salt, String pepper, int cost);
+}
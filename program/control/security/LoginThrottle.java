@@ -0,0 +1,312 @@
+package program.control.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * {@code LoginThrottle} slows down password guessing. It counts failed logins over a sliding window of
+ * {@value #WINDOW_MINUTES} minutes, separately for each NRIC and for each terminal (a client address, or the console), and
+ * {@link #check(String, String) refuses} further attempts for a while once there have been too many:
+ * <ul>
+ *   <li>after {@value #FREE_FAILURES} failures, each further failure doubles a back-off, from one second up to
+ *   {@value #MAX_BACKOFF_SECONDS} seconds, before the next attempt is accepted;</li>
+ *   <li>at {@value #NRIC_LIMIT} failures for an NRIC, or {@value #TERMINAL_LIMIT} from a terminal, it is locked out for
+ *   {@value #LOCKOUT_MINUTES} minutes.</li>
+ * </ul>
+ * A refused attempt is turned away before the user is looked up or any password is hashed, so guessing against a
+ * locked account costs the system nothing. A successful login clears the counter of its NRIC.
+ * </p>
+ *
+ * <p>
+ * Each counter is a pair of fixed windows, the current and the previous one, whose counts are packed with the
+ * window's number into one {@link AtomicLong} and updated by compare-and-set; the sliding count is the current
+ * window's plus the share of the previous window that still overlaps the last {@value #WINDOW_MINUTES} minutes. No
+ * lock is taken, so sessions logging in at the same time never wait for each other.
+ * </p>
+ *
+ * <p>
+ * Counters that have seen no failure for two windows and are not locked out are dropped by a sweep every
+ * {@value #SWEEP_EVERY} calls, so the memory used is bounded by the failures of the last few minutes. Under a flood of
+ * failures for different NRICs, at most {@value #MAX_TRACKED} counters are kept; beyond that new NRICs and terminals
+ * go uncounted until a sweep frees room, while those already counted, such as the terminal the flood comes from, stay
+ * throttled.
+ * </p>
+ *
+ * <p>
+ * The counters live in memory, which suits the console and the server, where one process sees every attempt. The
+ * command-line entry points, such as {@code --decide}, are a new process for each attempt, so they call
+ * {@link #persistTo(Path)} first: the recent failures and lockouts are then read from a file, replayed into the
+ * counters, and written back after each attempt, so that repeated runs back off and lock out like repeated logins.
+ * </p>
+ *
+ * @see program.boundary.security.LoginHandler
+ */
+public class LoginThrottle {
+
+    private static final int WINDOW_MINUTES = 5;
+    private static final int FREE_FAILURES = 3;
+    private static final int MAX_BACKOFF_SECONDS = 60;
+    private static final int NRIC_LIMIT = 10;
+    private static final int TERMINAL_LIMIT = 30;
+    private static final int LOCKOUT_MINUTES = 15;
+    private static final int SWEEP_EVERY = 1024;
+    private static final int MAX_TRACKED = 100_000;
+
+    private static final long WINDOW = TimeUnit.MINUTES.toNanos(WINDOW_MINUTES);
+    // failures further back than this are not restored from a file; it is the longest a failure can still matter
+    private static final long HISTORY = TimeUnit.MINUTES.toNanos(LOCKOUT_MINUTES) + 2 * WINDOW;
+    private static final long EPOCH = System.nanoTime() - HISTORY; // leaves room before class loading for restored failures
+
+    private static final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final AtomicInteger callsSinceSweep = new AtomicInteger();
+
+    private static final LongAdder failures = new LongAdder();
+    private static final LongAdder refused = new LongAdder();
+    private static final LongAdder lockouts = new LongAdder();
+
+    // the file the counters are kept in across processes, and the times of the failures read from or added to it
+    private static Path store = null;
+    private static final Map<String, List<Long>> storedFailures = new HashMap<>();
+
+    /**
+     * A point-in-time copy of the throttle's counters.
+     *
+     * @param tracked the NRICs and terminals with a live counter
+     * @param failures failed logins recorded
+     * @param refused attempts turned away without checking the password
+     * @param lockouts times an NRIC or terminal reached its limit
+     */
+    public record Metrics(int tracked, long failures, long refused, long lockouts) {
+        @Override
+        public String toString() {
+            return "tracked: " + tracked + ", failures: " + failures + ", refused: " + refused + ", lockouts: " + lockouts;
+        }
+    }
+
+    // the failures of one NRIC or terminal
+    private static final class Counter {
+        // bits 63..32: number of the current window; 31..16: failures in it; 15..0: failures in the window before
+        private final AtomicLong windows = new AtomicLong();
+        private final AtomicLong blockedUntil = new AtomicLong();
+        private volatile long lastFailure;
+
+        // adds a failure and returns the sliding count including it
+        int fail(long now) {
+            lastFailure = now;
+            long index = now / WINDOW;
+            while (true) {
+                long value = windows.get();
+                long rolled = roll(value, index);
+                int current = Math.min(0xFFFF, (int) (rolled >>> 16 & 0xFFFF) + 1);
+                long next = (index << 32) | ((long) current << 16) | (rolled & 0xFFFF);
+                if (windows.compareAndSet(value, next)) return count(next, now);
+            }
+        }
+
+        void block(long until) {
+            blockedUntil.accumulateAndGet(until, Math::max);
+        }
+
+        long waitNanos(long now) {
+            return Math.max(0, blockedUntil.get() - now);
+        }
+
+        boolean isIdle(long now) {
+            return now - lastFailure > 2 * WINDOW && blockedUntil.get() <= now;
+        }
+
+        // moves the counts to the given window, keeping the previous window's count if it is the one just before
+        private static long roll(long value, long index) {
+            long at = value >>> 32;
+            if (at == index) return value;
+            long previous = at == index - 1 ? value >>> 16 & 0xFFFF : 0;
+            return (index << 32) | previous;
+        }
+
+        private static int count(long value, long now) {
+            long current = value >>> 16 & 0xFFFF;
+            long previous = value & 0xFFFF;
+            long overlap = WINDOW - now % WINDOW; // the part of the previous window still within the sliding window
+            return (int) (current + previous * overlap / WINDOW);
+        }
+    }
+
+    /**
+     * Tells whether a login attempt may go ahead. Call it before looking up the user or checking the password.
+     *
+     * @param NRIC the NRIC entered
+     * @param terminal where the attempt comes from, see {@link program.boundary.console.Session#terminal()}
+     * @return {@code 0} if the attempt may go ahead, otherwise the number of seconds to wait, at least 1
+     */
+    public static long check(String NRIC, String terminal) {
+        long now = now();
+        sweepNow(now);
+        long wait = Math.max(waitNanos("nric:" + NRIC, now), waitNanos("terminal:" + terminal, now));
+        if (wait == 0) return 0;
+        refused.increment();
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    /**
+     * Records a failed login, backing off or locking out the NRIC and the terminal as needed.
+     *
+     * @param NRIC the NRIC entered
+     * @param terminal where the attempt came from
+     */
+    public static void failed(String NRIC, String terminal) {
+        long now = now();
+        failures.increment();
+        fail("nric:" + NRIC, NRIC_LIMIT, now);
+        fail("terminal:" + terminal, TERMINAL_LIMIT, now);
+        if (store != null) {
+            synchronized (storedFailures) {
+                long time = System.currentTimeMillis();
+                storedFailures.computeIfAbsent("nric:" + NRIC, key -> new ArrayList<>()).add(time);
+                storedFailures.computeIfAbsent("terminal:" + terminal, key -> new ArrayList<>()).add(time);
+            }
+            save();
+        }
+    }
+
+    /**
+     * Records a successful login, clearing the failures of the NRIC. Those of the terminal are kept, as one valid
+     * account does not vouch for the other NRICs tried from it.
+     *
+     * @param NRIC the NRIC that logged in
+     */
+    public static void succeeded(String NRIC) {
+        counters.remove("nric:" + NRIC);
+        if (store != null) {
+            synchronized (storedFailures) {
+                storedFailures.remove("nric:" + NRIC);
+            }
+            save();
+        }
+    }
+
+    /**
+     * Keeps the counters in a file across processes, for entry points that run once per attempt. The failures and
+     * lockouts saved in the file are replayed into the counters now, and the file is rewritten after every failed
+     * or successful login from then on. A file that cannot be read is treated as empty, and one that cannot be
+     * written is left as it was; either way the attempt goes ahead as if the file were not there.
+     *
+     * @param file the file, created on the first failure
+     */
+    public static void persistTo(Path file) {
+        synchronized (storedFailures) {
+            store = file;
+            storedFailures.clear();
+            if (!Files.isRegularFile(file)) return;
+            long wall = System.currentTimeMillis(), now = now();
+            try {
+                // each line is a key, the time its lockout ends and the times of its failures, all in epoch milliseconds
+                for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    String[] fields = line.split("\t");
+                    if (fields.length != 3) continue;
+                    String key = fields[0];
+                    int limit = key.startsWith("nric:") ? NRIC_LIMIT : TERMINAL_LIMIT;
+                    List<Long> times = new ArrayList<>();
+                    for (String time : fields[2].split(",")) {
+                        if (time.isEmpty()) continue;
+                        long at = now - TimeUnit.MILLISECONDS.toNanos(wall - Long.parseLong(time));
+                        if (at < 0) continue; // too old to matter
+                        times.add(Long.parseLong(time));
+                        fail(key, limit, at);
+                    }
+                    long blockedUntil = now + TimeUnit.MILLISECONDS.toNanos(Long.parseLong(fields[1]) - wall);
+                    if (blockedUntil > now) counters.computeIfAbsent(key, k -> new Counter()).block(blockedUntil);
+                    storedFailures.put(key, times);
+                }
+            } catch (IOException | NumberFormatException e) {
+                System.out.println("Could not read the login counters in " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns the throttle's counters.
+     *
+     * @return a copy of the counters as they are now
+     */
+    public static Metrics getMetrics() {
+        return new Metrics(counters.size(), failures.sum(), refused.sum(), lockouts.sum());
+    }
+
+    private static long waitNanos(String key, long now) {
+        Counter counter = counters.get(key);
+        return counter == null ? 0 : counter.waitNanos(now);
+    }
+
+    private static void fail(String key, int limit, long now) {
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            if (counters.size() >= MAX_TRACKED) return; // full until the next sweep
+            counter = counters.computeIfAbsent(key, k -> new Counter());
+        }
+
+        int count = counter.fail(now);
+        if (count >= limit) {
+            counter.block(now + TimeUnit.MINUTES.toNanos(LOCKOUT_MINUTES));
+            lockouts.increment();
+        } else if (count > FREE_FAILURES) {
+            long backoff = Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(30, count - FREE_FAILURES - 1));
+            counter.block(now + TimeUnit.SECONDS.toNanos(backoff));
+        }
+    }
+
+    // rewrites the file of persistTo with the failures of the last two windows and the lockouts still running
+    private static void save() {
+        synchronized (storedFailures) {
+            long wall = System.currentTimeMillis(), now = now();
+            StringBuilder lines = new StringBuilder();
+            for (Map.Entry<String, List<Long>> entry : storedFailures.entrySet()) {
+                String key = entry.getKey();
+                if (key.indexOf('\t') >= 0 || key.indexOf('\n') >= 0 || key.indexOf('\r') >= 0) continue;
+                List<String> times = new ArrayList<>();
+                for (long time : entry.getValue()) {
+                    if (wall - time <= TimeUnit.NANOSECONDS.toMillis(2 * WINDOW)) times.add(String.valueOf(time));
+                }
+                long wait = waitNanos(key, now);
+                if (times.isEmpty() && wait == 0) continue;
+                lines.append(key).append('\t').append(wall + TimeUnit.NANOSECONDS.toMillis(wait)).append('\t')
+                        .append(String.join(",", times)).append('\n');
+            }
+            Path temp = store.resolveSibling(store.getFileName() + ".tmp");
+            try {
+                Files.writeString(temp, lines, StandardCharsets.UTF_8);
+                Files.move(temp, store, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.out.println("Could not save the login counters to " + store + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static void sweepNow(long now) {
+        if (callsSinceSweep.incrementAndGet() >= SWEEP_EVERY) {
+            callsSinceSweep.set(0);
+            sweep(now);
+        }
+    }
+
+    private static void sweep(long now) {
+        counters.values().removeIf(counter -> counter.isIdle(now));
+    }
+
+    // nanoseconds since the class was loaded, never negative
+    private static long now() {
+        return System.nanoTime() - EPOCH;
+    }
+}
@@ -1,5 +1,8 @@
 package program.control.security;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * <p>
  * {@code Password} represents a securely stored password by combining hashing, salting, and peppering techniques.
@@ -18,7 +21,21 @@ package program.control.security;
  *   <li>A randomly generated {@link #salt}</li>
  *   <li>A globally stored application {@link Pepper#getPepper() pepper}</li>
  * </ul>
- * before applying a SHA-256 hash function.
+ * before applying a {@link Kdf key derivation function}, by default {@link Pbkdf2Kdf}.
+ * </p>
+ *
+ * <p>
+ * The hash is kept as its 32 raw bytes, together with the function, cost and {@link Pepper#getVersion() pepper
+ * version} that produced it, and is checked with {@link #matches(String)} in constant time. In the CSV files it is
+ * written as {@code <function>$<cost>$<hex>}, with {@code @<version>} after the cost unless the pepper is version 1;
+ * a plain 64-digit hexadecimal hash, as stored by earlier versions, stands for {@link Sha256Kdf} at cost 1.
+ * </p>
+ *
+ * <p>
+ * A password can also be <em>wrapped</em> ({@link #wrap()}): its hash, in hexadecimal, is hashed again as if it were
+ * the password, with the current function, cost and pepper. This lets {@link PasswordMigration} strengthen every
+ * stored hash without knowing any password. A wrapped hash lists its functions innermost first, as in
+ * {@code sha256$1$pbkdf2-sha256$10000$<hex>}, and is replaced by a plain one at the user's next login.
  * </p>
  *
  * @see HashingUtils Utility class for hashing and salt generation.
@@ -26,55 +43,184 @@ package program.control.security;
  */
 public class Password {
 
+    // one application of a key derivation function; a hash is made of one or more, innermost first
+    private record Layer(Kdf kdf, int cost, int pepperVersion) {
+
+        byte[] derive(String input, String salt) {
+            return kdf.derive(input, salt, Pepper.getPepper(pepperVersion), cost);
+        }
+
+        boolean isCurrent() {
+            return kdf == HashingUtils.getDefaultKdf() && cost == HashingUtils.getDefaultCost()
+                    && pepperVersion == Pepper.getVersion();
+        }
+
+        static Layer current() {
+            return new Layer(HashingUtils.getDefaultKdf(), HashingUtils.getDefaultCost(), Pepper.getVersion());
+        }
+    }
+
+    private static final Layer LEGACY = new Layer(HashingUtils.getKdf(Sha256Kdf.ID), 1, 1); // hashes saved as plain hex
+
     /**
      * The hashed representation of the password combined with its salt and pepper.
      */
-    private String hash;
+    private final byte[] hash;
 
     /**
      * A randomly generated salt unique to this password.
      */
-    private String salt;
+    private final String salt;
+
+    /**
+     * The functions that produced the hash, innermost first.
+     */
+    private final List<Layer> layers;
 
     /**
      * Constructs a {@code Password} object with a default password string ("password"),
      * generating a new random salt and hashing the combination of password, salt, and pepper.
      */
     public Password(){
-        salt = HashingUtils.genSalt();
-        hash = HashingUtils.hash("password" + salt + Pepper.getPepper());
+        this("password");
     }
 
     /**
      * Constructs a {@code Password} object from a specified initial password.
-     * A new random salt is generated, and the combination of password, salt, and pepper is hashed.
+     * A new random salt is generated, and the combination of password, salt, and pepper is hashed
+     * with the {@link HashingUtils#getDefaultKdf() default function and cost}.
      *
      * @param defaultPassword The initial password to be hashed.
      */
     public Password(String defaultPassword){
-        salt = HashingUtils.genSalt();
-        hash = HashingUtils.hash(defaultPassword + salt + Pepper.getPepper());
+        this(defaultPassword, HashingUtils.genSalt(), Layer.current());
+    }
+
+    private Password(String plaintext, String salt, Layer layer) {
+        this.salt = salt;
+        this.layers = List.of(layer);
+        this.hash = layer.derive(plaintext, salt);
+    }
+
+    private Password(byte[] hash, String salt, List<Layer> layers) {
+        this.hash = hash;
+        this.salt = salt;
+        this.layers = layers;
     }
 
     /**
      * Constructs a {@code Password} object directly from an existing hash and salt.
      * This is useful when reconstructing a password from storage (e.g., database retrieval).
      *
-     * @param hash The precomputed hash value.
+     * @param hash The precomputed hash value, as returned by {@link #getHash()}.
      * @param salt The associated salt used during the original hashing process.
+     * @throws IllegalArgumentException if the hash is malformed or names an unknown function.
      */
     public Password(String hash, String salt) {
-        this.hash = hash;
         this.salt = salt;
+        String[] parts = hash.split("\\$");
+        if (parts.length % 2 == 0) throw new IllegalArgumentException("Malformed password hash");
+        if (parts.length == 1) {
+            this.layers = List.of(LEGACY);
+        } else {
+            List<Layer> layers = new ArrayList<>();
+            for (int i = 0; i < parts.length - 1; i += 2) layers.add(parseLayer(parts[i], parts[i + 1]));
+            this.layers = List.copyOf(layers);
+        }
+        this.hash = HashingUtils.fromHex(parts[parts.length - 1]);
+    }
+
+    private static Layer parseLayer(String id, String cost) {
+        Kdf kdf = HashingUtils.getKdf(id);
+        if (kdf == null) throw new IllegalArgumentException("Unknown key derivation function: " + id);
+        int at = cost.indexOf('@');
+        try {
+            return new Layer(kdf, Integer.parseInt(at < 0 ? cost : cost.substring(0, at)),
+                    at < 0 ? 1 : Integer.parseInt(cost.substring(at + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed password cost: " + cost);
+        }
+    }
+
+    /**
+     * Hashes a password with a single round of SHA-256 and the current pepper, as earlier versions did. This is only
+     * meant for passwords imported in plain text in bulk, where the default function would hold up loading; such
+     * passwords {@link #needsRehash() need a rehash} and are upgraded at login or by {@link PasswordMigration}.
+     *
+     * @param plaintext The password.
+     * @return The hashed password, with a new random salt.
+     */
+    public static Password legacy(String plaintext) {
+        return new Password(plaintext, HashingUtils.genSalt(), new Layer(LEGACY.kdf(), 1, Pepper.getVersion()));
+    }
+
+    /**
+     * Checks whether a password attempt is this password. The attempt is hashed with the same functions, costs,
+     * peppers and salt, and the hashes are compared in constant time.
+     *
+     * @param attempt The password entered.
+     * @return {@code true} if the attempt matches, or {@code false} also if the hash used a pepper that is no longer
+     *         configured.
+     */
+    public boolean matches(String attempt) {
+        try {
+            byte[] derived = layers.get(0).derive(attempt, salt);
+            for (int i = 1; i < layers.size(); i++) derived = layers.get(i).derive(HashingUtils.toHex(derived), salt);
+            return HashingUtils.equals(hash, derived);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            return false;
+        }
     }
 
     /**
-     * Returns the stored hash value.
+     * Tells whether the password should be hashed again from the plain text: it is wrapped, or was not hashed with the
+     * current function, cost and pepper.
+     *
+     * @return {@code true} if the password should be rehashed at the next login.
+     */
+    public boolean needsRehash() {
+        return layers.size() > 1 || !layers.get(0).isCurrent();
+    }
+
+    /**
+     * Tells whether the outermost function, cost and pepper of the hash are the current ones, so that wrapping it
+     * would add nothing.
+     *
+     * @return {@code true} if the hash is as strong as a new one.
+     */
+    public boolean isCurrent() {
+        return layers.get(layers.size() - 1).isCurrent();
+    }
+
+    /**
+     * Strengthens the hash without the plain text, by hashing it again with the current function, cost and pepper.
+     * The same password still {@link #matches(String) matches}.
+     *
+     * @return The wrapped password, with the same salt.
+     */
+    public Password wrap() {
+        Layer outer = Layer.current();
+        List<Layer> wrapped = new ArrayList<>(layers);
+        wrapped.add(outer);
+        return new Password(outer.derive(HashingUtils.toHex(hash), salt), salt, List.copyOf(wrapped));
+    }
+
+    /**
+     * Returns the stored hash value, in the form saved to the CSV files.
      *
      * @return The hashed password string.
      */
     public String getHash() {
-        return hash;
+        String hex = HashingUtils.toHex(hash);
+        if (layers.size() == 1 && layers.get(0).equals(LEGACY)) return hex;
+        StringBuilder encoded = new StringBuilder();
+        for (Layer layer : layers) {
+            encoded.append(layer.kdf().getId()).append('$').append(layer.cost());
+            if (layer.pepperVersion() != 1) encoded.append('@').append(layer.pepperVersion());
+            encoded.append('$');
+        }
+        return encoded.append(hex).toString();
     }
 
     /**
@@ -85,4 +231,43 @@ public class Password {
     public String getSalt() {
         return salt;
     }
+
+    /**
+     * Returns the outermost key derivation function the hash was produced with.
+     *
+     * @return The function.
+     */
+    public Kdf getKdf() {
+        return layers.get(layers.size() - 1).kdf();
+    }
+
+    /**
+     * Returns the cost the outermost function was run with.
+     *
+     * @return The cost.
+     */
+    public int getCost() {
+        return layers.get(layers.size() - 1).cost();
+    }
+
+    /**
+     * Returns the version of the pepper the outermost function was run with.
+     *
+     * @return The pepper version.
+     */
+    public int getPepperVersion() {
+        return layers.get(layers.size() - 1).pepperVersion();
+    }
+
+    /**
+     * Returns the versions of the peppers every function of the hash was run with, innermost first. A wrapped hash
+     * still needs the peppers of its inner functions to be checked.
+     *
+     * @return The pepper versions, one per function.
+     */
+    public List<Integer> getPepperVersions() {
+        List<Integer> versions = new ArrayList<>();
+        for (Layer layer : layers) versions.add(layer.pepperVersion());
+        return versions;
+    }
 }
@@ -0,0 +1,265 @@
+package program.control.security;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+import program.boundary.console.Session;
+import program.control.Main;
+import program.entity.caching.Journal;
+import program.entity.users.User;
+import program.entity.users.UserList;
+
+/**
+ * <p>
+ * {@code PasswordMigration} moves stored passwords onto the current {@link HashingUtils#getDefaultKdf() function},
+ * cost and {@link Pepper#getVersion() pepper} after one of them has changed. It works in two ways, which can be used
+ * together:
+ * <ul>
+ *   <li><b>Lazily</b>: after a successful login, {@link #onLogin(User, String)} rehashes the password from what the user
+ *   typed if it {@link Password#needsRehash() needs it}, without holding the server's data lock while it hashes.
+ *   This costs nothing at startup, and the user table is saved with the next checkpoint. It is on unless the system property {@code bto.rehash.onLogin} is {@code false}.</li>
+ *   <li><b>Offline</b>: {@link #migrate(int)}, run with {@code --migrate-passwords [threads]}, {@link Password#wrap()
+ *   wraps} every password that is not current, across the applicant, officer and manager tables, on a
+ *   {@link ForkJoinPool}. It does not need the passwords, so users who never log in are protected too; their wrapped
+ *   hashes are then flattened lazily when they do.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * The offline job works through the users in chunks of {@value #CHUNK}. After each chunk, the new hashes are appended
+ * to {@code data/password_migration.chk} and flushed, and progress is printed. If the job is stopped, running it
+ * again first takes the finished hashes from that file, as long as it was written for the same target, and carries on
+ * with the rest. When every chunk is done the user tables are saved with a {@link Journal#checkpoint()} and the file is
+ * deleted.
+ * </p>
+ *
+ * @see Password
+ * @see Pepper
+ */
+public class PasswordMigration {
+
+    private static final String CHECKPOINT_FILE = "data/password_migration.chk";
+    private static final int CHUNK = 4096;
+    private static final int LEAF = 16; // users hashed by one fork-join task without splitting further
+
+    private static volatile boolean lazy = !"false".equals(System.getProperty("bto.rehash.onLogin"));
+    private static final LongAdder rehashedOnLogin = new LongAdder();
+
+    /**
+     * The outcome of an offline migration.
+     *
+     * @param users the users in the three tables
+     * @param resumed the users whose new hash was taken from the checkpoint file of an earlier run
+     * @param wrapped the users whose hash was wrapped in this run
+     * @param current the users whose hash was already current
+     * @param oldPeppers for each pepper version older than the current one, the users whose hash still needs it, as
+     *        wrapping keeps the inner layers on the peppers they were hashed with
+     */
+    public record Report(int users, int resumed, int wrapped, int current, Map<Integer, Integer> oldPeppers) {
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(users + " users: " + wrapped + " migrated, " + resumed
+                    + " resumed from an earlier run, " + current + " already current");
+            for (Map.Entry<Integer, Integer> version : oldPeppers.entrySet()) {
+                text.append("\n").append(version.getValue()).append(" users still need pepper version ")
+                        .append(version.getKey()).append(" until they next log in");
+            }
+            return text.toString();
+        }
+    }
+
+    // a user and the table it was loaded from; a promoted officer has a record in two tables
+    private record Entry(String table, User user) {
+        String key() {
+            return table + "," + user.getUserId();
+        }
+    }
+
+    /**
+     * Turns lazy rehashing at login on or off.
+     *
+     * @param enabled {@code true} to rehash passwords that need it at login
+     */
+    public static void setLazy(boolean enabled) {
+        lazy = enabled;
+    }
+
+    /**
+     * Returns the number of passwords rehashed at login since the program started.
+     *
+     * @return the count
+     */
+    public static long getRehashedOnLogin() {
+        return rehashedOnLogin.sum();
+    }
+
+    /**
+     * Rehashes a user's password from the plain text they have just logged in with, if lazy rehashing is on and the
+     * password needs it.
+     *
+     * @param user the user who logged in
+     * @param plaintext the password they entered, already verified
+     */
+    public static void onLogin(User user, String plaintext) {
+        Password stored = user.getPassword();
+        if (!lazy || !stored.needsRehash()) return;
+        Password rehashed = Session.withoutDataLock(() -> new Password(plaintext));
+        if (user.getPassword() != stored) return; // reset by another session while the lock was released
+        user.setPassword(rehashed);
+        rehashedOnLogin.increment();
+    }
+
+    /**
+     * Wraps every stored password that is not current, resuming from the checkpoint file of an interrupted run, and
+     * saves the user tables.
+     *
+     * @param parallelism the number of threads hashing at once
+     * @return how many users were migrated, resumed or already current
+     * @throws Exception if the checkpoint file or the user tables cannot be written
+     */
+    public static Report migrate(int parallelism) throws Exception {
+        List<Entry> entries = new ArrayList<>();
+        add(entries, "APPLICANTS", Main.applicantList);
+        add(entries, "OFFICERS", Main.officerList);
+        add(entries, "MANAGERS", Main.managerList);
+
+        String target = target();
+        File file = new File(CHECKPOINT_FILE);
+        int resumed = resume(file, target, entries);
+
+        List<Entry> pending = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (!entry.user().getPassword().isCurrent()) pending.add(entry);
+        }
+        int current = entries.size() - pending.size() - resumed;
+        System.out.println("Migrating " + pending.size() + " of " + entries.size() + " passwords to " + target
+                + " on " + parallelism + " threads");
+
+        boolean append = file.exists();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(file, append), StandardCharsets.UTF_8))) {
+            if (!append) writer.write(target + "\n");
+            long start = System.nanoTime();
+            for (int from = 0; from < pending.size(); from += CHUNK) {
+                List<Entry> chunk = pending.subList(from, Math.min(pending.size(), from + CHUNK));
+                Password[] wrapped = new Password[chunk.size()];
+                pool.invoke(new WrapTask(chunk, wrapped, 0, chunk.size()));
+
+                // applied one at a time: the user lists and the dirty flags are not meant for concurrent writers
+                for (int i = 0; i < wrapped.length; i++) {
+                    chunk.get(i).user().setPassword(wrapped[i]);
+                    writer.write(chunk.get(i).key() + "," + wrapped[i].getHash() + "," + wrapped[i].getSalt() + "\n");
+                }
+                writer.flush();
+
+                int done = from + chunk.size();
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("Migrated %d of %d passwords (%.0f/s, about %.0f s left)%n", done, pending.size(),
+                        done / seconds, (pending.size() - done) * seconds / done);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        Journal.checkpoint(); // saves the user tables, whose passwords were marked dirty
+        file.delete();
+        return new Report(entries.size(), resumed, pending.size(), current, oldPeppers(entries));
+    }
+
+    // counts, per pepper version older than the current one, the users whose hash uses it in any layer
+    private static Map<Integer, Integer> oldPeppers(List<Entry> entries) {
+        Map<Integer, Integer> counts = new TreeMap<>();
+        for (Entry entry : entries) {
+            for (int version : new TreeSet<>(entry.user().getPassword().getPepperVersions())) {
+                if (version < Pepper.getVersion()) counts.merge(version, 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    private static void add(List<Entry> entries, String table, UserList users) {
+        for (User user : users) entries.add(new Entry(table, user));
+    }
+
+    // the first line of the checkpoint file, so that a run for another target does not resume from it
+    private static String target() {
+        return HashingUtils.getDefaultKdf().getId() + "$" + HashingUtils.getDefaultCost() + "@" + Pepper.getVersion();
+    }
+
+    /**
+     * Takes the hashes finished by an earlier run from the checkpoint file, skipping users whose salt has changed
+     * since, as their password was reset in between.
+     */
+    private static int resume(File file, String target, List<Entry> entries) throws IOException {
+        if (!file.exists()) return 0;
+        Map<String, String[]> finished = new HashMap<>();
+        boolean sameTarget;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            sameTarget = target.equals(reader.readLine());
+            String line;
+            while (sameTarget && (line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length == 4) finished.put(fields[0] + "," + fields[1], fields); // a torn last line is dropped
+            }
+        }
+        if (!sameTarget) { // deleted once the reader is closed
+            System.out.println("Ignoring " + CHECKPOINT_FILE + ", which was written for another target.");
+            file.delete();
+            return 0;
+        }
+
+        int resumed = 0;
+        for (Entry entry : entries) {
+            String[] fields = finished.get(entry.key());
+            if (fields != null && fields[3].equals(entry.user().getPassword().getSalt())
+                    && !entry.user().getPassword().isCurrent()) {
+                entry.user().setPassword(new Password(fields[2], fields[3]));
+                resumed++;
+            }
+        }
+        System.out.println("Resumed " + resumed + " passwords from " + CHECKPOINT_FILE);
+        return resumed;
+    }
+
+    // wraps the passwords of a range of a chunk, splitting the range in half until it is small
+    private static class WrapTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Entry> chunk;
+        private final Password[] wrapped;
+        private final int from, to;
+
+        WrapTask(List<Entry> chunk, Password[] wrapped, int from, int to) {
+            this.chunk = chunk;
+            this.wrapped = wrapped;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF) {
+                for (int i = from; i < to; i++) wrapped[i] = chunk.get(i).user().getPassword().wrap();
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new WrapTask(chunk, wrapped, from, mid), new WrapTask(chunk, wrapped, mid, to));
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package program.control.security;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * <p>
  * {@code Pepper} provides a static secret value that is combined with user passwords
@@ -17,17 +20,63 @@ package program.control.security;
  * for production applications. However, for simplicity, this implementation returns a fixed string.
  * </p>
  *
+ * <p>
+ * Peppers are numbered, so that the pepper can be changed without locking everyone out. Version 1 is the original
+ * fixed string; further versions are given as system properties {@code bto.pepper.2}, {@code bto.pepper.3} and so on,
+ * and the highest version given is used for new hashes. Each {@link Password} records the version it was hashed with,
+ * so old versions must stay configured as long as any stored hash uses them.
+ * </p>
+ *
+ * <p>
+ * The offline {@link PasswordMigration#migrate(int) migration} does not move a password off an old pepper: it
+ * {@link Password#wrap() wraps} the old hash, whose inner layer still needs the old pepper to be checked. Only the
+ * user's next login, which rehashes the password from the plain text, frees it; the migration reports how many hashes
+ * still depend on each old version, and a version can be dropped once none do.
+ * </p>
+ *
  * @see Password Class that uses {@code Pepper} as part of its hashing mechanism.
  * @see HashingUtils Utility class for hashing passwords.
  */
 public class Pepper {
 
+    private static final String[] peppers = load();
+
+    private static String[] load() {
+        List<String> versions = new ArrayList<>(List.of("SC2002 FOLKS"));
+        String next;
+        while ((next = System.getProperty("bto.pepper." + (versions.size() + 1))) != null) versions.add(next);
+        return versions.toArray(new String[0]);
+    }
+
     /**
      * Returns the static pepper string used during password hashing.
      *
      * @return A secret {@code String} value that is appended during password hashing.
      */
     public static String getPepper() {
-        return "SC2002 FOLKS";
+        return peppers[peppers.length - 1];
+    }
+
+    /**
+     * Returns the pepper of a given version, for checking hashes made before the pepper was last changed.
+     *
+     * @param version The version, starting at 1.
+     * @return The pepper of that version.
+     * @throws IllegalArgumentException if no pepper of that version is configured.
+     */
+    public static String getPepper(int version) {
+        if (version < 1 || version > peppers.length) {
+            throw new IllegalArgumentException("Pepper version " + version + " is not configured");
+        }
+        return peppers[version - 1];
+    }
+
+    /**
+     * Returns the version of the pepper used for new hashes.
+     *
+     * @return The current version.
+     */
+    public static int getVersion() {
+        return peppers.length;
     }
 }
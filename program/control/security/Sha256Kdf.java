@@ -0,0 +1,37 @@
+package program.control.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * <p>
+ * {@code Sha256Kdf} hashes the password, salt and pepper, concatenated, with SHA-256, and then hashes the result again
+ * {@code cost - 1} more times. At cost 1 it gives exactly the hashes stored by earlier versions, which are saved
+ * without a function id, so those passwords keep working.
+ * </p>
+ *
+ * @see Kdf
+ */
+public class Sha256Kdf implements Kdf {
+
+    /** The id of this function. */
+    public static final String ID = "sha256";
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public int getDefaultCost() {
+        return 1;
+    }
+
+    @Override
+    public byte[] derive(String password, String salt, String pepper, int cost) {
+        MessageDigest digest = HashingUtils.sha256();
+        byte[] hash = digest.digest((password + salt + pepper).getBytes(StandardCharsets.UTF_8));
+        for (int i = 1; i < cost; i++) hash = digest.digest(hash);
+        return hash;
+    }
+}
@@ -3,6 +3,7 @@ package program.control.security;
 import program.boundary.security.PasswordVerifier;
 import program.control.Main;
 import program.entity.users.User;
+import program.entity.users.UserRegistry;
 
 /**
  * <p>
@@ -20,7 +21,9 @@ import program.entity.users.User;
  *
  * <p>
  * Note: If an officer is promoted to a manager, the system may retain both the officer and manager records separately.
- * When fetching, preference is given to the manager record if one exists.
+ * When fetching with a password, preference is given to the manager record if one exists; the lookup without a
+ * password keeps the applicant, then officer, then manager order, so that enquiries and messages written under the
+ * officer record stay attached to it. Either way each lookup is a constant-time probe of the role lists' indexes.
  * </p>
  *
  * @see User Represents a user in the system.
@@ -32,8 +35,10 @@ public class UserFetcher {
      * Fetches a {@link User} object based on the provided NRIC and verifies the user's password.
      * <p>
      * This method searches across all user lists (applicants, officers, and managers).
-     * If a matching user is found and the password is verified successfully, the user object is returned.
-     * Otherwise, {@code null} is returned.
+     * If a matching user is found and the password is verified successfully, the user object is returned, after its
+     * password has been {@link PasswordMigration#onLogin(User, String) rehashed} if it was outdated.
+     * Otherwise, {@code null} is returned. In server mode the user is looked up under the data lock, which is then
+     * released while the password is hashed, so a login does not hold up the other sessions.
      * </p>
      *
      * @param NRIC The NRIC (National Registration Identity Card number) of the user to be fetched.
@@ -41,14 +46,14 @@ public class UserFetcher {
      * @return The matching {@link User} object if found and password is correct; {@code null} otherwise.
      */
     public static User fetch(String NRIC, String password) {
-        User client = Main.applicantList.get(NRIC);
-        if (client == null) client = Main.officerList.get(NRIC);
         // if officer promoted to Manager, then there will both be an officer Record and a ManagerRecord. 
         // Intentionally so that officer may never access its own record anymore
         // nvm looks like i misread the requirements but ill leave this in anyway
-        if (client == null || Main.managerList.get(NRIC)!= null) client = Main.managerList.get(NRIC);
+        // The registry resolves manager, then officer, then applicant in a single lookup.
+        User client = UserRegistry.get(NRIC);
 
         if (client != null && PasswordVerifier.verify(client, password)) {
+            PasswordMigration.onLogin(client, password); // upgrades an outdated hash while the plain text is at hand
             return client;
         }
         return null;
@@ -58,15 +63,19 @@ public class UserFetcher {
      * Fetches a {@link User} object based on the provided NRIC without verifying the password.
      * <p>
      * This method should be used cautiously since it bypasses password verification, potentially exposing security risks.
+     * Unlike {@link UserRegistry#get(String)}, the applicant record is preferred, then the officer record, then the
+     * manager record; {@link program.entity.caching.DataInitializer} relies on this when it reattaches stored
+     * enquiries and messages to their authors.
      * </p>
      *
      * @param NRIC The NRIC (National Registration Identity Card number) of the user to be fetched.
      * @return The matching {@link User} object if found; {@code null} otherwise.
      */
     public static User fetch(String NRIC) {
-        User client = Main.applicantList.get(NRIC);
-        if (client == null) client = Main.officerList.get(NRIC);
-        if (client == null) client = Main.managerList.get(NRIC);
+        if (NRIC == null) return null;
+        User client = Main.applicantList.get(NRIC, false);
+        if (client == null) client = Main.officerList.get(NRIC, false);
+        if (client == null) client = Main.managerList.get(NRIC, false);
         return client;
     }
 }
@@ -0,0 +1,302 @@
+package program.entity.caching;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * The {@code CsvTokenizer} class reads delimited records from a {@link Reader} one at a time, following RFC 4180:
+ * a field may be wrapped in double quotes, in which case it can contain the delimiter, line breaks and doubled
+ * quotes ({@code ""}) standing for a single quote. It replaces the per-line {@code String.split} and regular
+ * expressions the loaders used, so that reading a file costs a single pass over its characters.
+ * </p>
+ *
+ * <p>
+ * Input is read through a fixed character buffer, and the unescaped contents of the current record are kept back to
+ * back in a second buffer that is reused for every record, with the bounds of each field recorded alongside. Nothing
+ * is allocated per field until a caller asks for one: {@link #get(int)} creates a {@code String}, while
+ * {@link #getInt(int)} and {@link #getDateTime(int)} parse straight from the buffer.
+ * </p>
+ *
+ * <p>
+ * Two configurations are used by {@link DataInitializer}:
+ * <ul>
+ *   <li>{@link #csv(Reader)} — comma-separated, quoting on, and surrounding whitespace trimmed from every field,
+ *   as the loaders did with {@code String.trim};</li>
+ *   <li>{@link #delimited(Reader, char)} — another delimiter, with quotes and whitespace taken literally, for
+ *   files such as {@code EnquiryList.csv} whose free text is not quoted.</li>
+ * </ul>
+ * </p>
+ *
+ * @see DataInitializer
+ */
+public class CsvTokenizer implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char delimiter;
+    private final boolean quoting;
+    private final boolean trim;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+
+    // the current record: field i spans record[starts[i]] up to record[ends[i]]
+    private char[] record = new char[256];
+    private int length = 0;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int fieldCount = 0;
+    private int cursor; // read position of the number parser
+
+    private CsvTokenizer(Reader reader, char delimiter, boolean quoting, boolean trim) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+        this.quoting = quoting;
+        this.trim = trim;
+    }
+
+    /**
+     * Creates a tokenizer for comma-separated files with quoted fields, trimming whitespace around every field.
+     *
+     * @param reader the source of the file
+     * @return a new tokenizer
+     */
+    public static CsvTokenizer csv(Reader reader) {
+        return new CsvTokenizer(reader, ',', true, true);
+    }
+
+    /**
+     * Creates a tokenizer that splits on the given delimiter only, keeping quotes and whitespace as they are.
+     *
+     * @param reader the source of the file
+     * @param delimiter the field separator
+     * @return a new tokenizer
+     */
+    public static CsvTokenizer delimited(Reader reader, char delimiter) {
+        return new CsvTokenizer(reader, delimiter, false, false);
+    }
+
+    /**
+     * Advances to the next record. A blank line is a record holding one empty field.
+     *
+     * @return {@code false} if the end of the input was reached
+     * @throws IOException if reading fails or the input ends inside a quoted field
+     */
+    public boolean next() throws IOException {
+        fieldCount = 0;
+        length = 0;
+        int c = read();
+        if (c < 0) return false;
+
+        int fieldStart = 0;
+        boolean inQuotes = false;
+        int quotedEnd = -1; // where the contents of a quoted field ended, or -1 for an unquoted field
+        while (true) {
+            if (inQuotes) {
+                if (c < 0) throw new IOException("Unterminated quoted field");
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        append('"');
+                    } else {
+                        inQuotes = false;
+                        quotedEnd = length;
+                    }
+                } else {
+                    append((char) c);
+                }
+            } else if (c < 0 || c == '\n' || c == '\r') {
+                if (c == '\r' && peek() == '\n') read();
+                endField(fieldStart, quotedEnd);
+                return true;
+            } else if (c == delimiter) {
+                endField(fieldStart, quotedEnd);
+                fieldStart = length;
+                quotedEnd = -1;
+            } else if (c == '"' && quoting && quotedEnd < 0 && isBlank(fieldStart, length)) {
+                inQuotes = true;
+                length = fieldStart; // drop any whitespace before the opening quote
+            } else {
+                append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * Returns the number of fields in the current record.
+     *
+     * @return the field count
+     */
+    public int size() {
+        return fieldCount;
+    }
+
+    /**
+     * Returns a field of the current record.
+     *
+     * @param index the position of the field
+     * @return the field's contents
+     */
+    public String get(int index) {
+        check(index);
+        return new String(record, starts[index], ends[index] - starts[index]);
+    }
+
+    /**
+     * Checks whether a field of the current record is empty.
+     *
+     * @param index the position of the field
+     * @return {@code true} if the field holds no characters
+     */
+    public boolean isEmpty(int index) {
+        check(index);
+        return starts[index] == ends[index];
+    }
+
+    /**
+     * Returns every field of the current record.
+     *
+     * @return a new array holding the fields in order
+     */
+    public String[] toArray() {
+        String[] fields = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) fields[i] = get(i);
+        return fields;
+    }
+
+    /**
+     * Parses a field of the current record as a decimal integer, without creating a {@code String}.
+     *
+     * @param index the position of the field
+     * @return the parsed value
+     * @throws NumberFormatException if the field is not a valid {@code int}
+     */
+    public int getInt(int index) {
+        check(index);
+        cursor = starts[index];
+        boolean negative = false;
+        if (cursor < ends[index] && (record[cursor] == '-' || record[cursor] == '+')) negative = record[cursor++] == '-';
+        long value = number(index, -1);
+        if (negative) value = -value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) throw invalid(index, "integer");
+        return (int) value;
+    }
+
+    /**
+     * Parses a field of the current record as a timestamp in the {@code dd-MM-yyyy HH:mm} form of
+     * {@link program.boundary.console.DateTimeFormat#getDateTimeFormatter()}.
+     *
+     * @param index the position of the field
+     * @return the parsed timestamp
+     * @throws NumberFormatException if the field is not such a timestamp
+     */
+    public LocalDateTime getDateTime(int index) {
+        check(index);
+        cursor = starts[index];
+        int day = (int) number(index, '-');
+        int month = (int) number(index, '-');
+        int year = (int) number(index, ' ');
+        int hour = (int) number(index, ':');
+        int minute = (int) number(index, -1);
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute);
+        } catch (RuntimeException e) {
+            throw invalid(index, "timestamp");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Reads the digits at the cursor and then expects either the separator or, if it is {@code -1}, the end of
+     * the field.
+     */
+    private long number(int index, int separator) {
+        int end = ends[index];
+        int digitsStart = cursor;
+        long value = 0;
+        while (cursor < end && record[cursor] >= '0' && record[cursor] <= '9') {
+            value = value * 10 + (record[cursor++] - '0');
+            if (value > Integer.MAX_VALUE + 1L) throw invalid(index, "number");
+        }
+        if (cursor == digitsStart) throw invalid(index, "number");
+        if (separator < 0) {
+            if (cursor != end) throw invalid(index, "number");
+        } else {
+            if (cursor == end || record[cursor] != separator) throw invalid(index, "number");
+            cursor++;
+        }
+        return value;
+    }
+
+    private NumberFormatException invalid(int index, String kind) {
+        return new NumberFormatException("Invalid " + kind + ": \"" + get(index) + "\"");
+    }
+
+    private void check(int index) {
+        if (index < 0 || index >= fieldCount) {
+            throw new ArrayIndexOutOfBoundsException("Index " + index + " out of bounds for " + fieldCount + " fields");
+        }
+    }
+
+    private void endField(int start, int quotedEnd) {
+        int end = length;
+        if (quotedEnd >= 0) {
+            // whitespace after the closing quote is dropped when trimming; anything else is kept
+            if (trim && isBlank(quotedEnd, length)) end = quotedEnd;
+        } else if (trim) {
+            while (start < end && record[start] <= ' ') start++;
+            while (end > start && record[end - 1] <= ' ') end--;
+        }
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        fieldCount++;
+    }
+
+    private boolean isBlank(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (record[i] > ' ') return false;
+        }
+        return true;
+    }
+
+    private void append(char c) {
+        if (length == record.length) record = Arrays.copyOf(record, length * 2);
+        record[length++] = c;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int read;
+        do {
+            read = reader.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) return false;
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
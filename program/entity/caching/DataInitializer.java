@@ -2,10 +2,12 @@ package program.entity.caching;
 
 import java.io.*;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import program.boundary.console.DateTimeFormat;
 import program.control.Main;
 import program.control.enquiry.Enquiry;
 import program.control.enquiry.Message;
@@ -29,99 +31,385 @@ import program.entity.users.User;
  * projects, enquiries, etc.).
  * </p>
  *
+ * <p>
+ * Loading runs in two phases. In the parse phase every file is read concurrently into raw rows of
+ * fields, without touching any shared state. In the resolve phase the rows are turned into objects
+ * on the calling thread, in dependency order, linking NRICs and project names to the objects they
+ * refer to. Only the resolve phase depends on order, so reading the files takes about as long as
+ * reading the largest one. The time spent on each file in each phase is printed.
+ * </p>
+ *
  * @see Main for the application’s main data structures like lists of users, projects, and requests.
  * @see UserFetcher for methods related to user fetching.
  */
 public class DataInitializer {
 
+    // tables whose file must be rewritten even though nothing changes in this session, such as user files with
+    // passwords that were just given a salt
+    private static final EnumSet<RecordSaver.TABLE> upgradedTables = EnumSet.noneOf(RecordSaver.TABLE.class);
+
+    /**
+     * The raw rows read from one file in the parse phase.
+     * <p>
+     * A read or format error ends the file, as it did when the files were read one at a time; the rows read before
+     * it are kept and the error is printed in the resolve phase, so that output stays in file order.
+     * </p>
+     *
+     * @param <R> the type of one row
+     */
+    private static final class ParsedFile<R> {
+        final String fileName;
+        final List<R> rows = new ArrayList<>();
+        String error = null;
+        long parseNanos;
+
+        ParsedFile(String fileName) {
+            this.fileName = fileName;
+        }
+    }
+
+    /**
+     * A row of a user file. {@code salt} is {@code null} when the file holds no salt for the password.
+     */
+    private record UserRow(String name, String NRIC, int age, String maritalStatus, String hash, String salt) {}
+
+    /**
+     * A row of the enquiry file: either an enquiry header, or a message belonging to the last header before it.
+     * Headers use {@code id}, {@code project} and {@code time} as the creation date; messages use {@code time} as
+     * the timestamp and {@code text}.
+     */
+    private record EnquiryRow(boolean message, int id, String NRIC, String project, LocalDateTime time, String text) {}
+
     /**
      * Initializes the application by reading all the required data from CSV files and populating
      * various in-memory lists. This includes users (Applicants, Officers, Managers), projects,
      * assignments, and housing requests.
      * <p>
-     * The method also ensures that the required data is read in the correct order:
+     * An interrupted save is first completed or rolled back by {@link RecordSaver#recover()}.
+     * All files are parsed concurrently first. The parsed rows are then resolved in the correct order:
      * <ul>
      *   <li>Users (Applicants, Officers, Managers) are loaded first.</li>
      *   <li>Projects are loaded next, since they may involve users.</li>
      *   <li>Assignments and Housing requests are loaded last to ensure proper referencing.</li>
+     *   <li>If the binary {@link Snapshot} is current, it is loaded in place of all of the above.</li>
+     *   <li>Finally the {@link Journal} is replayed on top, recovering changes from a session that did not exit cleanly.</li>
      * </ul>
      * </p>
      *
      * @throws Exception If there are errors during reading or parsing any of the CSV files.
      */
     public static void initialise() {
+        long start = System.nanoTime();
         try{
-            // reorder at your own risk
-            readUserCSV("ApplicantList.csv", Main.applicantList, "Applicant");
-            readUserCSV("OfficerList.csv", Main.officerList, "Officer");
-            readUserCSV("ManagerList.csv", Main.managerList, "Manager");
+            // finish or roll back a save that was cut short, before any file is read
+            RecordSaver.recover();
+
+            // the binary snapshot stands in for the CSV files while it is current
+            if (!Snapshot.load()) loadCSVFiles();
 
-            // must happen after loading Officer and Manager due to ProjectList.csv also holding officer and Manager info
-            readProjectsCSV("ProjectList.csv");
-            readEnquiryCSV();
+            // loading goes through the same setters as edits do, so start tracking changes only from here
+            RecordSaver.markClean();
+            upgradedTables.forEach(RecordSaver::markDirty);
 
-            // must be read after projectList due to identify via projects
-            readAssignReqCSV("AssignReqList.csv");
-            readHousingReqCSV("HousingReqList.csv");
+            // must happen last: the journal holds the changes made after the CSV files were written
+            Journal.recover();
+
+            // reservations are not saved; they follow from the approved applications, now final
+            reserveApprovedFlats();
 
         }catch (Exception e){
             // Handle exceptions related to file reading and parsing
             System.out.println("Error loading data from CSV files: " + e.getMessage());
         }
 
-        System.out.println("Completed loading of CSV files.");
+        System.out.println("Completed loading of CSV files in " + millis(System.nanoTime() - start) + " ms.");
+    }
+
+    /**
+     * Recounts the flats reserved in each project's {@link program.entity.project.FlatInventory}: one for every
+     * application that was approved but is not booked yet.
+     */
+    private static void reserveApprovedFlats() {
+        for (Project project : Main.projectList) {
+            for (Project.ROOM_TYPE roomType : Project.ROOM_TYPE.values()) {
+                int approved = 0;
+                for (HousingReq req : project.getReqList()) {
+                    if (req.getStatus() == HousingReq.REQUEST_STATUS.successful && req.getRoomType() == roomType) approved++;
+                }
+                project.getInventory().setReserved(roomType, approved);
+            }
+        }
+    }
+
+    /**
+     * Parses every CSV file concurrently, then resolves the parsed rows in dependency order.
+     *
+     * @throws Exception If a parse task fails unexpectedly or is interrupted.
+     */
+    private static void loadCSVFiles() throws Exception {
+        ParsedFile<UserRow> applicants, officers, managers;
+        ParsedFile<String[]> projects, assignReqs, housingReqs;
+        ParsedFile<EnquiryRow> enquiries;
+        ExecutorService pool = Executors.newFixedThreadPool(7);
+        try {
+            Future<ParsedFile<UserRow>> applicantsTask = pool.submit(timed("ApplicantList.csv", DataInitializer::parseUserCSV));
+            Future<ParsedFile<UserRow>> officersTask = pool.submit(timed("OfficerList.csv", DataInitializer::parseUserCSV));
+            Future<ParsedFile<UserRow>> managersTask = pool.submit(timed("ManagerList.csv", DataInitializer::parseUserCSV));
+            Future<ParsedFile<String[]>> projectsTask = pool.submit(timed("ProjectList.csv", DataInitializer::parseProjectsCSV));
+            Future<ParsedFile<EnquiryRow>> enquiriesTask = pool.submit(timed("EnquiryList.csv", DataInitializer::parseEnquiryCSV));
+            Future<ParsedFile<String[]>> assignReqsTask = pool.submit(timed("AssignReqList.csv", DataInitializer::parseAssignReqCSV));
+            Future<ParsedFile<String[]>> housingReqsTask = pool.submit(timed("HousingReqList.csv", DataInitializer::parseHousingReqCSV));
+            applicants = applicantsTask.get();
+            officers = officersTask.get();
+            managers = managersTask.get();
+            projects = projectsTask.get();
+            enquiries = enquiriesTask.get();
+            assignReqs = assignReqsTask.get();
+            housingReqs = housingReqsTask.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        // reorder at your own risk
+        resolve(applicants, parsed -> resolveUsers(parsed, "Applicant"));
+        resolve(officers, parsed -> resolveUsers(parsed, "Officer"));
+        resolve(managers, parsed -> resolveUsers(parsed, "Manager"));
+
+        // must happen after loading Officer and Manager due to ProjectList.csv also holding officer and Manager info
+        resolve(projects, DataInitializer::resolveProjects);
+        resolve(enquiries, DataInitializer::resolveEnquiries);
+
+        // must be read after projectList due to identify via projects
+        resolve(assignReqs, DataInitializer::resolveAssignReqs);
+        resolve(housingReqs, DataInitializer::resolveHousingReqs);
+    }
+
+    /**
+     * A parse-phase step that fills a {@link ParsedFile} from an open reader.
+     */
+    private interface Parser<R> {
+        void parse(Reader reader, ParsedFile<R> parsed) throws Exception;
+    }
+
+    /**
+     * A resolve-phase step that turns the rows of a {@link ParsedFile} into objects.
+     */
+    private interface Resolver<R> {
+        void resolve(ParsedFile<R> parsed) throws Exception;
+    }
+
+    /**
+     * Wraps a parser into a task that opens the file, records how long parsing took, and turns failures into the
+     * same messages the sequential loader printed.
+     */
+    private static <R> Callable<ParsedFile<R>> timed(String fileName, Parser<R> parser) {
+        return () -> {
+            long start = System.nanoTime();
+            ParsedFile<R> parsed = new ParsedFile<>(fileName);
+            File file = new File("data/" + fileName);
+            if ("EnquiryList.csv".equals(fileName) && !file.exists()) {
+                try {
+                    file.createNewFile(); // Create the file if it doesn't exist
+                } catch (IOException e) {
+                    System.out.println("Error creating EnquiryList.csv: " + e.getMessage());
+                    System.exit(1);
+                }
+            }
+            try (Reader reader = new FileReader(file)) {
+                parser.parse(reader, parsed);
+            } catch (IOException e) {
+                parsed.error = "Error reading " + fileName + ": " + e.getMessage();
+            } catch (Exception e) {
+                parsed.error = "Error parsing " + fileName + ": " + e.getMessage();
+            }
+            parsed.parseNanos = System.nanoTime() - start;
+            return parsed;
+        };
+    }
+
+    /**
+     * Runs the resolve step of one file, then prints any error from either phase and the file's timings.
+     */
+    private static <R> void resolve(ParsedFile<R> parsed, Resolver<R> resolver) {
+        long start = System.nanoTime();
+        try {
+            resolver.resolve(parsed);
+        } catch (Exception e) {
+            System.out.println("Error parsing " + parsed.fileName + ": " + e.getMessage());
+        }
+        if (parsed.error != null) System.out.println(parsed.error);
+        System.out.println("Loaded " + parsed.fileName + ": " + parsed.rows.size() + " rows, parsed in "
+                + millis(parsed.parseNanos) + " ms, linked in " + millis(System.nanoTime() - start) + " ms");
+    }
+
+    static String millis(long nanos) {
+        return String.format("%.1f", nanos / 1_000_000.0);
     }
 
+    // ---- parse phase: no shared state may be touched here ----------------------------------------------------
+
     /**
-     * Reads a CSV file containing user data (Applicants, Officers, or Managers) and populates the
-     * corresponding list with user objects.
+     * Reads a CSV file containing user data (Applicants, Officers, or Managers) into rows.
      * <p>
-     * This method handles both the case where the CSV contains a password salt (6 fields) or
-     * when the salt is missing (5 fields). It also validates the format of the CSV file.
+     * Rows hold either 5 fields, or 6 when a password salt is present. The age is parsed here.
      * </p>
      *
-     * @param fileName The name of the CSV file to read.
-     * @param list The list to populate with user objects (Applicants, Officers, or Managers).
-     * @param type The type of user to read ("Applicant", "Officer", or "Manager").
-     * @throws IOException If an I/O error occurs during reading the file.
-     * @throws Exception If there is an error parsing the user data.
+     * @param reader The reader over the CSV file.
+     * @param parsed The parsed file to fill.
+     * @throws IOException If an I/O error occurs or a row has the wrong number of fields.
      */
-    private static void readUserCSV(String fileName, List<?> list, String type) {
-        try (BufferedReader br = new BufferedReader(new FileReader("data/" + fileName))) {
-            String line;
+    private static void parseUserCSV(Reader reader, ParsedFile<UserRow> parsed) throws IOException {
+        CsvTokenizer csv = CsvTokenizer.csv(reader);
 
-            // Skip the header
-            br.readLine();
+        // Skip the header
+        csv.next();
 
-            while ((line = br.readLine()) != null) {
-                String[] fields = line.split(",");
-                for (int i = 0; i < fields.length; i++) {
-                    fields[i] = fields[i].trim();
-                }
+        while (csv.next()) {
+            if (csv.size() < 5 || csv.size() > 6) { // Expecting 5 or 6 fields
+                throw new IOException("Invalid CSV format in " + parsed.fileName + ": " + Arrays.toString(csv.toArray()));
+            }
+            // an empty trailing salt counts as missing, as String.split dropped it
+            String salt = csv.size() == 6 && !csv.isEmpty(5) ? csv.get(5) : null;
+            parsed.rows.add(new UserRow(csv.get(0), csv.get(1), csv.getInt(2), csv.get(3), csv.get(4), salt));
+        }
+    }
 
-                if (fields.length < 5 || fields.length > 6) { // Expecting 5 or 6 fields
-                    throw new IOException("Invalid CSV format in " + fileName + ": " + Arrays.toString(fields));
-                }
+    /**
+     * Reads the project CSV file into rows of 14 fields, filling in missing trailing columns. The quoted officer
+     * list is unquoted by the tokenizer.
+     *
+     * @param reader The reader over the CSV file.
+     * @param parsed The parsed file to fill.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void parseProjectsCSV(Reader reader, ParsedFile<String[]> parsed) throws IOException {
+        CsvTokenizer csv = CsvTokenizer.csv(reader);
+
+        // Skip the header
+        csv.next();
+
+        while (csv.next()) {
+            String[] fields = csv.toArray();
+
+            if (fields.length == 12) {
+                fields = Arrays.copyOf(fields, 14); // Extend to include visibility
+                fields[12] = ""; // Officer list
+                fields[13] = ""; // Visibility
+            } else if (fields.length == 13) {
+                fields = Arrays.copyOf(fields, 14); // Extend to include visibility
+                fields[13] = ""; // Visibility
+            }
+            parsed.rows.add(fields);
+        }
+    }
 
-                Password password;
-                if (fields.length == 6) {
-                    // If salt is provided
-                    password = new Password(fields[4], fields[5]);
-                } else {
-                    // If salt is missing, generate a new salt
-                    password = new Password(fields[4]);
-                }
+    /**
+     * Reads the enquiry file into rows. Enquiry header rows and {@code MESSAGE} rows are kept in file order, since
+     * a message belongs to the header before it. IDs and timestamps are parsed here.
+     *
+     * @param reader The reader over the enquiry file.
+     * @param parsed The parsed file to fill.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void parseEnquiryCSV(Reader reader, ParsedFile<EnquiryRow> parsed) throws IOException {
+        CsvTokenizer csv = CsvTokenizer.delimited(reader, '|');
+        csv.next();
 
-                switch (type) {
-                    case "Applicant" -> Main.applicantList.add(new Applicant(fields[1], fields[0], Integer.parseInt(fields[2]), fields[3], password));
-                    case "Officer" -> Main.officerList.add(new Officer(fields[1], fields[0], Integer.parseInt(fields[2]), fields[3], password));
-                    case "Manager" -> Main.managerList.add(new Manager(fields[1], fields[0], Integer.parseInt(fields[2]), fields[3], password));
-                }
+        while (csv.next()) {
+            if (csv.get(0).equals("MESSAGE")) {
+                parsed.rows.add(new EnquiryRow(true, 0, csv.get(1), null, csv.getDateTime(2), csv.get(3)));
+            } else {
+                parsed.rows.add(new EnquiryRow(false, csv.getInt(0), csv.get(1), csv.get(2), csv.getDateTime(3), null));
+            }
+        }
+    }
+
+    /**
+     * Reads the housing request CSV file into rows of 6 fields, filling in an empty "approvedBy" field if missing.
+     *
+     * @param reader The reader over the CSV file.
+     * @param parsed The parsed file to fill.
+     * @throws IOException If an I/O error occurs or a row has the wrong number of fields.
+     */
+    private static void parseHousingReqCSV(Reader reader, ParsedFile<String[]> parsed) throws IOException {
+        CsvTokenizer csv = CsvTokenizer.csv(reader);
+
+        // Skip the header
+        csv.next();
+
+        while (csv.next()) {
+            String[] fields = csv.toArray();
+
+            if (fields.length == 5){
+                // in case approvedBy field empty
+                fields = Arrays.copyOf(fields,6);
+                fields[5] = "";
+            }
+
+            if (fields.length != 6) {
+                throw new IOException("Invalid CSV format in " + parsed.fileName);
+            }
+            parsed.rows.add(fields);
+        }
+    }
+
+    /**
+     * Reads the assignment request CSV file into rows of 3 fields.
+     *
+     * @param reader The reader over the CSV file.
+     * @param parsed The parsed file to fill.
+     * @throws IOException If an I/O error occurs or a row has the wrong number of fields.
+     */
+    private static void parseAssignReqCSV(Reader reader, ParsedFile<String[]> parsed) throws IOException {
+        CsvTokenizer csv = CsvTokenizer.csv(reader);
+
+        // Skip the header
+        csv.next();
+
+        while (csv.next()) {
+            if (csv.size() != 3) {
+                throw new IOException("Invalid CSV format in " + parsed.fileName);
+            }
+            parsed.rows.add(csv.toArray());
+        }
+    }
+
+    // ---- resolve phase: runs on the calling thread, in dependency order --------------------------------------
+
+    /**
+     * Creates the users (Applicants, Officers, or Managers) of a parsed user file and adds them to the
+     * corresponding list.
+     * <p>
+     * This method handles both the case where the row contains a password salt or
+     * when the salt is missing.
+     * </p>
+     *
+     * @param parsed The parsed user file.
+     * @param type The type of user to create ("Applicant", "Officer", or "Manager").
+     * @throws Exception If there is an error creating a user.
+     */
+    private static void resolveUsers(ParsedFile<UserRow> parsed, String type) throws Exception {
+        for (UserRow row : parsed.rows) {
+            Password password;
+            if (row.salt() != null) {
+                // If salt is provided
+                password = new Password(row.hash(), row.salt());
+            } else {
+                // If salt is missing, generate a new salt. A single SHA-256 round keeps loading a large plain text
+                // import fast; PasswordMigration strengthens these hashes at login or offline.
+                password = Password.legacy(row.hash());
+                upgradedTables.add(switch (type) {
+                    case "Officer" -> RecordSaver.TABLE.OFFICERS;
+                    case "Manager" -> RecordSaver.TABLE.MANAGERS;
+                    default -> RecordSaver.TABLE.APPLICANTS;
+                });
+            }
+
+            switch (type) {
+                case "Applicant" -> Main.applicantList.add(new Applicant(row.NRIC(), row.name(), row.age(), row.maritalStatus(), password));
+                case "Officer" -> Main.officerList.add(new Officer(row.NRIC(), row.name(), row.age(), row.maritalStatus(), password));
+                case "Manager" -> Main.managerList.add(new Manager(row.NRIC(), row.name(), row.age(), row.maritalStatus(), password));
             }
-        } catch (IOException e) {
-            System.out.println("Error reading " + fileName + " " + e.getMessage());
-        }  catch (Exception e) {
-            System.out.println("Error parsing " + fileName + " " + e.getMessage());
         }
     }
 
@@ -167,228 +455,141 @@ public class DataInitializer {
     }
 
     /**
-     * Reads a CSV file containing project data and populates the project list.
+     * Creates the projects of the parsed project file and adds them to the project list.
      * <p>
-     * This method reads the CSV file and creates {@link Project} objects, linking officers to
-     * projects and handling assignments.
+     * Managers and officers are linked by name, so the user files must have been resolved first.
+     * Invalid rows are skipped.
      * </p>
      *
-     * @param fileName The name of the CSV file to read.
+     * @param parsed The parsed project file.
      */
-    private static void readProjectsCSV(String fileName) {
-        try (BufferedReader br = new BufferedReader(new FileReader("data/" + fileName))) {
-            String line;
-
-            // Skip the header
-            br.readLine();
-
-            while ((line = br.readLine()) != null) {
-                // Handle quoted commas by using a regex to split, while considering quotes
-                String[] fields = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
-
-                // Properly trim and remove surrounding quotes from all fields
-                for (int i = 0; i < fields.length; i++) {
-                    fields[i] = fields[i].trim().replaceAll("^\"|\"$", "");
-                }
-
-                if (fields.length == 12) {
-                    fields = Arrays.copyOf(fields, 14); // Extend to include visibility
-                    fields[12] = ""; // Officer list
-                    fields[13] = ""; // Visibility
-                } else if (fields.length == 13) {
-                    fields = Arrays.copyOf(fields, 14); // Extend to include visibility
-                    fields[13] = ""; // Visibility
-                }
-
-                try {
-                    Project project = createProject(fields, fileName);
-                    Main.projectList.add(project);
-
-                    // Set visibility if provided
-                    if (!fields[13].isEmpty()) {
-                        project.setVisibility(Boolean.parseBoolean(fields[13]));
-                    }
-                } catch (Exception e) {
-                    System.out.println("Skipping invalid project entry: " + Arrays.toString(fields) + "\n" + e.getMessage());
-                    e.printStackTrace();
+    private static void resolveProjects(ParsedFile<String[]> parsed) {
+        for (String[] fields : parsed.rows) {
+            try {
+                Project project = createProject(fields, parsed.fileName);
+                Main.projectList.add(project);
+
+                // Set visibility if provided
+                if (!fields[13].isEmpty()) {
+                    project.setVisibility(Boolean.parseBoolean(fields[13]));
                 }
+            } catch (Exception e) {
+                System.out.println("Skipping invalid project entry: " + Arrays.toString(fields) + "\n" + e.getMessage());
+                e.printStackTrace();
             }
-        } catch (IOException e) {
-            System.out.println("Error reading " + fileName + ": " + e.getMessage());
-        } catch (Exception e) {
-            System.out.println("Error parsing " + fileName + ": " + e.getMessage());
         }
     }
 
     /**
-     * Reads the enquiry CSV file and populates the list of enquiries.
+     * Creates the enquiries of the parsed enquiry file and adds them to the list of enquiries.
      * <p>
-     * This method creates enquiry objects and adds messages if they exist.
+     * This method creates enquiry objects and adds messages if they exist. A header line repeating the ID of an
+     * enquiry that was already read introduces messages that were appended to it later.
      * </p>
      *
-     * @throws IOException If there is an issue reading the enquiry file.
+     * @param parsed The parsed enquiry file.
+     * @throws Exception If a row cannot be parsed.
      */
-    private static void readEnquiryCSV() {
-        File file = new File("data/EnquiryList.csv");
-        DateTimeFormatter formatter = DateTimeFormat.getDateTimeFormatter();
-
-        // Check if the file exists
-        if (!file.exists()){
-            try{
-                file.createNewFile(); // Create the file if it doesn't exist
-            } catch (IOException e) {
-                System.out.println("Error creating EnquiryList.csv: " + e.getMessage());
-                System.exit(1);
-            }
-            return; // Exit if the file doesn't exist - new file is empty
-        }
-        try (BufferedReader br = new BufferedReader(new FileReader("data/EnquiryList.csv"))) {
-            String line;
-            Enquiry currentEnquiry = null; // Initialize currentEnquiry
-            br.readLine();
-
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split("\\|");
-
-                if (parts[0].equals("MESSAGE")) {
-                    // Parse a Message
-                    if (currentEnquiry != null) {
-                        Message message = new Message(
-                            UserFetcher.fetch(parts[1]), // User
-                            parts[3], // Message Text
-                            LocalDateTime.parse(parts[2], formatter) // Timestamp
-                        );
-                        currentEnquiry.add(message); 
-                    }
-                } else {
-                    // Parse an Enquiry
-                    currentEnquiry = new Enquiry(
-                        Integer.parseInt(parts[0]), // Enquiry ID
-                        UserFetcher.fetch(parts[1]), // Assuming a method to fetch user by ID
-                        Main.projectList.get(parts[2]), // Assuming a method to fetch project by name
-                        LocalDateTime.parse(parts[3], formatter)
+    private static void resolveEnquiries(ParsedFile<EnquiryRow> parsed) throws Exception {
+        Enquiry currentEnquiry = null; // Initialize currentEnquiry
+        Map<Integer, Enquiry> loaded = new HashMap<>();
+
+        for (EnquiryRow row : parsed.rows) {
+            if (row.message()) {
+                // Parse a Message
+                if (currentEnquiry != null) {
+                    Message message = new Message(
+                        UserFetcher.fetch(row.NRIC()), // User
+                        row.text(), // Message Text
+                        row.time() // Timestamp
                     );
-                    Main.enquiryList.add(currentEnquiry); // Add to the main enquiry list
+                    currentEnquiry.add(message);
                 }
+            } else if (loaded.containsKey(row.id())) {
+                // A repeated header: messages appended to an enquiry saved earlier follow
+                currentEnquiry = loaded.get(row.id());
+            } else {
+                // Parse an Enquiry
+                currentEnquiry = new Enquiry(
+                    row.id(), // Enquiry ID
+                    UserFetcher.fetch(row.NRIC()), // Assuming a method to fetch user by ID
+                    Main.projectList.get(row.project()), // Assuming a method to fetch project by name
+                    row.time()
+                );
+                Main.enquiryList.add(currentEnquiry); // Add to the main enquiry list
+                loaded.put(currentEnquiry.getId(), currentEnquiry);
+                // new enquiries must not reuse a loaded ticket ID
+                Enquiry.totalTickets = Math.max(Enquiry.totalTickets, currentEnquiry.getId() + 1);
             }
-        } catch (IOException e) {
-            System.out.println("Error reading EnquiryList.csv :" + e.getMessage());
-        }  catch (Exception e) {
-            System.out.println("Error parsing EnquiryList.csv :" + e.getMessage());
         }
     }
 
     /**
-     * Reads housing request data from a CSV file and adds the housing requests to the main list.
-     * <p>
-     * This method processes each housing request and handles scenarios like missing "approvedBy"
-     * fields.
-     * </p>
+     * Creates the housing requests of the parsed housing request file and adds them to the main list.
      *
-     * @param fileName The name of the housing request CSV file to read.
+     * @param parsed The parsed housing request file.
+     * @throws Exception If a row refers to an unknown status or room type.
      */
-    private static void readHousingReqCSV(String fileName) {
-        try (BufferedReader br = new BufferedReader(new FileReader("data/" + fileName))) {
-            String line;
-
-            // Skip the header
-            br.readLine();
-
-            while ((line = br.readLine()) != null) {
-                String[] fields = line.split(",");
-
-                if (fields.length == 5){
-                    // in case approvedBy field empty
-                    fields = Arrays.copyOf(fields,6);
-                    fields[5] = "";
-                }
-
-                if (fields.length != 6) {
-                    throw new IOException("Invalid CSV format in " + fileName);
-                }
-
-                User user = Main.applicantList.get(fields[0]);
-                Project project = Main.projectList.get(fields[1]);
-                Project.ROOM_TYPE roomType = Project.ROOM_TYPE.valueOf(fields[2]);
-                HousingReq.REQUEST_STATUS requestStatus = HousingReq.REQUEST_STATUS.valueOf(fields[3]);
-                HousingReq.WITHDRAWAL_STATUS withdrawalStatus = HousingReq.WITHDRAWAL_STATUS.valueOf(fields[4]);
-                Officer approvedBy = fields[5].isEmpty() ? null : (Officer) Main.officerList.get(fields[5]);
-
-                HousingReq req = new HousingReq(user, project, roomType);
-                req.setStatus(requestStatus);
-                req.setWithdrawalStatus(withdrawalStatus);
-                req.setApprovedBy((Manager) approvedBy);
-
-                Main.housingReqList.add(req);
-            }
-        } catch (IOException e) {
-            System.out.println("Error reading " + fileName + ": " + e.getMessage());
-        } catch (Exception e) {
-            System.out.println("Error parsing " + fileName + ": " + e.getMessage());
+    private static void resolveHousingReqs(ParsedFile<String[]> parsed) throws Exception {
+        for (String[] fields : parsed.rows) {
+            User user = Main.applicantList.get(fields[0]);
+            Project project = Main.projectList.get(fields[1]);
+            Project.ROOM_TYPE roomType = Project.ROOM_TYPE.valueOf(fields[2]);
+            HousingReq.REQUEST_STATUS requestStatus = HousingReq.REQUEST_STATUS.valueOf(fields[3]);
+            HousingReq.WITHDRAWAL_STATUS withdrawalStatus = HousingReq.WITHDRAWAL_STATUS.valueOf(fields[4]);
+            Officer approvedBy = fields[5].isEmpty() ? null : (Officer) Main.officerList.get(fields[5]);
+
+            HousingReq req = new HousingReq(user, project, roomType);
+            req.setStatus(requestStatus);
+            req.setWithdrawalStatus(withdrawalStatus);
+            req.setApprovedBy((Manager) approvedBy);
+
+            Main.housingReqList.add(req);
         }
     }
 
     /**
-     * Reads assignment request data from a CSV file and adds the assignment requests to the
+     * Creates the assignment requests of the parsed assignment request file and adds them to the
      * main list.
      * <p>
-     * This method processes each assignment request, checking for valid officer and project
-     * references.
+     * This method checks for valid officer and project references, and then creates an accepted
+     * request for every officer listed on a project who has none.
      * </p>
      *
-     * @param fileName The name of the assignment request CSV file to read.
+     * @param parsed The parsed assignment request file.
+     * @throws Exception If a row refers to an unknown project or status.
      */
-    private static void readAssignReqCSV(String fileName) {
-        try (BufferedReader br = new BufferedReader(new FileReader("data/" + fileName))) {
-            String line;
+    private static void resolveAssignReqs(ParsedFile<String[]> parsed) throws Exception {
+        for (String[] fields : parsed.rows) {
+            Officer officer = (Officer) Main.officerList.get(fields[0]);
+            Project project = Main.projectList.get(fields[1]);
+            if (project == null) throw new Exception("Hey the project " + fields[0] + " is missing.\n" + "Projects available for reference: " + Main.projectList.stream());
+            AssignReq.APPLICATION_STATUS applicationStatus = AssignReq.APPLICATION_STATUS.valueOf(fields[2]);
 
-            // Skip the header
-            br.readLine();
-
-            while ((line = br.readLine()) != null) {
-                String[] fields = line.split(",");
-                if (fields.length != 3) {
-                    throw new IOException("Invalid CSV format in " + fileName);
-                }
+            AssignReq req = new AssignReq(officer, project);
+            req.setApplicationStatus(applicationStatus);
 
-                Officer officer = (Officer) Main.officerList.get(fields[0]);
-                Project project = Main.projectList.get(fields[1]);
-                if (project == null) throw new Exception("Hey the project " + fields[0] + " is missing.\n" + "Projects available for reference: " + Main.projectList.stream());
-                AssignReq.APPLICATION_STATUS applicationStatus = AssignReq.APPLICATION_STATUS.valueOf(fields[2]);
-
-                AssignReq req = new AssignReq(officer, project);
-                req.setApplicationStatus(applicationStatus);
-                
-                Main.assignReqList.superAdd(req);
-            }
-            Main.projectList.forEach(project_ -> {
-                // Stream through the officers assigned to the project
-                project_.getOfficers().stream()
-                    // Filter out officers who already have an accepted assignment request for this project
-                    .filter(officer_ -> {
-                        boolean hasAcceptedRequest = Main.assignReqList.stream()
-                            .anyMatch(req -> 
-                                req.getOfficer().equals(officer_) &&
-                                req.getProject().equals(project_) &&
-                                req.getApplicationStatus() == AssignReq.APPLICATION_STATUS.accepted
-                            );
-                        // System.out.println("Officer: " + officer_ + " has accepted request: " + hasAcceptedRequest);
-                        return !hasAcceptedRequest;
-                    })
-                    // Peek to log officers who pass the filter
-                    // .peek(officer_ -> System.out.println("Adding new assignment request for officer: " + officer_))
-                    // For each officer who passes the filter, create a new accepted assignment request
-                    .forEach(officer_ -> {
-                        AssignReq req = new AssignReq((Officer) officer_, project_);
-                        req.setApplicationStatus(AssignReq.APPLICATION_STATUS.accepted);
-                        Main.assignReqList.superAdd(req);
-                        // System.out.println("New assignment request added: " + req);
-                    });
-            });
-        } catch (IOException e) {
-            System.out.println("Error reading " + fileName + ": " + e.getMessage());
-        } catch (Exception e) {
-            System.out.println("Error parsing " + fileName + ": " + e.getMessage());
+            Main.assignReqList.superAdd(req);
         }
+        Main.projectList.forEach(project_ -> {
+            // Stream through the officers assigned to the project
+            project_.getOfficers().stream()
+                // Filter out officers who already have an accepted assignment request for this project
+                .filter(officer_ -> {
+                    boolean hasAcceptedRequest = Main.assignReqList.stream()
+                        .anyMatch(req ->
+                            req.getOfficer().equals(officer_) &&
+                            req.getProject().equals(project_) &&
+                            req.getApplicationStatus() == AssignReq.APPLICATION_STATUS.accepted
+                        );
+                    return !hasAcceptedRequest;
+                })
+                // For each officer who passes the filter, create a new accepted assignment request
+                .forEach(officer_ -> {
+                    AssignReq req = new AssignReq((Officer) officer_, project_);
+                    req.setApplicationStatus(AssignReq.APPLICATION_STATUS.accepted);
+                    Main.assignReqList.superAdd(req);
+                });
+        });
     }
 }
@@ -0,0 +1,543 @@
+package program.entity.caching;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.zip.CRC32;
+
+import program.boundary.console.DateTimeFormat;
+import program.control.Main;
+import program.control.enquiry.Enquiry;
+import program.control.enquiry.Message;
+import program.control.housingApply.HousingReq;
+import program.control.officerApply.AssignReq;
+import program.control.officerApply.AssignReqList;
+import program.entity.project.Project;
+import program.entity.users.Manager;
+import program.entity.users.Officer;
+import program.entity.users.User;
+import program.entity.users.UserRegistry;
+
+/**
+ * <p>
+ * The {@code Journal} class is an append-only write-ahead log of the domain changes made during a session, kept in
+ * {@code data/journal.log}. Without it nothing reaches disk until {@link RecordSaver#save()} runs at logout, so a
+ * crash would lose every approval, booking and enquiry of the session.
+ * </p>
+ *
+ * <p>
+ * Records are buffered in memory and written in groups: {@link #sync()} writes the pending records and forces them
+ * to disk, and is called by the menu navigator after every menu action, so all changes of one action become durable
+ * together with a single fsync. A very large action is also synced part-way once the buffer grows past
+ * {@value #SYNC_THRESHOLD} characters. Changes to many records at once, such as a ballot, skip the journal and are
+ * saved as a whole through {@link #bulk(Callable)}.
+ * </p>
+ *
+ * <p>
+ * The journalled changes are:
+ * <ul>
+ *   <li>{@code HREQ} — the full state of a housing request, written when it is created or any of its fields change;</li>
+ *   <li>{@code ROOMS} — the remaining 2-room and 3-room units of a project;</li>
+ *   <li>{@code ENQ}, {@code MSG}, {@code EDIT}, {@code DEL} — enquiry creation, replies, edits and deletions;</li>
+ *   <li>{@code ASSIGN} — the state of an officer assignment request; replaying an acceptance also fills the
+ *   officer slot, as the accept menu does;</li>
+ *   <li>{@code PROJ}, {@code PDEL} — the full state of a project, written when it is created or edited, and its
+ *   deletion;</li>
+ *   <li>{@code RENAME} — a project rename, since project names identify projects in every other record.</li>
+ * </ul>
+ * Every record carries the resulting state rather than a delta (messages are skipped if already present), so
+ * replaying a record that is already reflected in the CSV files is harmless.
+ * </p>
+ *
+ * <p>
+ * On startup {@link DataInitializer#initialise()} loads the CSV snapshot and calls {@link #recover()}, which replays
+ * the journal on top of it and, if anything was replayed, compacts it with a checkpoint: the changed CSV files are
+ * rewritten by {@link RecordSaver#save()} and the journal is emptied. The journal is also checkpointed once it holds
+ * {@value #CHECKPOINT_RECORDS} records, and at exit by {@link #close()}, which also refreshes the binary
+ * {@link Snapshot}. Each line is prefixed with a CRC32 of its contents, and replay stops at the first torn or damaged
+ * line.
+ * </p>
+ *
+ * @see RecordSaver
+ * @see DataInitializer
+ */
+public class Journal {
+
+    private static final String FILE_NAME = "data/journal.log";
+    private static final int SYNC_THRESHOLD = 64 * 1024;
+    private static final int CHECKPOINT_RECORDS = 5000;
+
+    private static FileChannel channel = null;
+    private static boolean enabled = false;
+    private static final StringBuilder pending = new StringBuilder();
+    private static int recordsSinceCheckpoint = 0;
+
+    /**
+     * Replays the journal on top of the freshly loaded CSV snapshot, compacts it if anything was replayed, and starts
+     * journalling new changes.
+     *
+     * @throws Exception if the journal cannot be opened or the checkpoint fails
+     */
+    public static void recover() throws Exception {
+        int replayed = replay();
+        if (replayed > 0) {
+            System.out.println("Recovered " + replayed + " journalled changes.");
+            checkpoint();
+        }
+        open();
+    }
+
+    /**
+     * Writes the pending records to the journal and forces them to disk. Does nothing if there are none.
+     */
+    public static void sync() {
+        if (pending.length() == 0 || channel == null) return;
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(pending.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(false);
+            pending.setLength(0);
+        } catch (IOException e) {
+            System.out.println("Error writing " + FILE_NAME + ": " + e.getMessage());
+            return;
+        }
+        if (recordsSinceCheckpoint >= CHECKPOINT_RECORDS) {
+            try {
+                checkpoint();
+            } catch (Exception e) {
+                System.out.println("Error compacting " + FILE_NAME + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Compacts the journal into the CSV snapshot: the changed tables are saved with {@link RecordSaver#save()} and the
+     * journal is emptied. If the program stops between the two steps, the leftover records are replayed harmlessly next time.
+     *
+     * @throws Exception if saving the CSV files or emptying the journal fails
+     */
+    public static void checkpoint() throws Exception {
+        RecordSaver.save();
+        pending.setLength(0);
+        recordsSinceCheckpoint = 0;
+        if (channel != null) {
+            channel.truncate(0);
+            channel.force(true);
+        } else {
+            new File(FILE_NAME).delete();
+        }
+    }
+
+    /**
+     * Makes the last checkpoint before the program exits, then refreshes the binary {@link Snapshot}, which is
+     * rewritten only here as it copies the whole dataset.
+     *
+     * @throws Exception if saving the CSV files or the snapshot fails
+     */
+    public static void close() throws Exception {
+        checkpoint();
+        Snapshot.refresh();
+    }
+
+    /**
+     * Makes a change to many records at once, such as a ballot, without journalling the records one by one. Pending
+     * records are synced first, and once the change has succeeded it is saved with a {@link #checkpoint()}, so it
+     * reaches disk in one atomic save instead of as thousands of records and the checkpoints they would set off.
+     * <p>
+     * If the change throws, nothing is saved. As its records were not journalled, the change must put back what it
+     * had done before throwing, or a later save would write the half-made change.
+     * </p>
+     *
+     * @param change the change to make
+     * @param <T> the type of the change's result
+     * @return the result of the change
+     * @throws Exception if the change fails, or if saving it fails
+     */
+    public static <T> T bulk(Callable<T> change) throws Exception {
+        sync();
+        boolean wasEnabled = enabled;
+        enabled = false;
+        T result;
+        try {
+            result = change.call();
+        } finally {
+            enabled = wasEnabled;
+        }
+        checkpoint();
+        return result;
+    }
+
+    // ---- records ----------------------------------------------------------------------------------------------
+
+    /**
+     * Journals the current state of a housing request in the master list.
+     *
+     * @param req the housing request that was created or changed
+     */
+    public static void housingReq(HousingReq req) {
+        if (!enabled || Main.housingReqList.get(req.getUser(), req.getProject()) != req) return;
+        append("HREQ", req.getUser().getUserId(), req.getProject().getName(), req.getRoomType().toString(),
+                req.getStatus().toString(), req.getWithdrawalStatus().toString(),
+                req.getApprovedBy() == null ? "" : req.getApprovedBy().getUserId(),
+                req.getBookedBy() == null ? "" : req.getBookedBy().getUserId());
+    }
+
+    /**
+     * Journals the remaining units of a project.
+     *
+     * @param project the project whose room counts changed
+     */
+    public static void rooms(Project project) {
+        if (!enabled || Main.projectList.get(project.getName()) != project) return;
+        append("ROOMS", project.getName(), String.valueOf(project.getUnits2Room()), String.valueOf(project.getUnits3Room()));
+    }
+
+    /**
+     * Journals a new enquiry together with the messages it already holds.
+     *
+     * @param enquiry the enquiry added to the master list
+     */
+    public static void enquiryAdded(Enquiry enquiry) {
+        if (!enabled) return;
+        append("ENQ", String.valueOf(enquiry.getId()), enquiry.getUser().getUserId(), enquiry.getProject().getName(),
+                enquiry.getDateCreated().format(DateTimeFormat.getDateTimeFormatter()));
+        for (Message message : enquiry) messageAdded(enquiry, message);
+    }
+
+    /**
+     * Journals a message appended to an enquiry.
+     *
+     * @param enquiry the enquiry replied to
+     * @param message the new message
+     */
+    public static void messageAdded(Enquiry enquiry, Message message) {
+        if (!enabled) return;
+        append("MSG", String.valueOf(enquiry.getId()), message.getUser().getUserId(),
+                message.getTimeStamp().format(DateTimeFormat.getDateTimeFormatter()), message.getText());
+    }
+
+    /**
+     * Journals the new text of an edited message.
+     *
+     * @param enquiry the enquiry holding the message
+     * @param index the position of the message in the enquiry
+     */
+    public static void messageEdited(Enquiry enquiry, int index) {
+        if (!enabled) return;
+        append("EDIT", String.valueOf(enquiry.getId()), String.valueOf(index), enquiry.get(index).getText());
+    }
+
+    /**
+     * Journals the deletion of an enquiry.
+     *
+     * @param enquiry the deleted enquiry
+     */
+    public static void enquiryDeleted(Enquiry enquiry) {
+        if (!enabled) return;
+        append("DEL", String.valueOf(enquiry.getId()));
+    }
+
+    /**
+     * Journals the state of an officer assignment request.
+     *
+     * @param req the assignment request that was created or decided
+     */
+    public static void assignReq(AssignReq req) {
+        if (!enabled) return;
+        append("ASSIGN", req.getOfficer().getUserId(), req.getProject().getName(), req.getApplicationStatus().toString());
+    }
+
+    /**
+     * Journals the full state of a project in the master list, so that a project created or edited in a session that
+     * did not exit cleanly comes back, together with the requests and enquiries that refer to it.
+     *
+     * @param project the project that was created or changed
+     */
+    public static void project(Project project) {
+        if (!enabled || Main.projectList.get(project.getName()) != project) return;
+        List<String> officers = new ArrayList<>();
+        for (User officer : project.getOfficers()) officers.add(officer.getUserId());
+        append("PROJ", project.getName(), project.getNeighbourhood(),
+                String.valueOf(project.getUnits2Room()), String.valueOf(project.getUnits2RoomPrice()),
+                String.valueOf(project.getUnits3Room()), String.valueOf(project.getUnits3RoomPrice()),
+                project.getOpenDate().format(DateTimeFormat.getDateFormatter()),
+                project.getCloseDate().format(DateTimeFormat.getDateFormatter()),
+                project.getManager().getUserId(), String.valueOf(project.getOfficerSlots()),
+                String.valueOf(project.getVisibility()), String.join(",", officers));
+    }
+
+    /**
+     * Journals the deletion of a project from the master list.
+     *
+     * @param project the deleted project
+     */
+    public static void projectDeleted(Project project) {
+        if (!enabled) return;
+        append("PDEL", project.getName());
+    }
+
+    /**
+     * Journals a project rename.
+     *
+     * @param oldName the name the project had
+     * @param newName the name the project has now
+     */
+    public static void projectRenamed(String oldName, String newName) {
+        if (!enabled) return;
+        append("RENAME", oldName, newName);
+    }
+
+    // ---- file handling ----------------------------------------------------------------------------------------
+
+    private static void open() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(new File(FILE_NAME).toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        enabled = true;
+    }
+
+    private static void append(String type, String... fields) {
+        StringBuilder record = new StringBuilder(type);
+        for (String field : fields) record.append('|').append(escape(field));
+        String line = record.toString();
+        pending.append(crcOf(line)).append(' ').append(line).append('\n');
+        recordsSinceCheckpoint++;
+        if (pending.length() >= SYNC_THRESHOLD) sync();
+    }
+
+    private static String crcOf(String line) {
+        CRC32 crc = new CRC32();
+        crc.update(line.getBytes(StandardCharsets.UTF_8));
+        return String.format("%08x", crc.getValue());
+    }
+
+    private static String escape(String field) {
+        StringBuilder sb = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case '|' -> sb.append("\\p");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '|') {
+                fields.add(sb.toString());
+                sb.setLength(0);
+            } else if (c == '\\' && i + 1 < line.length()) {
+                char next = line.charAt(++i);
+                sb.append(switch (next) {
+                    case 'p' -> '|';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> next;
+                });
+            } else {
+                sb.append(c);
+            }
+        }
+        fields.add(sb.toString());
+        return fields;
+    }
+
+    // ---- replay -----------------------------------------------------------------------------------------------
+
+    /**
+     * Applies every intact record of the journal to the loaded data, in order.
+     *
+     * @return the number of records applied
+     */
+    private static int replay() {
+        File file = new File(FILE_NAME);
+        if (!file.exists()) return 0;
+        String contents;
+        try {
+            contents = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.out.println("Error reading " + FILE_NAME + ": " + e.getMessage());
+            return 0;
+        }
+
+        Map<Integer, Enquiry> enquiries = new HashMap<>();
+        for (Enquiry enquiry : Main.enquiryList) enquiries.putIfAbsent(enquiry.getId(), enquiry);
+
+        int applied = 0;
+        int start = 0;
+        while (start < contents.length()) {
+            int end = contents.indexOf('\n', start);
+            if (end < 0) {
+                System.out.println("Ignoring incomplete last record in " + FILE_NAME);
+                break;
+            }
+            String line = contents.substring(start, end);
+            start = end + 1;
+            int space = line.indexOf(' ');
+            if (space != 8 || !crcOf(line.substring(space + 1)).equals(line.substring(0, space))) {
+                System.out.println("Ignoring damaged records in " + FILE_NAME + " from: " + line);
+                break;
+            }
+            try {
+                apply(split(line.substring(space + 1)), enquiries);
+                applied++;
+            } catch (Exception e) {
+                System.out.println("Skipping journal record: " + line + "\n" + e.getMessage());
+            }
+        }
+        return applied;
+    }
+
+    private static void apply(List<String> fields, Map<Integer, Enquiry> enquiries) throws Exception {
+        DateTimeFormatter formatter = DateTimeFormat.getDateTimeFormatter();
+        switch (fields.get(0)) {
+            case "HREQ" -> {
+                User user = user(fields.get(1));
+                Project project = project(fields.get(2));
+                HousingReq req = Main.housingReqList.get(user, project);
+                if (req == null) {
+                    req = new HousingReq(user, project, Project.ROOM_TYPE.valueOf(fields.get(3)));
+                    Main.housingReqList.insert(req);
+                }
+                req.setRoomType(Project.ROOM_TYPE.valueOf(fields.get(3)));
+                req.setApprovedBy(fields.get(6).isEmpty() ? null : (Manager) user(fields.get(6)));
+                req.setBookedBy(fields.get(7).isEmpty() ? null : (Officer) user(fields.get(7)));
+                req.setStatus(HousingReq.REQUEST_STATUS.valueOf(fields.get(4)));
+                req.setWithdrawalStatus(HousingReq.WITHDRAWAL_STATUS.valueOf(fields.get(5)));
+            }
+            case "ROOMS" -> {
+                Project project = project(fields.get(1));
+                project.setUnits2Room(Integer.parseInt(fields.get(2)));
+                project.setUnits3Room(Integer.parseInt(fields.get(3)));
+            }
+            case "ENQ" -> {
+                int id = Integer.parseInt(fields.get(1));
+                if (enquiries.containsKey(id)) return;
+                Enquiry enquiry = new Enquiry(id, user(fields.get(2)), project(fields.get(3)),
+                        LocalDateTime.parse(fields.get(4), formatter));
+                Main.enquiryList.add(enquiry);
+                enquiries.put(id, enquiry);
+                Enquiry.totalTickets = Math.max(Enquiry.totalTickets, id + 1);
+            }
+            case "MSG" -> {
+                Enquiry enquiry = enquiry(enquiries, fields.get(1));
+                User user = user(fields.get(2));
+                LocalDateTime timeStamp = LocalDateTime.parse(fields.get(3), formatter);
+                for (Message message : enquiry) {
+                    if (message.getUser() == user && message.getTimeStamp().format(formatter).equals(fields.get(3))
+                            && message.readText().equals(fields.get(4))) return;
+                }
+                Message message = new Message(user, fields.get(4), timeStamp);
+                enquiry.add(message);
+                RecordSaver.messageAdded(enquiry, message);
+            }
+            case "EDIT" -> {
+                Enquiry enquiry = enquiry(enquiries, fields.get(1));
+                int index = Integer.parseInt(fields.get(2));
+                if (index < enquiry.size()) enquiry.get(index).setText(fields.get(3));
+                RecordSaver.markDirty(RecordSaver.TABLE.ENQUIRIES);
+            }
+            case "DEL" -> {
+                Enquiry enquiry = enquiries.remove(Integer.parseInt(fields.get(1)));
+                if (enquiry == null) return;
+                enquiry.getProject().getEnquiryList().remove(enquiry);
+                enquiry.getUser().getEnquiryList().remove(enquiry);
+                Main.enquiryList.remove(enquiry);
+                RecordSaver.markDirty(RecordSaver.TABLE.ENQUIRIES);
+            }
+            case "ASSIGN" -> {
+                Officer officer = (Officer) user(fields.get(1));
+                Project project = project(fields.get(2));
+                AssignReq req = AssignReqList.get(officer, project);
+                if (req == null) {
+                    req = new AssignReq(officer, project);
+                    Main.assignReqList.add(0, req);
+                    RecordSaver.markDirty(RecordSaver.TABLE.ASSIGN_REQS);
+                }
+                req.setApplicationStatus(AssignReq.APPLICATION_STATUS.valueOf(fields.get(3)));
+                // accepting takes up an officer slot; the officer list tells whether that already happened
+                if (req.getApplicationStatus() == AssignReq.APPLICATION_STATUS.accepted && !project.getOfficers().contains(officer)) {
+                    project.setOfficerSlots(project.getOfficerSlots() - 1);
+                    project.addOfficer(officer);
+                }
+            }
+            case "PROJ" -> {
+                DateTimeFormatter dates = DateTimeFormat.getDateFormatter();
+                Manager manager = (Manager) user(fields.get(9));
+                List<Officer> officers = new ArrayList<>();
+                for (String NRIC : fields.get(12).split(",")) {
+                    if (!NRIC.isEmpty()) officers.add((Officer) user(NRIC));
+                }
+                Project project = Main.projectList.get(fields.get(1));
+                if (project == null) {
+                    project = new Project(fields.get(1), fields.get(2),
+                            Integer.parseInt(fields.get(3)), Integer.parseInt(fields.get(4)),
+                            Integer.parseInt(fields.get(5)), Integer.parseInt(fields.get(6)),
+                            LocalDate.parse(fields.get(7), dates), LocalDate.parse(fields.get(8), dates),
+                            manager, Integer.parseInt(fields.get(10)), officers);
+                    Main.projectList.add(project);
+                } else {
+                    project.setNeighbourhood(fields.get(2));
+                    project.setUnits2Room(Integer.parseInt(fields.get(3)));
+                    project.setUnits2RoomPrice(Integer.parseInt(fields.get(4)));
+                    project.setUnits3Room(Integer.parseInt(fields.get(5)));
+                    project.setUnits3RoomPrice(Integer.parseInt(fields.get(6)));
+                    project.setOpenDate(LocalDate.parse(fields.get(7), dates));
+                    project.setCloseDate(LocalDate.parse(fields.get(8), dates));
+                    if (!project.isManager(manager)) project.setManager(manager);
+                    project.setOfficerSlots(Integer.parseInt(fields.get(10)));
+                    project.setOfficerList(officers);
+                }
+                project.setVisibility(Boolean.parseBoolean(fields.get(11)));
+            }
+            case "PDEL" -> {
+                Project project = Main.projectList.get(fields.get(1));
+                if (project != null) Main.projectList.remove(project);
+            }
+            case "RENAME" -> {
+                Project project = Main.projectList.get(fields.get(1));
+                if (project != null && Main.projectList.get(fields.get(2)) == null) project.setName(fields.get(2));
+            }
+            default -> throw new Exception("Unknown record type " + fields.get(0));
+        }
+    }
+
+    private static User user(String NRIC) throws Exception {
+        User user = UserRegistry.get(NRIC);
+        if (user == null) throw new Exception("Unknown user " + NRIC);
+        return user;
+    }
+
+    private static Project project(String name) throws Exception {
+        Project project = Main.projectList.get(name);
+        if (project == null) throw new Exception("Unknown project " + name);
+        return project;
+    }
+
+    private static Enquiry enquiry(Map<Integer, Enquiry> enquiries, String id) throws Exception {
+        Enquiry enquiry = enquiries.get(Integer.parseInt(id));
+        if (enquiry == null) throw new Exception("Unknown enquiry " + id);
+        return enquiry;
+    }
+}
@@ -0,0 +1,68 @@
+package program.entity.caching;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>
+ * The {@code MappedText} class is a UTF-8 string that still lives in the memory-mapped {@link Snapshot} rather than on
+ * the heap. Message bodies are loaded this way, so an enquiry thread costs no heap for its text until it is printed or
+ * edited; {@link program.control.enquiry.Message#getText()} decodes it on first use.
+ * </p>
+ *
+ * <p>
+ * When the snapshot is rewritten, text that is still mapped is copied over byte for byte without decoding, and the
+ * handle is moved to the same bytes in the new file, so only one snapshot stays mapped.
+ * </p>
+ *
+ * @see Snapshot
+ * @see program.control.enquiry.Message
+ */
+public final class MappedText {
+
+    // replaced as a whole, so that a reader never pairs one file's buffer with another file's offset
+    private record Slice(ByteBuffer buffer, int offset) {}
+
+    private volatile Slice slice;
+    private final int length;
+
+    MappedText(ByteBuffer buffer, int offset, int length) {
+        this.slice = new Slice(buffer, offset);
+        this.length = length;
+    }
+
+    /**
+     * Decodes the text. Nothing is kept, so callers that need the text more than once should keep the result.
+     *
+     * @return the text
+     */
+    public String decode() {
+        return new String(bytes(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the length of the encoded text.
+     *
+     * @return the number of UTF-8 bytes
+     */
+    public int length() {
+        return length;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.write(bytes());
+    }
+
+    void rebase(ByteBuffer buffer, int offset) {
+        slice = new Slice(buffer, offset);
+    }
+
+    private byte[] bytes() {
+        Slice current = slice;
+        byte[] bytes = new byte[length];
+        current.buffer().get(current.offset(), bytes);
+        return bytes;
+    }
+}
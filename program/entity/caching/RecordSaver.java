@@ -1,10 +1,26 @@
 package program.entity.caching;
 
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import program.boundary.console.DateTimeFormat;
 import program.control.Main;
@@ -16,6 +32,7 @@ import program.entity.project.Project;
 import program.entity.users.Applicant;
 import program.entity.users.Manager;
 import program.entity.users.Officer;
+import program.entity.users.User;
 
 /**
  * <p>
@@ -38,6 +55,30 @@ import program.entity.users.Officer;
  * or general {@link Exception}.
  * </p>
  *
+ * <p>
+ * Only tables that changed since they were loaded or last saved are written. The code that changes a table marks it
+ * with {@link #markDirty(TABLE)} or {@link #markDirty(User)}. {@code EnquiryList.csv} is tracked per record
+ * instead: new enquiries and new messages are appended to the end of the file. Messages for an enquiry that is
+ * already in the file go under a repeated copy of its header line, which the loader merges with the original. Edits
+ * and deletions cannot be appended, so they mark the whole table for a rewrite, which also drops the repeated headers.
+ * </p>
+ *
+ * <p>
+ * A save is all-or-nothing. The rewritten tables are never written in place:
+ * <ol>
+ *   <li>new enquiry lines are appended straight onto the live {@code EnquiryList.csv}, after its length before the
+ *   append has been forced to {@value #APPEND_MARK}, so the cost of a save does not grow with the file;</li>
+ *   <li>every other changed table is written in full to {@code <file>.tmp} and forced to disk, all tables
+ *   concurrently;</li>
+ *   <li>the list of those files is written to {@value #MANIFEST} through its own temporary file and renamed into
+ *   place, which commits the save;</li>
+ *   <li>each temporary file is renamed over its live file, and the append mark and the manifest are deleted.</li>
+ * </ol>
+ * If the program stops before the commit, {@link #recover()} deletes the temporary files on the next start and cuts
+ * {@code EnquiryList.csv} back to the length in the append mark, so the live files are as they were. If it stops
+ * after the commit, {@link #recover()} finishes the renames from the manifest.
+ * </p>
+ *
  * @see program.entity.users.Applicant
  * @see program.entity.users.Manager
  * @see program.entity.users.Officer
@@ -48,16 +89,122 @@ import program.entity.users.Officer;
  */
 public class RecordSaver {
 
+    /**
+     * The CSV tables written by {@link #save()}.
+     */
+    public enum TABLE {
+        APPLICANTS("ApplicantList.csv"),
+        OFFICERS("OfficerList.csv"),
+        MANAGERS("ManagerList.csv"),
+        PROJECTS("ProjectList.csv"),
+        ENQUIRIES("EnquiryList.csv"),
+        HOUSING_REQS("HousingReqList.csv"),
+        ASSIGN_REQS("AssignReqList.csv");
+
+        private final String fileName;
+
+        TABLE(String fileName) {
+            this.fileName = fileName;
+        }
+
+        /**
+         * Returns the name of the table's file in the "data/" directory.
+         *
+         * @return the file name
+         */
+        public String getFileName() {
+            return fileName;
+        }
+    }
+
+    /**
+     * Writes one table to an open temporary file.
+     */
+    private interface TableWriter {
+        void write() throws IOException;
+    }
+
+    private static final String ENQUIRY_HEADER = "Enquiry ID|User ID|Project ID|Date Created\n";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String MANIFEST = "data/save.manifest";
+    private static final String APPEND_MARK = "data/save.append"; // the length of EnquiryList.csv before an append
+
+    private static final EnumSet<TABLE> dirty = EnumSet.noneOf(TABLE.class);
+    // enquiries created since the last save, in creation order, and messages added to older enquiries.
+    // Enquiries are lists, so they are keyed by identity rather than by their changing contents.
+    private static final List<Enquiry> newEnquiries = new ArrayList<>();
+    private static final Map<Enquiry, List<Message>> newMessages = new IdentityHashMap<>();
+    private static final List<Enquiry> repliedEnquiries = new ArrayList<>();
+
+    /**
+     * Marks a table as changed so that the next {@link #save()} rewrites it.
+     *
+     * @param table the changed table
+     */
+    public static void markDirty(TABLE table) {
+        dirty.add(table);
+    }
+
+    /**
+     * Marks the table holding a user as changed.
+     *
+     * @param user the user whose details changed
+     */
+    public static void markDirty(User user) {
+        if (user instanceof Manager) dirty.add(TABLE.MANAGERS);
+        else if (user instanceof Officer) dirty.add(TABLE.OFFICERS);
+        else dirty.add(TABLE.APPLICANTS);
+    }
+
+    /**
+     * Records a new enquiry, to be appended to {@code EnquiryList.csv} with all of its messages on the next save.
+     *
+     * @param enquiry the enquiry added to the master list
+     */
+    public static void enquiryAdded(Enquiry enquiry) {
+        newEnquiries.add(enquiry);
+    }
+
+    /**
+     * Records a new message, to be appended to {@code EnquiryList.csv} on the next save.
+     *
+     * @param enquiry the enquiry the message was added to
+     * @param message the new message
+     */
+    public static void messageAdded(Enquiry enquiry, Message message) {
+        for (Enquiry added : newEnquiries) {
+            if (added == enquiry) return; // written in full with the enquiry itself
+        }
+        List<Message> messages = newMessages.get(enquiry);
+        if (messages == null) {
+            messages = new ArrayList<>();
+            newMessages.put(enquiry, messages);
+            repliedEnquiries.add(enquiry);
+        }
+        messages.add(message);
+    }
+
+    /**
+     * Forgets all recorded changes. Used once the CSV files have been loaded, since loading goes through the same
+     * setters that mark tables as changed.
+     */
+    public static void markClean() {
+        dirty.clear();
+        newEnquiries.clear();
+        newMessages.clear();
+        repliedEnquiries.clear();
+    }
+
     /**
      * <p>
-     * Saves all the necessary data to CSV files. This includes saving the
+     * Saves the changed data to CSV files. This covers the
      * lists of Applicants, Officers, Managers, Projects, Enquiries, Housing
-     * Requests, and Officer Assignment Requests to separate CSV files in the
-     * "data/" directory.
+     * Requests, and Officer Assignment Requests, each in a separate CSV file in the
+     * "data/" directory. Tables that have not changed are left untouched.
      * </p>
      *
      * <p>
-     * The following files are created:
+     * The following files may be written:
      * </p>
      * <ul>
      *     <li>ApplicantList.csv</li>
@@ -69,33 +216,192 @@ public class RecordSaver {
      *     <li>AssignReqList.csv</li>
      * </ul>
      *
+     * <p>
+     * The binary {@link Snapshot} is not rewritten here, since it copies the whole dataset whatever changed; it is
+     * refreshed once at exit by {@link Journal#close()}. Until then it no longer matches the CSV files and a restart
+     * loads the CSV files instead.
+     * </p>
+     *
      * @throws Exception if any I/O error occurs while writing to the CSV files
      */
     public static void save() throws Exception {
-        writeUserCSV("ApplicantList.csv", Main.applicantList);
-        writeUserCSV("OfficerList.csv", Main.officerList);
-        writeUserCSV("ManagerList.csv", Main.managerList);
-        writeProjectsCSV("ProjectList.csv");
-        writeEnquiryCSV();
-        writeHousingReqCSV("HousingReqList.csv");
-        writeAssignReqCSV("AssignReqList.csv");
+        Map<TABLE, TableWriter> writes = new EnumMap<>(TABLE.class);
+        if (dirty.contains(TABLE.APPLICANTS)) writes.put(TABLE.APPLICANTS, () -> writeUserCSV("ApplicantList.csv", Main.applicantList));
+        if (dirty.contains(TABLE.OFFICERS)) writes.put(TABLE.OFFICERS, () -> writeUserCSV("OfficerList.csv", Main.officerList));
+        if (dirty.contains(TABLE.MANAGERS)) writes.put(TABLE.MANAGERS, () -> writeUserCSV("ManagerList.csv", Main.managerList));
+        if (dirty.contains(TABLE.PROJECTS)) writes.put(TABLE.PROJECTS, () -> writeProjectsCSV("ProjectList.csv"));
+        if (dirty.contains(TABLE.ENQUIRIES)) writes.put(TABLE.ENQUIRIES, RecordSaver::writeEnquiryCSV);
+        boolean append = !dirty.contains(TABLE.ENQUIRIES) && (!newEnquiries.isEmpty() || !repliedEnquiries.isEmpty());
+        if (dirty.contains(TABLE.HOUSING_REQS)) writes.put(TABLE.HOUSING_REQS, () -> writeHousingReqCSV("HousingReqList.csv"));
+        if (dirty.contains(TABLE.ASSIGN_REQS)) writes.put(TABLE.ASSIGN_REQS, () -> writeAssignReqCSV("AssignReqList.csv"));
+
+        if (!writes.isEmpty() || append) {
+            List<TABLE> tables = new ArrayList<>(writes.keySet());
+            try {
+                if (append) {
+                    appendEnquiryCSV();
+                    tables.add(TABLE.ENQUIRIES);
+                }
+                if (!writes.isEmpty()) flush(writes);
+                commit(tables);
+            } catch (Exception e) {
+                rollBackAppend(); // the unsaved lines are still pending and will be appended again
+                throw e;
+            }
+        }
+        markClean();
 
         System.out.println("All data successfully saved to CSV files.");
     }
 
+    /**
+     * Writes the given tables to their temporary files concurrently and forces them to disk. If any table fails, all
+     * temporary files are deleted and the live files are left as they were.
+     *
+     * @param writes the writer of each changed table
+     * @throws Exception the first error raised by a writer
+     */
+    private static void flush(Map<TABLE, TableWriter> writes) throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Map.Entry<TABLE, TableWriter> write : writes.entrySet()) {
+            tasks.add(() -> {
+                write.getValue().write();
+                force(temp(write.getKey().getFileName()).toPath(), StandardOpenOption.WRITE);
+                return null;
+            });
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+        try {
+            for (Future<Void> task : pool.invokeAll(tasks)) task.get();
+        } catch (ExecutionException e) {
+            for (TABLE table : writes.keySet()) temp(table.getFileName()).delete();
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Commits a save by writing the manifest of the flushed tables, then moves each temporary file over its live
+     * file and deletes the manifest.
+     *
+     * @param tables the tables whose temporary files are ready
+     * @throws IOException if the manifest cannot be written or a file cannot be moved
+     */
+    private static void commit(List<TABLE> tables) throws IOException {
+        File manifestTemp = new File(MANIFEST + TEMP_SUFFIX);
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(manifestTemp))) {
+            for (TABLE table : tables) {
+                bw.write(table.name());
+                bw.newLine();
+            }
+        }
+        force(manifestTemp.toPath(), StandardOpenOption.WRITE);
+        Files.move(manifestTemp.toPath(), Path.of(MANIFEST), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory();
+
+        install(tables);
+    }
+
+    /**
+     * Completes or rolls back a save that was interrupted. Called on startup before any file is read.
+     * <p>
+     * If the manifest exists, the save had been committed, and the temporary files it lists are moved into place.
+     * Any other temporary file belongs to a save that never committed and is deleted, and lines appended to
+     * {@code EnquiryList.csv} by such a save are cut off.
+     * </p>
+     *
+     * @throws IOException if a committed file cannot be moved into place
+     */
+    public static void recover() throws IOException {
+        File manifest = new File(MANIFEST);
+        if (manifest.isFile()) {
+            List<TABLE> tables = new ArrayList<>();
+            for (String line : Files.readAllLines(manifest.toPath())) {
+                if (!line.isBlank()) tables.add(TABLE.valueOf(line.trim()));
+            }
+            install(tables);
+            System.out.println("Completed an interrupted save of " + tables.size() + " CSV files.");
+        }
+        rollBackAppend();
+        new File(MANIFEST + TEMP_SUFFIX).delete();
+        for (TABLE table : TABLE.values()) temp(table.getFileName()).delete();
+    }
+
+    /**
+     * Moves the temporary file of each table over its live file, then deletes the append mark and the manifest. Safe
+     * to repeat: a table whose temporary file is already gone was moved before, or was appended to in place.
+     */
+    private static void install(List<TABLE> tables) throws IOException {
+        for (TABLE table : tables) {
+            File temp = temp(table.getFileName());
+            if (temp.isFile()) {
+                Files.move(temp.toPath(), Path.of("data", table.getFileName()), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        Files.deleteIfExists(Path.of(APPEND_MARK)); // the append is committed
+        forceDirectory();
+        Files.deleteIfExists(Path.of(MANIFEST));
+    }
+
+    /**
+     * Cuts {@code EnquiryList.csv} back to the length recorded in the append mark, unless the save that appended to it
+     * committed. Does nothing if there is no append mark.
+     */
+    private static void rollBackAppend() throws IOException {
+        Path mark = Path.of(APPEND_MARK);
+        if (!Files.isRegularFile(mark) || new File(MANIFEST).isFile()) return;
+        Path file = Path.of("data", TABLE.ENQUIRIES.getFileName());
+        try {
+            long length = Long.parseLong(Files.readString(mark).trim());
+            if (Files.isRegularFile(file)) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(length);
+                    channel.force(true);
+                }
+            }
+        } catch (NumberFormatException e) {
+            // the mark was torn while it was written, before anything was appended
+        }
+        Files.delete(mark);
+        forceDirectory();
+    }
+
+    private static File temp(String fileName) {
+        return new File("data/" + fileName + TEMP_SUFFIX);
+    }
+
+    private static void force(Path path, StandardOpenOption mode) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, mode)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Forces the renames in the data directory to disk. Not every platform can open a directory, in which case the
+     * renames are left to the file system.
+     */
+    private static void forceDirectory() {
+        try {
+            force(Path.of("data"), StandardOpenOption.READ);
+        } catch (IOException e) {
+            // directories cannot be synced on this platform
+        }
+    }
+
     /**
      * <p>
-     * Writes the provided list of users (Applicants, Officers, or Managers) to a CSV file.
+     * Writes the provided list of users (Applicants, Officers, or Managers) to the temporary file of a CSV file.
      * The CSV file includes the user's name, NRIC (National Registration Identity Card),
      * age, marital status, password hash, and salt.
      * </p>
      *
-     * @param fileName the name of the CSV file to write to
+     * @param fileName the name of the CSV file, whose temporary file is written
      * @param list the list of users to write to the file
      * @throws IOException if an I/O error occurs while writing the file
      */
     public static void writeUserCSV(String fileName, List<?> list) throws IOException {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter("data/" + fileName))) {
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(temp(fileName)))) {
             if (list.isEmpty()) return;
 
             Object firstItem = list.get(0);
@@ -126,16 +432,16 @@ public class RecordSaver {
 
     /**
      * <p>
-     * Writes the list of projects to a CSV file, including details such as project
+     * Writes the list of projects to the temporary file of a CSV file, including details such as project
      * name, neighborhood, room types, unit numbers, selling prices, application
      * dates, and manager and officer information.
      * </p>
      *
-     * @param fileName the name of the CSV file to write to
+     * @param fileName the name of the CSV file, whose temporary file is written
      * @throws IOException if an I/O error occurs while writing the file
      */
     public static void writeProjectsCSV(String fileName) throws IOException {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter("data/" + fileName))) {
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(temp(fileName)))) {
             // Write the CSV header
             bw.write("Project Name,Neighborhood,Type 1,Number of units for Type 1,Selling price for Type 1,Type 2,Number of units for Type 2,Selling price for Type 2,Application opening date,Application closing date,Manager,Officer Slot,Officer,Visibility\n");
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("d/M/yyyy");
@@ -176,7 +482,7 @@ public class RecordSaver {
 
     /**
      * <p>
-     * Writes the list of enquiries and their corresponding messages to a CSV file.
+     * Writes the list of enquiries and their corresponding messages to the temporary file of {@code EnquiryList.csv}.
      * Each enquiry is written along with its ID, user ID, project ID, and creation
      * date. Messages within each enquiry are also written, with details such as the
      * user ID, timestamp, and message text.
@@ -185,25 +491,13 @@ public class RecordSaver {
      * @throws IOException if an I/O error occurs while writing the file
      */
     public static void writeEnquiryCSV() throws IOException {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter("data/EnquiryList.csv"))) {
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(temp("EnquiryList.csv")))) {
             DateTimeFormatter formatter = DateTimeFormat.getDateTimeFormatter();
-            bw.write("Enquiry ID|User ID|Project ID|Date Created\n");
+            bw.write(ENQUIRY_HEADER);
             for (Enquiry e : Main.enquiryList) {
-                bw.write(String.join("|", new String[] {
-                        String.valueOf(e.getId()),
-                        e.getUser().getUserId(),
-                        e.getProject().getName(),
-                        e.getDateCreated().format(formatter).toString()
-                }));
-                bw.newLine();
+                writeEnquiryLine(bw, e, formatter);
                 for (Message m : e) {
-                    bw.write(String.join("|", new String[] {
-                            "MESSAGE",
-                            m.getUser().getUserId(),
-                            m.getTimeStamp().format(formatter).toString(),
-                            m.getText()
-                    }));
-                    bw.newLine();
+                    writeMessageLine(bw, m, formatter);
                 }
             }
         }
@@ -211,16 +505,73 @@ public class RecordSaver {
 
     /**
      * <p>
-     * Writes the list of housing requests to a CSV file. Each request includes details
+     * Appends the enquiries and messages added since the last save to the end of {@code EnquiryList.csv}, in place.
+     * The length of the file is first forced to the append mark, so that an uncommitted append can be cut off. A new
+     * enquiry is written with all of its messages; new messages of an older enquiry are written under a repeated copy
+     * of its header line.
+     * </p>
+     *
+     * @throws IOException if an I/O error occurs while writing the file
+     */
+    public static void appendEnquiryCSV() throws IOException {
+        File file = new File("data/EnquiryList.csv");
+        long length = file.exists() ? file.length() : 0;
+        Path mark = Path.of(APPEND_MARK);
+        Files.writeString(mark, length + "\n");
+        force(mark, StandardOpenOption.WRITE);
+        forceDirectory();
+
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(file, true))) {
+            DateTimeFormatter formatter = DateTimeFormat.getDateTimeFormatter();
+            if (length == 0) bw.write(ENQUIRY_HEADER);
+            for (Enquiry e : newEnquiries) {
+                writeEnquiryLine(bw, e, formatter);
+                for (Message m : e) {
+                    writeMessageLine(bw, m, formatter);
+                }
+            }
+            for (Enquiry e : repliedEnquiries) {
+                writeEnquiryLine(bw, e, formatter);
+                for (Message m : newMessages.get(e)) {
+                    writeMessageLine(bw, m, formatter);
+                }
+            }
+        }
+        force(file.toPath(), StandardOpenOption.WRITE);
+    }
+
+    private static void writeEnquiryLine(BufferedWriter bw, Enquiry e, DateTimeFormatter formatter) throws IOException {
+        bw.write(String.join("|", new String[] {
+                String.valueOf(e.getId()),
+                e.getUser().getUserId(),
+                e.getProject().getName(),
+                e.getDateCreated().format(formatter).toString()
+        }));
+        bw.newLine();
+    }
+
+    private static void writeMessageLine(BufferedWriter bw, Message m, DateTimeFormatter formatter) throws IOException {
+        bw.write(String.join("|", new String[] {
+                "MESSAGE",
+                m.getUser().getUserId(),
+                m.getTimeStamp().format(formatter).toString(),
+                m.readText()
+        }));
+        bw.newLine();
+    }
+
+    /**
+     * <p>
+     * Writes the list of housing requests to the temporary file of a CSV file. Each request includes details
      * such as user ID, project name, room type, request status, withdrawal status,
      * and the officer who approved the request.
      * </p>
      *
-     * @param fileName the name of the CSV file to write to
+     * @param fileName the name of the CSV file, whose temporary file is written
      * @throws IOException if an I/O error occurs while writing the file
      */
     public static void writeHousingReqCSV(String fileName) throws IOException {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter("data/" + fileName))) {
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(temp(fileName)))) {
             bw.write("User ID,Project Name,Room Type,Request Status,Withdrawal Status,Approved By\n");
             for (HousingReq req : Main.housingReqList) {
                 bw.write(String.join(",", new String[] {
@@ -238,15 +589,15 @@ public class RecordSaver {
 
     /**
      * <p>
-     * Writes the list of officer assignment requests to a CSV file. Each request
+     * Writes the list of officer assignment requests to the temporary file of a CSV file. Each request
      * includes the officer ID, project name, and application status.
      * </p>
      *
-     * @param fileName the name of the CSV file to write to
+     * @param fileName the name of the CSV file, whose temporary file is written
      * @throws IOException if an I/O error occurs while writing the file
      */
     public static void writeAssignReqCSV(String fileName) throws IOException {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter("data/" + fileName))) {
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(temp(fileName)))) {
             bw.write("Officer ID,Project Name,Application Status\n");
             for (AssignReq req : Main.assignReqList) {
                 bw.write(String.join(",", new String[] {
@@ -0,0 +1,749 @@
+package program.entity.caching;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import program.control.Main;
+import program.control.enquiry.Enquiry;
+import program.control.enquiry.Message;
+import program.control.housingApply.HousingReq;
+import program.control.officerApply.AssignReq;
+import program.control.security.Password;
+import program.entity.project.Project;
+import program.entity.users.Applicant;
+import program.entity.users.Manager;
+import program.entity.users.Officer;
+import program.entity.users.User;
+
+/**
+ * <p>
+ * The {@code Snapshot} class keeps a binary copy of the whole dataset in {@code data/snapshot-<generation>.bin},
+ * refreshed next to the CSV files when the program exits. On startup {@link DataInitializer#initialise()} loads it
+ * instead of the CSV files when it is current, which skips tokenizing the text and looking up every NRIC and
+ * project name. The CSV files remain the interchange format: they are always written first, and the snapshot is
+ * only trusted while they are exactly as they were when it was written.
+ * </p>
+ *
+ * <p>
+ * The layout is big-endian and length-prefixed throughout:
+ * <ul>
+ *   <li>a header holding {@value #MAGIC_TEXT}, the format {@link #VERSION}, and the length and modification time of
+ *   each CSV file as it was when the snapshot was written;</li>
+ *   <li>a string table holding every distinct string once, as UTF-8 with a length prefix; every string below is
+ *   an index into it, or {@code -1} for {@code null};</li>
+ *   <li>the applicants, officers and managers, numbered together in that order; every user below is a number;</li>
+ *   <li>the projects, numbered in order; every project below is a number;</li>
+ *   <li>the enquiries with their messages, the housing requests and the assignment requests, in list order. Message
+ *   bodies are not interned but stored in place, length-prefixed, so that they can be read straight from the
+ *   file;</li>
+ *   <li>a CRC32 of everything before it.</li>
+ * </ul>
+ * Dates are stored as epoch days and timestamps as epoch minutes, the precision of the CSV files, so that a
+ * snapshot load and a CSV load of the same save produce the same state. Enum values are stored by name.
+ * </p>
+ *
+ * <p>
+ * A snapshot is ignored, and the CSV files are loaded instead, if it is missing, of another version, damaged, or
+ * if any CSV file changed after it was written. It is checked and decoded in full before any object is created,
+ * so a rejected snapshot leaves nothing behind. The next save writes a fresh one.
+ * </p>
+ *
+ * <p>
+ * The file is memory-mapped when loaded, and message bodies are left in the mapping as {@link MappedText} until a
+ * message is printed or edited. Rewriting the snapshot copies those bodies over without decoding them and moves
+ * their handles to the new file.
+ * </p>
+ *
+ * <p>
+ * A mapped file cannot be replaced or deleted on every platform while the mapping is alive, and a mapping only goes
+ * away once the garbage collector has freed it. So each write goes to a new file with the next generation number,
+ * and the highest generation is the snapshot. Older generations are deleted after a write and before a load; one
+ * that is still mapped is left behind and deleted on a later attempt.
+ * </p>
+ *
+ * @see RecordSaver
+ * @see DataInitializer
+ */
+public class Snapshot {
+
+    /**
+     * Whether the snapshot is written and read at all. Turning it off leaves only the CSV files.
+     */
+    public static boolean enabled = true;
+
+    private static final File FOLDER = new File("data");
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+    private static final String TEMP_NAME = "data/snapshot.tmp";
+    private static final String BODY_TEMP_NAME = "data/snapshot.body.tmp";
+    private static final String MAGIC_TEXT = "BTOS";
+    private static final int MAGIC = 0x42544F53;
+    private static final int VERSION = 2;
+    private static final int NONE = -1;
+
+    // the files the snapshot stands in for, in the order their fingerprints are stored
+    private static final RecordSaver.TABLE[] CSV_FILES = RecordSaver.TABLE.values();
+
+    /**
+     * Checks whether the snapshot on disk was written after the current CSV files.
+     *
+     * @return {@code true} if the snapshot exists and every CSV file still has the length and modification time
+     * recorded in it
+     */
+    public static boolean isCurrent() {
+        File file = latest();
+        if (file == null) return false;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == MAGIC && in.readInt() == VERSION && fingerprintsMatch(in);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // ---- writing ----------------------------------------------------------------------------------------------
+
+    /**
+     * Rewrites the snapshot if it no longer matches the CSV files. As it copies the whole dataset, it is only called
+     * when the program exits, through {@link Journal#close()}, and not on every save.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void refresh() throws IOException {
+        if (enabled && !isCurrent()) write();
+    }
+
+    /**
+     * Writes the whole dataset to the snapshot. The file is written under a temporary name and moved into place,
+     * so a crash part-way leaves the previous snapshot, which no longer matches the CSV files and is ignored.
+     * <p>
+     * The string table comes before the body but is only complete once the body has been encoded, so the body is
+     * streamed to a second temporary file first and then copied after the table; neither is held in memory.
+     * </p>
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void write() throws IOException {
+        if (!enabled) return;
+
+        Writer writer = new Writer();
+        File bodyFile = new File(BODY_TEMP_NAME);
+        try {
+            try (DataOutputStream body = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(bodyFile), 64 * 1024))) {
+                writer.writeBody(body);
+            }
+            write(writer, bodyFile);
+        } finally {
+            bodyFile.delete();
+        }
+    }
+
+    private static void write(Writer writer, File bodyFile) throws IOException {
+        File temp = new File(TEMP_NAME);
+        CRC32 crc = new CRC32();
+        int bodyStart;
+        try (FileOutputStream file = new FileOutputStream(temp)) {
+            CheckedOutputStream checked = new CheckedOutputStream(file, crc);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checked, 64 * 1024));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(CSV_FILES.length);
+            for (RecordSaver.TABLE table : CSV_FILES) {
+                File csv = new File("data/" + table.getFileName());
+                out.writeLong(csv.isFile() ? csv.length() : NONE);
+                out.writeLong(csv.isFile() ? csv.lastModified() : 0);
+            }
+            out.writeInt(writer.strings.size());
+            for (String string : writer.strings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            bodyStart = out.size();
+            Files.copy(bodyFile.toPath(), out);
+            out.flush();
+            out.writeInt((int) crc.getValue());
+            out.flush();
+            file.getFD().sync();
+        }
+        File previous = latest();
+        File next = new File(FOLDER, PREFIX + (previous == null ? 1 : generation(previous) + 1) + SUFFIX);
+        Files.move(temp.toPath(), next.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+        // point the texts that are still mapped at their copies, so that the old file can be unmapped
+        if (!writer.copiedTexts.isEmpty()) {
+            ByteBuffer buffer = map(next);
+            for (int i = 0; i < writer.copiedTexts.size(); i++) {
+                writer.copiedTexts.get(i).rebase(buffer, bodyStart + writer.copiedOffsets.get(i));
+            }
+        }
+        deleteOlderThan(next);
+    }
+
+    // the snapshot file with the highest generation, or null if there is none
+    private static File latest() {
+        File latest = null;
+        for (File file : generations()) {
+            if (latest == null || generation(file) > generation(latest)) latest = file;
+        }
+        return latest;
+    }
+
+    // deletes every generation before the given one; a file that is still mapped may refuse, and is tried again later
+    private static void deleteOlderThan(File current) {
+        for (File file : generations()) {
+            if (generation(file) < generation(current)) file.delete();
+        }
+    }
+
+    private static File[] generations() {
+        File[] files = FOLDER.listFiles((folder, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX) && generation(name) > 0);
+        return files == null ? new File[0] : files;
+    }
+
+    private static long generation(File file) {
+        return generation(file.getName());
+    }
+
+    private static long generation(String name) {
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Encodes the lists in {@link Main}, numbering strings, users and projects as they are met.
+     */
+    private static final class Writer {
+        final List<String> strings = new ArrayList<>();
+        final Map<String, Integer> stringIds = new HashMap<>();
+        final Map<User, Integer> userIds = new IdentityHashMap<>();
+        final Map<Project, Integer> projectIds = new IdentityHashMap<>();
+        // mapped message bodies copied into the new file, and where they start in its body
+        final List<MappedText> copiedTexts = new ArrayList<>();
+        final List<Integer> copiedOffsets = new ArrayList<>();
+
+        void writeBody(DataOutputStream out) throws IOException {
+            writeUsers(out, Main.applicantList);
+            writeUsers(out, Main.officerList);
+            writeUsers(out, Main.managerList);
+
+            out.writeInt(Main.projectList.size());
+            for (Project p : Main.projectList) {
+                projectIds.put(p, projectIds.size());
+                out.writeInt(string(p.getName()));
+                out.writeInt(string(p.getNeighbourhood()));
+                out.writeInt(p.getUnits2Room());
+                out.writeInt(p.getUnits2RoomPrice());
+                out.writeInt(p.getUnits3Room());
+                out.writeInt(p.getUnits3RoomPrice());
+                out.writeInt((int) p.getOpenDate().toEpochDay());
+                out.writeInt((int) p.getCloseDate().toEpochDay());
+                out.writeInt(user(p.getManager()));
+                out.writeInt(p.getOfficerSlots());
+                out.writeBoolean(p.getVisibility());
+                out.writeInt(p.getOfficers().size());
+                for (User officer : p.getOfficers()) {
+                    out.writeInt(user(officer));
+                }
+            }
+
+            out.writeInt(Enquiry.totalTickets);
+            out.writeInt(Main.enquiryList.size());
+            for (Enquiry e : Main.enquiryList) {
+                out.writeInt(e.getId());
+                out.writeInt(user(e.getUser()));
+                out.writeInt(project(e.getProject()));
+                out.writeLong(minutes(e.getDateCreated()));
+                out.writeInt(e.size());
+                for (Message m : e) {
+                    out.writeInt(user(m.getUser()));
+                    out.writeLong(minutes(m.getTimeStamp()));
+                    MappedText mapped = m.getMappedText();
+                    if (mapped != null) {
+                        out.writeInt(mapped.length());
+                        copiedTexts.add(mapped);
+                        copiedOffsets.add(out.size());
+                        mapped.writeTo(out);
+                    } else {
+                        byte[] bytes = m.getText().getBytes(StandardCharsets.UTF_8);
+                        out.writeInt(bytes.length);
+                        out.write(bytes);
+                    }
+                }
+            }
+
+            out.writeInt(Main.housingReqList.size());
+            for (HousingReq req : Main.housingReqList) {
+                out.writeInt(user(req.getUser()));
+                out.writeInt(project(req.getProject()));
+                out.writeInt(string(req.getRoomType().name()));
+                out.writeInt(string(req.getStatus().name()));
+                out.writeInt(string(req.getWithdrawalStatus().name()));
+                out.writeInt(req.getApprovedBy() == null ? NONE : user(req.getApprovedBy()));
+            }
+
+            out.writeInt(Main.assignReqList.size());
+            for (AssignReq req : Main.assignReqList) {
+                out.writeInt(user(req.getOfficer()));
+                out.writeInt(project(req.getProject()));
+                out.writeInt(string(req.getApplicationStatus().name()));
+            }
+        }
+
+        void writeUsers(DataOutputStream out, List<User> users) throws IOException {
+            out.writeInt(users.size());
+            for (User u : users) {
+                userIds.put(u, userIds.size());
+                out.writeInt(string(u.getName()));
+                out.writeInt(string(u.getUserId()));
+                out.writeInt(u.getAge());
+                out.writeInt(string(u.getMaritalStatus().toString()));
+                out.writeInt(string(u.getPassword().getHash()));
+                out.writeInt(string(u.getPassword().getSalt()));
+            }
+        }
+
+        int string(String s) {
+            if (s == null) return NONE;
+            Integer id = stringIds.get(s);
+            if (id == null) {
+                id = strings.size();
+                strings.add(s);
+                stringIds.put(s, id);
+            }
+            return id;
+        }
+
+        int user(User u) throws IOException {
+            Integer id = userIds.get(u);
+            if (id == null) throw new IOException("User " + u + " is not in any user list");
+            return id;
+        }
+
+        int project(Project p) throws IOException {
+            Integer id = projectIds.get(p);
+            if (id == null) throw new IOException("Project " + p + " is not in the project list");
+            return id;
+        }
+    }
+
+    private static long minutes(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    // ---- reading ----------------------------------------------------------------------------------------------
+
+    /**
+     * Loads the dataset from the snapshot into the lists in {@link Main}, if the snapshot is current and intact.
+     *
+     * @return {@code true} if the dataset was loaded; {@code false} if the CSV files must be loaded instead
+     * @throws Exception if a decoded record cannot be turned into an object
+     */
+    public static boolean load() throws Exception {
+        File file = latest();
+        if (!enabled || file == null) return false;
+        deleteOlderThan(file); // nothing is mapped yet, so leftovers of earlier runs can go
+
+        long start = System.nanoTime();
+        Decoded decoded;
+        try {
+            ByteBuffer buffer = map(file);
+            String rejection = check(buffer);
+            if (rejection != null) {
+                System.out.println("Ignoring " + file.getPath() + ": " + rejection + ". Loading CSV files instead.");
+                return false;
+            }
+            decoded = decode(buffer);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Ignoring " + file.getPath() + ": " + e.getMessage() + ". Loading CSV files instead.");
+            return false;
+        }
+        long decodedAt = System.nanoTime();
+        decoded.build();
+        System.out.println("Loaded " + file.getPath() + ": " + decoded.users.length / 6 + " users, " + decoded.projects.length
+                + " projects, " + decoded.enquiryCount + " enquiries, " + decoded.housingReqCount + " housing requests, "
+                + decoded.assignReqCount + " assignment requests, decoded in " + DataInitializer.millis(decodedAt - start)
+                + " ms, linked in " + DataInitializer.millis(System.nanoTime() - decodedAt) + " ms");
+        return true;
+    }
+
+    private static ByteBuffer map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Checks the header and the trailing checksum.
+     *
+     * @return why the snapshot cannot be used, or {@code null} if it can
+     */
+    private static String check(ByteBuffer buffer) {
+        if (buffer.remaining() < 16 || buffer.getInt(0) != MAGIC) return "not a snapshot";
+        if (buffer.getInt(4) != VERSION) return "written by format version " + buffer.getInt(4);
+
+        int end = buffer.limit() - 4;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(end));
+        if ((int) crc.getValue() != buffer.getInt(end)) return "checksum mismatch";
+
+        buffer.position(8);
+        int files = buffer.getInt();
+        if (files != CSV_FILES.length) return "stale";
+        for (RecordSaver.TABLE table : CSV_FILES) {
+            File csv = new File("data/" + table.getFileName());
+            long length = buffer.getLong();
+            long modified = buffer.getLong();
+            if (length != (csv.isFile() ? csv.length() : NONE) || modified != (csv.isFile() ? csv.lastModified() : 0)) {
+                return table.getFileName() + " changed after it was written";
+            }
+        }
+        buffer.limit(end);
+        return null;
+    }
+
+    private static boolean fingerprintsMatch(DataInputStream in) throws IOException {
+        if (in.readInt() != CSV_FILES.length) return false;
+        for (RecordSaver.TABLE table : CSV_FILES) {
+            File csv = new File("data/" + table.getFileName());
+            long length = in.readLong();
+            long modified = in.readLong();
+            if (length != (csv.isFile() ? csv.length() : NONE) || modified != (csv.isFile() ? csv.lastModified() : 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The contents of a snapshot, decoded into strings and numbers but not yet into objects. Every reference is
+     * range-checked while decoding, so that building the objects cannot fail part-way on a bad reference.
+     */
+    private static final class Decoded {
+        String[] strings;
+        int applicantCount, officerCount, managerCount;
+        int[] users; // per user: name, NRIC, age, marital status, hash, salt
+        int[] projects; // per project: the offset of its record in projectData
+        int[] projectData;
+        int totalTickets;
+        int enquiryCount;
+        ByteBuffer buffer; // the mapped file, which message bodies are read from
+        int[] enquiries; // per enquiry: id, user, project, message count, then per message: user, text offset, text length
+        long[] times; // per enquiry: date created, then per message: timestamp
+        int housingReqCount;
+        int[] housingReqs; // per request: user, project, room type, status, withdrawal status, approved by
+        int assignReqCount;
+        int[] assignReqs; // per request: officer, project, status
+
+        void build() throws Exception {
+            User[] userObjects = new User[users.length / 6];
+            for (int i = 0; i < userObjects.length; i++) {
+                int at = i * 6;
+                String name = strings[users[at]];
+                String nric = strings[users[at + 1]];
+                int age = users[at + 2];
+                String maritalStatus = strings[users[at + 3]];
+                Password password = users[at + 5] == NONE
+                        ? Password.legacy(strings[users[at + 4]])
+                        : new Password(strings[users[at + 4]], string(users[at + 5]));
+                if (i < applicantCount) {
+                    userObjects[i] = new Applicant(nric, name, age, maritalStatus, password);
+                    Main.applicantList.add(userObjects[i]);
+                } else if (i < applicantCount + officerCount) {
+                    userObjects[i] = new Officer(nric, name, age, maritalStatus, password);
+                    Main.officerList.add(userObjects[i]);
+                } else {
+                    userObjects[i] = new Manager(nric, name, age, maritalStatus, password);
+                    Main.managerList.add(userObjects[i]);
+                }
+            }
+
+            Project[] projectObjects = new Project[projects.length];
+            for (int i = 0; i < projects.length; i++) {
+                int at = projects[i];
+                List<Officer> officers = new ArrayList<>(projectData[at + 11]);
+                for (int k = 0; k < projectData[at + 11]; k++) {
+                    officers.add((Officer) userObjects[projectData[at + 12 + k]]);
+                }
+                Project project = new Project(
+                        strings[projectData[at]],
+                        strings[projectData[at + 1]],
+                        projectData[at + 2],
+                        projectData[at + 3],
+                        projectData[at + 4],
+                        projectData[at + 5],
+                        LocalDate.ofEpochDay(projectData[at + 6]),
+                        LocalDate.ofEpochDay(projectData[at + 7]),
+                        (Manager) userObjects[projectData[at + 8]],
+                        projectData[at + 9],
+                        officers);
+                Main.projectList.add(project);
+                project.setVisibility(projectData[at + 10] != 0);
+                projectObjects[i] = project;
+            }
+
+            // enquiries and housing requests are inserted at the front of their lists, so go through them backwards
+            // to restore the saved order
+            int[] enquiryAt = new int[enquiryCount];
+            int[] timeAt = new int[enquiryCount];
+            for (int i = 0, at = 0, t = 0; i < enquiryCount; i++) {
+                enquiryAt[i] = at;
+                timeAt[i] = t;
+                at += 4 + enquiries[at + 3] * 3;
+                t += 1 + enquiries[enquiryAt[i] + 3];
+            }
+            int maxId = 0;
+            for (int i = enquiryCount - 1; i >= 0; i--) {
+                int at = enquiryAt[i];
+                int t = timeAt[i];
+                Enquiry enquiry = new Enquiry(
+                        enquiries[at],
+                        userObjects[enquiries[at + 1]],
+                        projectObjects[enquiries[at + 2]],
+                        time(times[t]));
+                for (int k = 0; k < enquiries[at + 3]; k++) {
+                    int m = at + 4 + k * 3;
+                    enquiry.add(new Message(
+                            userObjects[enquiries[m]],
+                            new MappedText(buffer, enquiries[m + 1], enquiries[m + 2]),
+                            time(times[t + 1 + k])));
+                }
+                Main.enquiryList.add(enquiry);
+                maxId = Math.max(maxId, enquiry.getId());
+            }
+            Enquiry.totalTickets = Math.max(totalTickets, maxId + 1);
+
+            for (int i = housingReqCount - 1; i >= 0; i--) {
+                int at = i * 6;
+                HousingReq req = new HousingReq(
+                        userObjects[housingReqs[at]],
+                        projectObjects[housingReqs[at + 1]],
+                        Project.ROOM_TYPE.valueOf(strings[housingReqs[at + 2]]));
+                req.setStatus(HousingReq.REQUEST_STATUS.valueOf(strings[housingReqs[at + 3]]));
+                req.setWithdrawalStatus(HousingReq.WITHDRAWAL_STATUS.valueOf(strings[housingReqs[at + 4]]));
+                req.setApprovedBy(housingReqs[at + 5] == NONE ? null : (Manager) userObjects[housingReqs[at + 5]]);
+                Main.housingReqList.insert(req);
+            }
+
+            for (int i = 0; i < assignReqCount; i++) {
+                int at = i * 3;
+                AssignReq req = new AssignReq((Officer) userObjects[assignReqs[at]], projectObjects[assignReqs[at + 1]]);
+                req.setApplicationStatus(AssignReq.APPLICATION_STATUS.valueOf(strings[assignReqs[at + 2]]));
+                Main.assignReqList.superAdd(req);
+            }
+        }
+
+        String string(int id) {
+            return id == NONE ? null : strings[id];
+        }
+    }
+
+    private static LocalDateTime time(long minutes) {
+        return LocalDateTime.ofEpochSecond(minutes * 60, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Decodes the body of a checked snapshot, positioned just after the header.
+     */
+    private static Decoded decode(ByteBuffer buffer) throws IOException {
+        Decoded d = new Decoded();
+        d.buffer = buffer;
+        try {
+            d.strings = new String[count(buffer, 4)];
+            for (int i = 0; i < d.strings.length; i++) {
+                int length = count(buffer, 1);
+                d.strings[i] = new String(bytes(buffer, length), StandardCharsets.UTF_8);
+            }
+
+            d.applicantCount = count(buffer, 24);
+            int[] applicants = users(buffer, d, d.applicantCount);
+            d.officerCount = count(buffer, 24);
+            int[] officers = users(buffer, d, d.officerCount);
+            d.managerCount = count(buffer, 24);
+            int[] managers = users(buffer, d, d.managerCount);
+            d.users = new int[applicants.length + officers.length + managers.length];
+            System.arraycopy(applicants, 0, d.users, 0, applicants.length);
+            System.arraycopy(officers, 0, d.users, applicants.length, officers.length);
+            System.arraycopy(managers, 0, d.users, applicants.length + officers.length, managers.length);
+            int firstOfficer = d.applicantCount;
+            int firstManager = d.applicantCount + d.officerCount;
+            int userCount = firstManager + d.managerCount;
+
+            d.projects = new int[count(buffer, 45)];
+            IntList projectData = new IntList();
+            for (int i = 0; i < d.projects.length; i++) {
+                d.projects[i] = projectData.size;
+                projectData.add(stringRef(buffer, d, false));
+                projectData.add(stringRef(buffer, d, false));
+                for (int k = 0; k < 6; k++) projectData.add(buffer.getInt()); // units, prices and dates
+                projectData.add(ref(buffer, firstManager, userCount, false));
+                projectData.add(buffer.getInt()); // officer slots
+                projectData.add(buffer.get());
+                int officerCount = count(buffer, 4);
+                projectData.add(officerCount);
+                for (int k = 0; k < officerCount; k++) projectData.add(ref(buffer, firstOfficer, userCount, false));
+            }
+            d.projectData = projectData.toArray();
+
+            d.totalTickets = buffer.getInt();
+            d.enquiryCount = count(buffer, 24);
+            IntList enquiries = new IntList();
+            LongList times = new LongList();
+            for (int i = 0; i < d.enquiryCount; i++) {
+                enquiries.add(buffer.getInt());
+                enquiries.add(ref(buffer, 0, userCount, false));
+                enquiries.add(ref(buffer, 0, d.projects.length, false));
+                times.add(buffer.getLong());
+                int messageCount = count(buffer, 16);
+                enquiries.add(messageCount);
+                for (int k = 0; k < messageCount; k++) {
+                    enquiries.add(ref(buffer, 0, userCount, false));
+                    times.add(buffer.getLong());
+                    int length = count(buffer, 1);
+                    enquiries.add(buffer.position());
+                    enquiries.add(length);
+                    buffer.position(buffer.position() + length);
+                }
+            }
+            d.enquiries = enquiries.toArray();
+            d.times = times.toArray();
+
+            d.housingReqCount = count(buffer, 24);
+            d.housingReqs = new int[d.housingReqCount * 6];
+            for (int i = 0; i < d.housingReqCount; i++) {
+                int at = i * 6;
+                d.housingReqs[at] = ref(buffer, 0, userCount, false);
+                d.housingReqs[at + 1] = ref(buffer, 0, d.projects.length, false);
+                d.housingReqs[at + 2] = enumRef(buffer, d, Project.ROOM_TYPE.class);
+                d.housingReqs[at + 3] = enumRef(buffer, d, HousingReq.REQUEST_STATUS.class);
+                d.housingReqs[at + 4] = enumRef(buffer, d, HousingReq.WITHDRAWAL_STATUS.class);
+                d.housingReqs[at + 5] = ref(buffer, firstManager, userCount, true);
+            }
+
+            d.assignReqCount = count(buffer, 12);
+            d.assignReqs = new int[d.assignReqCount * 3];
+            for (int i = 0; i < d.assignReqCount; i++) {
+                int at = i * 3;
+                d.assignReqs[at] = ref(buffer, firstOfficer, userCount, false);
+                d.assignReqs[at + 1] = ref(buffer, 0, d.projects.length, false);
+                d.assignReqs[at + 2] = enumRef(buffer, d, AssignReq.APPLICATION_STATUS.class);
+            }
+
+            if (buffer.hasRemaining()) throw new IOException("unexpected data after the last record");
+        } catch (BufferUnderflowException e) {
+            throw new IOException("truncated record");
+        }
+        return d;
+    }
+
+    private static int[] users(ByteBuffer buffer, Decoded d, int count) throws IOException {
+        int[] users = new int[count * 6];
+        for (int i = 0; i < count; i++) {
+            int at = i * 6;
+            users[at] = stringRef(buffer, d, false);
+            users[at + 1] = stringRef(buffer, d, false);
+            users[at + 2] = buffer.getInt();
+            users[at + 3] = stringRef(buffer, d, false);
+            users[at + 4] = stringRef(buffer, d, false);
+            users[at + 5] = stringRef(buffer, d, true);
+        }
+        return users;
+    }
+
+    /**
+     * Reads a record count and checks that the rest of the buffer could hold that many records of at least
+     * {@code minSize} bytes, so that a damaged count cannot trigger a huge allocation.
+     */
+    private static int count(ByteBuffer buffer, int minSize) throws IOException {
+        int count = buffer.getInt();
+        if (count < 0 || (long) count * minSize > buffer.remaining()) throw new IOException("invalid count " + count);
+        return count;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static int ref(ByteBuffer buffer, int from, int to, boolean nullable) throws IOException {
+        int ref = buffer.getInt();
+        if (ref == NONE && nullable) return ref;
+        if (ref < from || ref >= to) throw new IOException("invalid reference " + ref);
+        return ref;
+    }
+
+    private static int stringRef(ByteBuffer buffer, Decoded d, boolean nullable) throws IOException {
+        return ref(buffer, 0, d.strings.length, nullable);
+    }
+
+    private static <E extends Enum<E>> int enumRef(ByteBuffer buffer, Decoded d, Class<E> type) throws IOException {
+        int ref = stringRef(buffer, d, false);
+        try {
+            Enum.valueOf(type, d.strings[ref]);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("unknown " + type.getSimpleName() + " " + d.strings[ref]);
+        }
+        return ref;
+    }
+
+    /**
+     * A growable list of {@code int}s, to decode variable-length records without boxing.
+     */
+    private static final class IntList {
+        int[] values = new int[64];
+        int size = 0;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * A growable list of {@code long}s.
+     */
+    private static final class LongList {
+        long[] values = new long[64];
+        int size = 0;
+
+        void add(long value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
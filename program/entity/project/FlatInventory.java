@@ -0,0 +1,218 @@
+package program.entity.project;
+
+import program.entity.project.Project.ROOM_TYPE;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * The {@code FlatInventory} class keeps the flat counts of one {@link Project}, for each {@link ROOM_TYPE}. Two numbers
+ * are kept per room type:
+ * <ul>
+ *   <li>the <b>units</b> not yet booked, which is the count shown to users and saved in {@code ProjectList.csv};</li>
+ *   <li>the <b>reserved</b> units, held for applications that were approved but have not been booked yet.</li>
+ * </ul>
+ * Only the difference, the free units, can be given to a new approval.
+ * </p>
+ *
+ * <p>
+ * A booking goes through three steps, each a single atomic operation:
+ * <ul>
+ *   <li>{@link #reserve(ROOM_TYPE)} when a manager approves an application, which fails once no unit is free;</li>
+ *   <li>{@link #commit(ROOM_TYPE)} when an officer books the flat, turning the reservation into a booked unit;</li>
+ *   <li>{@link #release(ROOM_TYPE)} when an approved application is withdrawn before it is booked.</li>
+ * </ul>
+ * A booked unit that is given back is returned with {@link #restock(ROOM_TYPE)}.
+ * </p>
+ *
+ * <p>
+ * Both numbers of a room type are packed into one {@link AtomicLong}, units in the high half and reservations in the
+ * low half, and every operation is a compare-and-set loop on it. The check that a unit is free and taking it therefore
+ * happen together, so two managers approving at once can never give away the same unit. Lost compare-and-set
+ * attempts are counted in the {@link Metrics}, which show how contended the project is.
+ * </p>
+ *
+ * <p>
+ * Reservations are not saved; they follow from the applications whose status is {@code successful}, and are
+ * recounted with {@link #setReserved(ROOM_TYPE, int)} once all data is loaded.
+ * </p>
+ *
+ * @see Project#getInventory()
+ */
+public class FlatInventory {
+
+    /**
+     * A point-in-time copy of the counters of one inventory.
+     *
+     * @param reserveAttempts calls to {@link #reserve(ROOM_TYPE)}
+     * @param reserveFailures reservations refused because no unit was free
+     * @param commits reservations turned into bookings
+     * @param releases reservations given back
+     * @param retries compare-and-set attempts that lost to a concurrent change and were retried
+     */
+    public record Metrics(long reserveAttempts, long reserveFailures, long commits, long releases, long retries) {
+        @Override
+        public String toString() {
+            return "reserve attempts: " + reserveAttempts + ", sold out: " + reserveFailures + ", booked: " + commits
+                    + ", released: " + releases + ", contended retries: " + retries;
+        }
+    }
+
+    private final AtomicLong[] counts = new AtomicLong[ROOM_TYPE.values().length];
+
+    private final LongAdder reserveAttempts = new LongAdder();
+    private final LongAdder reserveFailures = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder releases = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+
+    FlatInventory() {
+        for (int i = 0; i < counts.length; i++) counts[i] = new AtomicLong();
+    }
+
+    /**
+     * Returns the units of a room type that are not booked yet, including reserved ones.
+     *
+     * @param roomType the room type
+     * @return the unbooked units
+     */
+    public int getUnits(ROOM_TYPE roomType) {
+        return units(counts[roomType.ordinal()].get());
+    }
+
+    /**
+     * Returns the units of a room type that are reserved for approved applications.
+     *
+     * @param roomType the room type
+     * @return the reserved units
+     */
+    public int getReserved(ROOM_TYPE roomType) {
+        return reserved(counts[roomType.ordinal()].get());
+    }
+
+    /**
+     * Returns the units of a room type that neither are booked nor reserved, and so can be given to a new approval.
+     *
+     * @param roomType the room type
+     * @return the free units, never negative
+     */
+    public int getFree(ROOM_TYPE roomType) {
+        long value = counts[roomType.ordinal()].get();
+        return Math.max(0, units(value) - reserved(value));
+    }
+
+    /**
+     * Sets the unbooked units of a room type, keeping the reservations, as when a manager edits the project.
+     *
+     * @param roomType the room type
+     * @param units the new number of unbooked units
+     */
+    public void setUnits(ROOM_TYPE roomType, int units) {
+        AtomicLong count = counts[roomType.ordinal()];
+        long value;
+        while (!count.compareAndSet(value = count.get(), pack(units, reserved(value)))) retries.increment();
+    }
+
+    /**
+     * Sets the reservations of a room type, keeping the units. Used to recount them after loading.
+     *
+     * @param roomType the room type
+     * @param reserved the number of approved applications not yet booked
+     */
+    public void setReserved(ROOM_TYPE roomType, int reserved) {
+        AtomicLong count = counts[roomType.ordinal()];
+        long value;
+        while (!count.compareAndSet(value = count.get(), pack(units(value), reserved))) retries.increment();
+    }
+
+    /**
+     * Reserves a free unit of a room type for an approved application.
+     *
+     * @param roomType the room type
+     * @return {@code false} if no unit was free, in which case nothing changed
+     */
+    public boolean reserve(ROOM_TYPE roomType) {
+        reserveAttempts.increment();
+        AtomicLong count = counts[roomType.ordinal()];
+        while (true) {
+            long value = count.get();
+            if (units(value) - reserved(value) <= 0) {
+                reserveFailures.increment();
+                return false;
+            }
+            if (count.compareAndSet(value, pack(units(value), reserved(value) + 1))) return true;
+            retries.increment();
+        }
+    }
+
+    /**
+     * Turns a reservation of a room type into a booking, taking the unit out of the unbooked units.
+     *
+     * @param roomType the room type
+     * @return {@code false} if there was no reservation or no unit left, in which case nothing changed
+     */
+    public boolean commit(ROOM_TYPE roomType) {
+        AtomicLong count = counts[roomType.ordinal()];
+        while (true) {
+            long value = count.get();
+            if (reserved(value) <= 0 || units(value) <= 0) return false;
+            if (count.compareAndSet(value, pack(units(value) - 1, reserved(value) - 1))) {
+                commits.increment();
+                return true;
+            }
+            retries.increment();
+        }
+    }
+
+    /**
+     * Gives back a reservation of a room type without booking it.
+     *
+     * @param roomType the room type
+     * @return {@code false} if there was no reservation, in which case nothing changed
+     */
+    public boolean release(ROOM_TYPE roomType) {
+        AtomicLong count = counts[roomType.ordinal()];
+        while (true) {
+            long value = count.get();
+            if (reserved(value) <= 0) return false;
+            if (count.compareAndSet(value, pack(units(value), reserved(value) - 1))) {
+                releases.increment();
+                return true;
+            }
+            retries.increment();
+        }
+    }
+
+    /**
+     * Returns a booked unit of a room type to the unbooked units, as when a booking is withdrawn.
+     *
+     * @param roomType the room type
+     */
+    public void restock(ROOM_TYPE roomType) {
+        AtomicLong count = counts[roomType.ordinal()];
+        long value;
+        while (!count.compareAndSet(value = count.get(), pack(units(value) + 1, reserved(value)))) retries.increment();
+    }
+
+    /**
+     * Returns the counters of this inventory.
+     *
+     * @return a copy of the counters as they are now
+     */
+    public Metrics getMetrics() {
+        return new Metrics(reserveAttempts.sum(), reserveFailures.sum(), commits.sum(), releases.sum(), retries.sum());
+    }
+
+    private static long pack(int units, int reserved) {
+        return ((long) units << 32) | (reserved & 0xFFFFFFFFL);
+    }
+
+    private static int units(long value) {
+        return (int) (value >> 32);
+    }
+
+    private static int reserved(long value) {
+        return (int) value;
+    }
+}
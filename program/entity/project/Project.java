@@ -4,11 +4,16 @@ import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 import program.control.Main;
+import program.control.ProjectCalendar;
 import program.control.TimeCompare;
 import program.control.enquiry.Enquiry;
 import program.control.enquiry.EnquiryList;
 import program.control.housingApply.HousingReq;
+import program.control.housingApply.HousingReqBuckets;
 import program.control.housingApply.HousingReqList;
+import program.control.report.ApplicantReportEngine;
+import program.entity.caching.Journal;
+import program.entity.caching.RecordSaver;
 import program.entity.users.Manager;
 import program.entity.users.Officer;
 import program.entity.users.User;
@@ -39,9 +44,8 @@ public class Project {
 
     private String name;
     private String neighbourhood;
-    private int units2room;
+    private final FlatInventory inventory = new FlatInventory();
     private int units2roomPrice;
-    private int units3room;
     private int units3roomPrice;
     private LocalDate openDate;
     private LocalDate closeDate;
@@ -96,9 +100,9 @@ public class Project {
         this.name = name.trim().toUpperCase();
         this.neighbourhood = neighbourhood.trim().toUpperCase();
         try {
-            this.units2room = Integer.parseInt(units2room);
+            inventory.setUnits(ROOM_TYPE.room2, Integer.parseInt(units2room));
             this.units2roomPrice = Integer.parseInt(units2roomPrice);
-            this.units3room = Integer.parseInt(units3room);
+            inventory.setUnits(ROOM_TYPE.room3, Integer.parseInt(units3room));
             this.units3roomPrice = Integer.parseInt(units3roomPrice);
         } catch (NumberFormatException ExceptionDueToEmptyString) {
         }
@@ -117,7 +121,48 @@ public class Project {
             officer = (Officer) Main.officerList.getByName(officerStr);
             if (officer == null) throw new Exception("Officer not found. Officer for reference: "+ officer);
             projOfficerList.add(officer);
-        }   
+        }
+    }
+
+    /**
+     * Constructs a {@code Project} from values that are already parsed and linked, as read back from a
+     * {@link program.entity.caching.Snapshot}.
+     *
+     * @param name the name of the project, already trimmed and in upper case
+     * @param neighbourhood the neighbourhood of the project, already trimmed and in upper case
+     * @param units2room the number of 2-room units in the project
+     * @param units2roomPrice the price of 2-room units in the project
+     * @param units3room the number of 3-room units in the project
+     * @param units3roomPrice the price of 3-room units in the project
+     * @param openDate the opening date of the project
+     * @param closeDate the closing date of the project
+     * @param manager the manager responsible for the project
+     * @param officerSlots the number of officer slots available for the project
+     * @param officers the officers assigned to the project
+     */
+    public Project(
+            String name,
+            String neighbourhood,
+            int units2room,
+            int units2roomPrice,
+            int units3room,
+            int units3roomPrice,
+            LocalDate openDate,
+            LocalDate closeDate,
+            Manager manager,
+            int officerSlots,
+            List<Officer> officers) {
+        this.name = name;
+        this.neighbourhood = neighbourhood;
+        inventory.setUnits(ROOM_TYPE.room2, units2room);
+        this.units2roomPrice = units2roomPrice;
+        inventory.setUnits(ROOM_TYPE.room3, units3room);
+        this.units3roomPrice = units3roomPrice;
+        this.openDate = openDate;
+        this.closeDate = closeDate;
+        this.createdBy = this.manager = manager;
+        this.officerSlots = officerSlots;
+        projOfficerList.addAll(officers);
     }
 
     /**
@@ -148,6 +193,9 @@ public class Project {
      */
     public void setVisibility(boolean visibility){
         this.visibility = visibility;
+        ProjectVisibility.invalidateAll();
+        Journal.project(this);
+        RecordSaver.markDirty(RecordSaver.TABLE.PROJECTS);
     }
 
     /**
@@ -161,21 +209,15 @@ public class Project {
 
     /**
      * Checks if the project is visible to the specified user.
+     * <p>
+     * The answer is served from the per-user cache in {@link ProjectVisibility}, which also documents the visibility rules.
+     * </p>
      *
      * @param user the user to check
      * @return {@code true} if the project is visible to the user, {@code false} otherwise
      */
     public boolean isVisibleTo(User user) {
-        boolean activeApplication = Main.housingReqList.stream().anyMatch(req -> req.getProject().equals(this) && 
-            req.getUser().equals(user) &&
-            req.getStatus() != HousingReq.REQUEST_STATUS.unsuccessful &&
-            req.getWithdrawalStatus() != HousingReq.WITHDRAWAL_STATUS.approved
-            );
-        boolean inCharge = (user instanceof Manager && user.equals(this.manager)) || this.projOfficerList.contains(user);
-        boolean applicationOpen = visibility  
-                                && nowOpen()
-                                && (user.see2Rooms() && units2room > 0 || user.see3Rooms() && (units3room > 0 || units2room > 0));
-        return applicationOpen || inCharge || activeApplication;
+        return ProjectVisibility.isVisible(this, user);
     }
 
     /**
@@ -242,19 +284,25 @@ public class Project {
     }
 
     public void setUnits2Room(int units2room) {
-        this.units2room = units2room;
+        inventory.setUnits(ROOM_TYPE.room2, units2room);
+        ProjectVisibility.invalidateAll();
+        Journal.rooms(this);
+        RecordSaver.markDirty(RecordSaver.TABLE.PROJECTS);
     }
 
     public void setUnits3Room(int units3room) {
-        this.units3room = units3room;
+        inventory.setUnits(ROOM_TYPE.room3, units3room);
+        ProjectVisibility.invalidateAll();
+        Journal.rooms(this);
+        RecordSaver.markDirty(RecordSaver.TABLE.PROJECTS);
     }
 
     public int getUnits2Room() {
-        return units2room;
+        return inventory.getUnits(ROOM_TYPE.room2);
     }
 
     public int getUnits3Room() {
-        return units3room;
+        return inventory.getUnits(ROOM_TYPE.room3);
     }
 
     public int getUnits2RoomPrice() {
@@ -279,10 +327,20 @@ public class Project {
 
     public void setCloseDate(LocalDate closeDate) {
         this.closeDate = closeDate;
+        ProjectCalendar.reschedule(this);
+        ProjectVisibility.invalidateAll();
+        Journal.project(this);
+        RecordSaver.markDirty(RecordSaver.TABLE.PROJECTS);
     }
 
     public void setManager(Manager manager) {
         this.manager = manager;
+        HousingReqBuckets.managerChanged(this);
+        ApplicantReportEngine.managerChanged(this);
+        ProjectCalendar.reschedule(this);
+        ProjectVisibility.invalidateAll();
+        Journal.project(this);
+        RecordSaver.markDirty(RecordSaver.TABLE.PROJECTS);
     }
 
     public Manager getManager() {
@@ -291,6 +349,8 @@ public class Project {
 
     public void setOfficerSlots(int officerSlots) {
         this.officerSlots = officerSlots;
+        Journal.project(this);
+        RecordSaver.markDirty(RecordSaver.TABLE.PROJECTS);
     }
     public int getOfficerSlots() {
         return officerSlots;
@@ -313,54 +373,124 @@ public class Project {
         return visibility;
     }
 
+    /**
+     * Gets the flat counts of this project, with the reservations held for approved applications.
+     *
+     * @return the project's inventory
+     */
+    public FlatInventory getInventory() {
+        return inventory;
+    }
+
+    /**
+     * Gets the units of a room type that can still be given to a new approval, that is neither booked nor
+     * reserved for an approved application.
+     *
+     * @param roomType the room type
+     * @return the free units
+     */
     public int getVacancy(ROOM_TYPE roomType) {
-        return switch (roomType) {
-            case room2 -> units2room;
-            case room3 -> units3room;
-        };
+        return inventory.getFree(roomType);
+    }
+
+    /**
+     * Reserves a unit of a room type for an application being approved.
+     *
+     * @param roomType the room type
+     * @return {@code false} if no unit is free
+     */
+    public boolean reserveRoomType(ROOM_TYPE roomType) {
+        return inventory.reserve(roomType);
     }
 
-    public void decrementRoomType(ROOM_TYPE roomType) {
-        switch (roomType) {
-            case room2 -> units2room--;
-            case room3 -> units3room--;
-        };
+    /**
+     * Gives back the unit reserved for an approved application that will not be booked.
+     *
+     * @param roomType the room type
+     */
+    public void releaseRoomType(ROOM_TYPE roomType) {
+        inventory.release(roomType);
+    }
+
+    /**
+     * Books the unit reserved for an approved application, taking it out of the available units.
+     *
+     * @param roomType the room type
+     * @return {@code false} if there was no reservation or no unit left to book
+     */
+    public boolean commitRoomType(ROOM_TYPE roomType) {
+        if (!inventory.commit(roomType)) return false;
+        ProjectVisibility.invalidateAll();
+        Journal.rooms(this);
+        RecordSaver.markDirty(RecordSaver.TABLE.PROJECTS);
+        return true;
     }
 
+    /**
+     * Returns a booked unit to the available units, as when a booking is withdrawn.
+     *
+     * @param roomType the room type
+     */
     public void incrementRoomType (ROOM_TYPE roomType){
-        switch(roomType){
-            case room2 -> units2room++;
-            case room3 -> units3room--;
-        };
+        inventory.restock(roomType);
+        ProjectVisibility.invalidateAll();
+        Journal.rooms(this);
+        RecordSaver.markDirty(RecordSaver.TABLE.PROJECTS);
     }
 
     public void setName(String name) {
+        String oldName = this.name;
         this.name = name.trim().toUpperCase();
+        if (!this.name.equals(oldName)) {
+            Main.projectList.rename(this, oldName);
+            Journal.projectRenamed(oldName, this.name);
+        }
+        RecordSaver.markDirty(RecordSaver.TABLE.PROJECTS);
     }
 
     public void setNeighbourhood(String neighbourhood) {
+        String oldNeighbourhood = this.neighbourhood;
         this.neighbourhood = neighbourhood.trim().toUpperCase();
+        if (!this.neighbourhood.equals(oldNeighbourhood)) Main.projectList.relocate(this, oldNeighbourhood);
+        Journal.project(this);
+        RecordSaver.markDirty(RecordSaver.TABLE.PROJECTS);
     }
 
     public void setUnits2RoomPrice(int units2roomPrice) {
         this.units2roomPrice = units2roomPrice;
+        Journal.project(this);
+        RecordSaver.markDirty(RecordSaver.TABLE.PROJECTS);
     }
 
     public void setUnits3RoomPrice(int units3roomPrice) {
         this.units3roomPrice = units3roomPrice;
+        Journal.project(this);
+        RecordSaver.markDirty(RecordSaver.TABLE.PROJECTS);
     }
 
     public void setOpenDate(LocalDate openDate) {
         this.openDate = openDate;
+        ProjectCalendar.reschedule(this);
+        ProjectVisibility.invalidateAll();
+        Journal.project(this);
+        RecordSaver.markDirty(RecordSaver.TABLE.PROJECTS);
     }
 
     public void addOfficer(Officer officer){
         projOfficerList.add(officer);
+        ProjectCalendar.officerAdded(this, officer);
+        ProjectVisibility.invalidate(officer);
+        Journal.project(this);
+        RecordSaver.markDirty(RecordSaver.TABLE.PROJECTS);
     }
 
     public void setOfficerList(List<Officer> officerList){
         UserList officerListTemp = new UserList();
         officerList.forEach(officer -> officerListTemp.add(officer));
         this.projOfficerList = officerListTemp;
+        ProjectCalendar.reschedule(this);
+        ProjectVisibility.invalidateAll();
+        Journal.project(this);
+        RecordSaver.markDirty(RecordSaver.TABLE.PROJECTS);
     }
 }
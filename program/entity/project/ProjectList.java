@@ -1,6 +1,18 @@
 package program.entity.project;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Predicate;
+
+import program.control.Main;
+import program.control.ProjectCalendar;
+import program.control.report.ApplicantReportEngine;
+import program.control.report.ReportIndex;
+import program.entity.caching.Journal;
+import program.entity.caching.RecordSaver;
 
 /**
  * <p>
@@ -14,10 +26,25 @@ import java.util.ArrayList;
  * names.
  * </p>
  *
+ * <p>
+ * Lookups are served from a name index and a neighbourhood index that are maintained by the overridden mutators and
+ * by {@link Project#setName} and {@link Project#setNeighbourhood}. Project names and neighbourhoods are always stored
+ * trimmed and in upper case, so the indexes are keyed by the stored value and an argument that is already in that
+ * form is looked up without building a normalised copy.
+ * </p>
+ *
+ * <p>
+ * The master list in {@link Main} also registers its projects with {@link ProjectCalendar}, so that date overlap
+ * checks only ever see projects that are actually listed.
+ * </p>
+ *
  * @see program.entity.project.Project
  */
 public class ProjectList extends ArrayList<Project> {
 
+    private final HashMap<String, Project> nameIndex = new HashMap<>();
+    private final HashMap<String, List<Project>> neighbourhoodIndex = new HashMap<>();
+
     /**
      * Retrieves a project by its name, ignoring case and trimming any surrounding whitespace.
      *
@@ -25,11 +52,206 @@ public class ProjectList extends ArrayList<Project> {
      * @return the {@code Project} with the specified name, or {@code null} if no such project exists
      */
     public Project get(String name) {
-        for (Project project : this) {
-            if (project.getName().trim().toUpperCase().equals(name.trim().toUpperCase())) {
-                return project;
+        if (name == null) return null;
+        Project project = nameIndex.get(name);
+        if (project != null || isNormalised(name)) return project;
+        return nameIndex.get(normalise(name));
+    }
+
+    /**
+     * Retrieves all projects in the given neighbourhood, ignoring case and trimming any surrounding whitespace.
+     *
+     * @param neighbourhood the neighbourhood to search
+     * @return an unmodifiable list of projects in that neighbourhood, in list order; empty if there are none
+     */
+    public List<Project> getByNeighbourhood(String neighbourhood) {
+        if (neighbourhood == null) return Collections.emptyList();
+        List<Project> projects = neighbourhoodIndex.get(neighbourhood);
+        if (projects == null && !isNormalised(neighbourhood)) projects = neighbourhoodIndex.get(normalise(neighbourhood));
+        return projects == null ? Collections.emptyList() : Collections.unmodifiableList(projects);
+    }
+
+    @Override
+    public boolean add(Project project) {
+        boolean added = super.add(project);
+        index(project);
+        if (this == Main.projectList) Journal.project(project);
+        return added;
+    }
+
+    @Override
+    public void add(int position, Project project) {
+        super.add(position, project);
+        rebuildIndex();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Project> projects) {
+        boolean changed = super.addAll(projects);
+        projects.forEach(this::index);
+        return changed;
+    }
+
+    @Override
+    public boolean addAll(int position, Collection<? extends Project> projects) {
+        boolean changed = super.addAll(position, projects);
+        rebuildIndex();
+        return changed;
+    }
+
+    @Override
+    public Project set(int position, Project project) {
+        Project previous = super.set(position, project);
+        rebuildIndex();
+        return previous;
+    }
+
+    @Override
+    public Project remove(int position) {
+        Project removed = super.remove(position);
+        unindex(removed);
+        if (removed != null) deleted(removed);
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        boolean removed = super.remove(o);
+        if (removed) {
+            unindex((Project) o);
+            deleted((Project) o);
+        }
+        return removed;
+    }
+
+    // a project removed from the master list is deleted: journal it and drop its requests from the reports
+    private void deleted(Project project) {
+        if (this != Main.projectList) return;
+        Journal.projectDeleted(project);
+        ApplicantReportEngine.projectDeleted(project);
+        ReportIndex.projectDeleted(project);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        boolean changed = super.removeAll(c);
+        if (changed) rebuildIndex();
+        return changed;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        boolean changed = super.retainAll(c);
+        if (changed) rebuildIndex();
+        return changed;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super Project> filter) {
+        boolean changed = super.removeIf(filter);
+        if (changed) rebuildIndex();
+        return changed;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        nameIndex.clear();
+        neighbourhoodIndex.clear();
+        if (this == Main.projectList) ProjectCalendar.clear();
+    }
+
+    /**
+     * Moves a project to its new name in the index after {@link Project#setName} has been called.
+     * Does nothing if the project is not in this list.
+     *
+     * @param project the renamed project
+     * @param oldName the name the project was indexed under
+     */
+    void rename(Project project, String oldName) {
+        if (nameIndex.get(oldName) != project && !super.contains(project)) return;
+        if (nameIndex.get(oldName) == project) {
+            nameIndex.remove(oldName);
+            // another project may share the old name and now becomes the first match
+            for (Project other : this) {
+                if (other != project && other.getName().equals(oldName)) {
+                    nameIndex.put(oldName, other);
+                    break;
+                }
             }
         }
-        return null;
+        Project current = nameIndex.get(project.getName());
+        if (current == null || indexOf(project) < indexOf(current)) nameIndex.put(project.getName(), project);
+    }
+
+    /**
+     * Moves a project to its new neighbourhood in the index after {@link Project#setNeighbourhood} has been called.
+     * Does nothing if the project is not in this list.
+     *
+     * @param project the relocated project
+     * @param oldNeighbourhood the neighbourhood the project was indexed under
+     */
+    void relocate(Project project, String oldNeighbourhood) {
+        List<Project> previous = neighbourhoodIndex.get(oldNeighbourhood);
+        if (previous == null || !previous.remove(project)) return;
+        if (previous.isEmpty()) neighbourhoodIndex.remove(oldNeighbourhood);
+        neighbourhoodIndex.computeIfAbsent(project.getNeighbourhood(), key -> new ArrayList<>()).add(project);
+    }
+
+    private void index(Project project) {
+        if (project == null) return;
+        nameIndex.putIfAbsent(project.getName(), project);
+        neighbourhoodIndex.computeIfAbsent(project.getNeighbourhood(), key -> new ArrayList<>()).add(project);
+        if (this == Main.projectList) {
+            ProjectCalendar.register(project);
+            RecordSaver.markDirty(RecordSaver.TABLE.PROJECTS);
+        }
+    }
+
+    private void unindex(Project project) {
+        if (project == null) return;
+        if (this == Main.projectList) {
+            if (!super.contains(project)) ProjectCalendar.unregister(project);
+            RecordSaver.markDirty(RecordSaver.TABLE.PROJECTS);
+        }
+        List<Project> projects = neighbourhoodIndex.get(project.getNeighbourhood());
+        if (projects != null) {
+            projects.remove(project);
+            if (projects.isEmpty()) neighbourhoodIndex.remove(project.getNeighbourhood());
+        }
+        if (nameIndex.get(project.getName()) == project) {
+            nameIndex.remove(project.getName());
+            for (Project other : this) {
+                if (other.getName().equals(project.getName())) {
+                    nameIndex.put(other.getName(), other);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void rebuildIndex() {
+        nameIndex.clear();
+        neighbourhoodIndex.clear();
+        if (this == Main.projectList) ProjectCalendar.clear();
+        for (Project project : this) index(project);
+    }
+
+    /**
+     * Checks whether a key is already trimmed and in upper case, without allocating.
+     */
+    private static boolean isNormalised(String key) {
+        int length = key.length();
+        if (length == 0) return true;
+        if (key.charAt(0) <= ' ' || key.charAt(length - 1) <= ' ') return false; // same rule as String.trim
+        for (int i = 0; i < length; i++) {
+            char c = key.charAt(i);
+            if (Character.toUpperCase(c) != c) return false;
+        }
+        return true;
+    }
+
+    private static String normalise(String key) {
+        return key.trim().toUpperCase();
     }
 }
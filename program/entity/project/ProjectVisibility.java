@@ -0,0 +1,135 @@
+package program.entity.project;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import program.control.housingApply.HousingReq;
+import program.entity.users.Manager;
+import program.entity.users.User;
+
+/**
+ * <p>
+ * The {@code ProjectVisibility} class caches, per user, which projects are visible to that user, so that listing
+ * projects no longer costs a scan of every housing request in the system for every project shown.
+ * {@link Project#isVisibleTo(User)} delegates here.
+ * </p>
+ *
+ * <p>
+ * A project is visible to a user when any of the following holds:
+ * <ul>
+ *   <li>the user has an active application for it (found from the user's own request list);</li>
+ *   <li>the user is the manager or one of the officers in charge of it;</li>
+ *   <li>it is open for applications today, toggled visible, and has a flat type the user is eligible for left.</li>
+ * </ul>
+ * Each user's cache entry remembers the user's active projects and the answers computed so far. An entry is thrown
+ * away only when one of its inputs changes:
+ * <ul>
+ *   <li>{@link #invalidate(User)} for changes that concern one user, such as a new request, a request status or
+ *   withdrawal change, a marital status change, or being added to a project as an officer;</li>
+ *   <li>{@link #invalidateAll()} for changes to a project, such as its vacancy, visibility toggle, dates, manager
+ *   or officer list;</li>
+ *   <li>a change of date, detected from a cached "today" that is refreshed at midnight.</li>
+ * </ul>
+ * </p>
+ *
+ * @see Project#isVisibleTo(User)
+ */
+public class ProjectVisibility {
+
+    private static final Map<User, Entry> cache = new HashMap<>();
+
+    private static LocalDate today = null;
+    private static long todayExpiresAt = 0;
+
+    private static final class Entry {
+        final LocalDate day;
+        final Set<Project> activeProjects;
+        final Map<Project, Boolean> visible = new IdentityHashMap<>();
+
+        Entry(LocalDate day, Set<Project> activeProjects) {
+            this.day = day;
+            this.activeProjects = activeProjects;
+        }
+    }
+
+    /**
+     * Checks whether a project is visible to a user, computing and caching the answer if needed.
+     *
+     * @param project the project to check
+     * @param user the user viewing the project
+     * @return {@code true} if the project should be shown to the user
+     */
+    public static boolean isVisible(Project project, User user) {
+        LocalDate day = today();
+        Entry entry = cache.get(user);
+        if (entry == null || !entry.day.equals(day)) {
+            entry = new Entry(day, activeProjects(user));
+            cache.put(user, entry);
+        }
+        Boolean visible = entry.visible.get(project);
+        if (visible == null) {
+            visible = compute(project, user, day, entry.activeProjects);
+            entry.visible.put(project, visible);
+        }
+        return visible;
+    }
+
+    /**
+     * Drops the cached answers of one user after something about that user changed.
+     *
+     * @param user the user whose visibility inputs changed
+     */
+    public static void invalidate(User user) {
+        if (user != null) cache.remove(user);
+    }
+
+    /**
+     * Makes every cached answer stale after a project-level input changed.
+     */
+    public static void invalidateAll() {
+        cache.clear();
+    }
+
+    /**
+     * Returns today's date, re-reading the clock only after midnight has passed.
+     *
+     * @return the cached current date
+     */
+    public static LocalDate today() {
+        long now = System.currentTimeMillis();
+        if (today == null || now >= todayExpiresAt) {
+            ZoneId zone = ZoneId.systemDefault();
+            today = LocalDate.now(zone);
+            todayExpiresAt = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+        return today;
+    }
+
+    private static Set<Project> activeProjects(User user) {
+        Set<Project> active = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (HousingReq req : user.getReqList()) {
+            if (req.getStatus() != HousingReq.REQUEST_STATUS.unsuccessful &&
+                req.getWithdrawalStatus() != HousingReq.WITHDRAWAL_STATUS.approved) {
+                active.add(req.getProject());
+            }
+        }
+        return active;
+    }
+
+    private static boolean compute(Project project, User user, LocalDate day, Set<Project> activeProjects) {
+        if (activeProjects.contains(project)) return true;
+        boolean inCharge = (user instanceof Manager && user.equals(project.getManager())) || project.getOfficers().contains(user);
+        if (inCharge) return true;
+        boolean open = !day.isBefore(project.getOpenDate()) && !day.isAfter(project.getCloseDate());
+        int units2room = project.getUnits2Room();
+        int units3room = project.getUnits3Room();
+        return project.getVisibility()
+                && open
+                && (user.see2Rooms() && units2room > 0 || user.see3Rooms() && (units3room > 0 || units2room > 0));
+    }
+}
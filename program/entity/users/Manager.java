@@ -1,8 +1,9 @@
 package program.entity.users;
 
+import java.time.LocalDate;
 import java.util.function.Predicate;
 
-import program.control.Main;
+import program.control.ProjectCalendar;
 import program.control.TimeCompare;
 import program.control.enquiry.Enquiry;
 import program.control.security.Password;
@@ -102,9 +103,9 @@ public class Manager extends Officer {
      */
     @Override 
     public Project getCurProject() {
-        return Main.projectList.stream()
-            .filter(project -> project.getManager().equals(this) && 
-                TimeCompare.currentlyActive(project))
+        LocalDate today = LocalDate.now();
+        return ProjectCalendar.managerOverlaps(this, today, today).stream()
+            .filter(TimeCompare::currentlyActive)
             .findAny()
             .orElse(null);
     }
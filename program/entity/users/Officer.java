@@ -1,8 +1,10 @@
 package program.entity.users;
 
+import java.time.LocalDate;
 import java.util.function.Predicate;
 
 import program.control.Main;
+import program.control.ProjectCalendar;
 import program.control.enquiry.Enquiry;
 import program.control.housingApply.HousingReq;
 import program.control.housingApply.HousingReq.REQUEST_STATUS;
@@ -91,17 +93,13 @@ public class Officer extends Applicant {
 
     /**
      * Returns the current project that the officer is in charge of. If the officer is not currently
-     * assigned to any open projects, this method returns {@code null}.
+     * assigned to any open projects, this method returns {@code null}. The lookup goes through the
+     * officer's own calendar in {@link ProjectCalendar} rather than every project in the system.
      *
      * @return the current {@link Project} the officer is overseeing, or {@code null} if no active project
      */
     public Project getCurProject() {
-        for (Project project : Main.projectList) {
-            if (project.getOfficers().contains(this) && project.nowOpen()) {
-                return project;
-            }
-        }
-        return null;
+        return ProjectCalendar.officerProjectOn(this, LocalDate.now());
     }
 
     /**
@@ -123,7 +121,7 @@ public class Officer extends Applicant {
         } else {
             project.setUnits3Room(newCount);
         }
-        System.out.println("Updated " + flatType + " availability to " + newCount + " for project: " + this.getCurProject().getName());
+        System.out.println("Updated " + flatType + " availability to " + newCount + " for project: " + project.getName());
     }
 
     /**
@@ -157,11 +155,11 @@ public class Officer extends Applicant {
         }
         return super.getGreeting() +
                 "\nYou are currently handling project:\n" +
-                this.getCurProject() +
+                curProject +
                 "\nFrom " +
-                this.getCurProject().getOpenDate() +
+                curProject.getOpenDate() +
                 " until " +
-                this.getCurProject().getCloseDate();
+                curProject.getCloseDate();
     }
 
     /**
@@ -11,8 +11,12 @@ import program.control.enquiry.Enquiry;
 import program.control.enquiry.EnquiryList;
 import program.control.housingApply.HousingReq;
 import program.control.housingApply.HousingReqList;
+import program.control.report.ApplicantReportEngine;
+import program.control.report.ReportIndex;
 import program.control.security.Password;
+import program.entity.caching.RecordSaver;
 import program.entity.project.Project;
+import program.entity.project.ProjectVisibility;
 
 /**
  * <p>
@@ -31,7 +35,7 @@ public class User {
 
     private String name;
     private String userId;
-    private Password password = new Password();
+    private Password password;
     private int age;
     private MARITAL_STATUS maritalStatus;
     private HousingReqList reqList = new HousingReqList();
@@ -138,10 +142,7 @@ public class User {
      * @throws Exception if there is an issue with the provided data (e.g., invalid NRIC, age, or marital status)
      */
     public User(String NRIC, String name, int age, String maritalStatus) throws Exception {
-        this.userId = UserValidator.validateNRIC(NRIC);
-        this.name = name;
-        this.age = validateAge(age);
-        this.maritalStatus = validateMaritalStatus(maritalStatus);
+        this(NRIC, name, age, maritalStatus, new Password());
     }
 
     /**
@@ -155,8 +156,7 @@ public class User {
      * @throws Exception if there is an issue with the provided data (e.g., invalid NRIC, age, or marital status)
      */
     public User(String NRIC, String name, int age, String maritalStatus, String passwordHash) throws Exception {
-        this(NRIC, name, age, maritalStatus);
-        this.password = new Password(passwordHash);
+        this(NRIC, name, age, maritalStatus, new Password(passwordHash));
     }
 
     /**
@@ -170,8 +170,11 @@ public class User {
      * @throws Exception if there is an issue with the provided data (e.g., invalid NRIC, age, or marital status)
      */
     public User(String NRIC, String name, int age, String maritalStatus, Password password) throws Exception {
-        this(NRIC, name, age, maritalStatus);
-        this.password = password;
+        this.userId = UserValidator.validateNRIC(NRIC);
+        this.name = name;
+        this.age = validateAge(age);
+        this.maritalStatus = validateMaritalStatus(maritalStatus);
+        this.password = password; // set once, so the default password is only hashed when it is actually used
     }
 
     /**
@@ -189,7 +192,10 @@ public class User {
      * @param name the new name for the user
      */
     public void setName(String name) {
+        String oldName = this.name;
         this.name = name;
+        if (oldName != null && !oldName.equals(name)) UserRegistry.rename(this, oldName);
+        RecordSaver.markDirty(this);
     }
 
     /**
@@ -217,6 +223,10 @@ public class User {
      */
     public void setMaritalStatus(MARITAL_STATUS maritalStatus) {
         this.maritalStatus = maritalStatus;
+        ApplicantReportEngine.maritalStatusChanged(this);
+        ReportIndex.maritalStatusChanged(this);
+        ProjectVisibility.invalidate(this);
+        RecordSaver.markDirty(this);
     }
 
     /**
@@ -227,6 +237,10 @@ public class User {
      */
     public void setMaritalStatus(String maritalStatus) throws Exception {
         this.maritalStatus = validateMaritalStatus(maritalStatus);
+        ApplicantReportEngine.maritalStatusChanged(this);
+        ReportIndex.maritalStatusChanged(this);
+        ProjectVisibility.invalidate(this);
+        RecordSaver.markDirty(this);
     }
 
     /**
@@ -330,6 +344,7 @@ public class User {
      */
     public void setPassword(Password password) {
         this.password = password;
+        RecordSaver.markDirty(this);
     }
 
     /**
@@ -1,8 +1,11 @@
 package program.entity.users;
 
 import java.util.ArrayList;
-
-import program.control.Main;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.function.Predicate;
 
 /**
  * <p>
@@ -15,9 +18,25 @@ import program.control.Main;
  * The {@code get} method can either search through all user lists (e.g., manager list, officer list,
  * applicant list) or only the current list of users based on the parameter provided.
  * </p>
+ *
+ * <p>
+ * Every list keeps hash indexes by user ID and by name that are updated by the overridden mutators,
+ * so lookups are constant time instead of a walk through the list. When several users share an ID
+ * or a name, the index points to the earliest one, matching the behaviour of a front-to-back search.
+ * Searches across all lists are delegated to {@link UserRegistry}.
+ * </p>
+ *
+ * <p>
+ * The position of each user is indexed as well, for {@link #indexOf(Object)}. Appending a user keeps that index up
+ * to date; any other change drops it, and it is rebuilt on the next lookup.
+ * </p>
  */
 public class UserList extends ArrayList<User> {
 
+    private final HashMap<String, User> idIndex = new HashMap<>();
+    private final HashMap<String, User> nameIndex = new HashMap<>();
+    private IdentityHashMap<User, Integer> positions = null; // null when it needs rebuilding
+
     /**
      * Retrieves the first user matching the given User ID by searching through all available user lists.
      *
@@ -38,33 +57,9 @@ public class UserList extends ArrayList<User> {
      */
     public User get(String UserId, boolean searchAllLists) {
         if (searchAllLists) {
-            // Search through manager list
-            for (User user : Main.managerList) {
-                if (user.getUserId().equals(UserId)) {
-                    return user;
-                }
-            }
-            // Search through officer list
-            for (User user : Main.officerList) {
-                if (user.getUserId().equals(UserId)) {
-                    return user;
-                }
-            }
-            // Search through applicant list
-            for (User user : Main.applicantList) {
-                if (user.getUserId().equals(UserId)) {
-                    return user;
-                }
-            }
-        } else {
-            // Search only through the current user list
-            for (User user : this) {
-                if (user.getUserId().equals(UserId)) {
-                    return user;
-                }
-            }
+            return UserRegistry.get(UserId);
         }
-        return null;
+        return idIndex.get(UserId);
     }
 
     /**
@@ -74,12 +69,177 @@ public class UserList extends ArrayList<User> {
      * @return the {@link User} instance with the specified name, or {@code null} if not found
      */
     public User getByName(String Name) {
-        for (User user : this) {
-            if (user.getName().equals(Name)) {
-                return user;
+        return nameIndex.get(Name);
+    }
+
+    /**
+     * Checks whether this list holds the given user, using the ID index instead of walking the list.
+     * Users are compared by identity, as {@link User} does not override {@code equals}.
+     *
+     * @param o the user to look for
+     * @return {@code true} if the user is in this list
+     */
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof User user)) return false;
+        User indexed = idIndex.get(user.getUserId());
+        if (indexed == user) return true;
+        // a different record with the same ID is indexed; the user may still be a later duplicate
+        return indexed != null && super.contains(user);
+    }
+
+    /**
+     * Returns the position of the first occurrence of a user, using the position index instead of walking the list.
+     * Users are compared by identity, as {@link User} does not override {@code equals}.
+     *
+     * @param o the user to look for
+     * @return the position of the user, or -1 if it is not in this list
+     */
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof User)) return -1;
+        if (positions == null) {
+            positions = new IdentityHashMap<>();
+            for (int i = 0; i < size(); i++) positions.putIfAbsent(get(i), i);
+        }
+        return positions.getOrDefault(o, -1);
+    }
+
+    @Override
+    public boolean add(User user) {
+        index(user);
+        if (positions != null) positions.putIfAbsent(user, size());
+        return super.add(user);
+    }
+
+    @Override
+    public void add(int position, User user) {
+        positions = null;
+        super.add(position, user);
+        // an insertion ahead of an existing duplicate makes it the first match
+        if (position < size() - 1) rebuildIndex();
+        else index(user);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends User> users) {
+        positions = null;
+        users.forEach(this::index);
+        return super.addAll(users);
+    }
+
+    @Override
+    public boolean addAll(int position, Collection<? extends User> users) {
+        positions = null;
+        boolean changed = super.addAll(position, users);
+        rebuildIndex();
+        return changed;
+    }
+
+    @Override
+    public User set(int position, User user) {
+        positions = null;
+        User previous = super.set(position, user);
+        rebuildIndex();
+        return previous;
+    }
+
+    @Override
+    public User remove(int position) {
+        positions = null;
+        User removed = super.remove(position);
+        unindex(removed);
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        positions = null;
+        boolean removed = super.remove(o);
+        if (removed) unindex((User) o);
+        return removed;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        positions = null;
+        boolean changed = super.removeAll(c);
+        if (changed) rebuildIndex();
+        return changed;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        positions = null;
+        boolean changed = super.retainAll(c);
+        if (changed) rebuildIndex();
+        return changed;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super User> filter) {
+        positions = null;
+        boolean changed = super.removeIf(filter);
+        if (changed) rebuildIndex();
+        return changed;
+    }
+
+    @Override
+    public void sort(Comparator<? super User> c) {
+        super.sort(c);
+        positions = null;
+        rebuildIndex();
+    }
+
+    @Override
+    public void clear() {
+        positions = null;
+        super.clear();
+        idIndex.clear();
+        nameIndex.clear();
+    }
+
+    /**
+     * Moves a user to its new name in the name index after a rename.
+     * Does nothing if the user is not in this list.
+     *
+     * @param user the renamed user
+     * @param oldName the name the user was previously indexed under
+     */
+    void reindexName(User user, String oldName) {
+        if (idIndex.get(user.getUserId()) != user && !super.contains(user)) return;
+        if (nameIndex.get(oldName) == user) {
+            nameIndex.remove(oldName);
+            // another user may share the old name and now becomes the first match
+            for (User other : this) {
+                if (other != user && other.getName().equals(oldName)) {
+                    nameIndex.put(oldName, other);
+                    break;
+                }
             }
         }
-        return null;
+        User current = nameIndex.get(user.getName());
+        if (current == null || indexOf(user) < indexOf(current)) nameIndex.put(user.getName(), user);
+    }
+
+    private void index(User user) {
+        if (user == null) return;
+        idIndex.putIfAbsent(user.getUserId(), user);
+        nameIndex.putIfAbsent(user.getName(), user);
+    }
+
+    private void unindex(User user) {
+        if (user == null) return;
+        // only fall back to a scan when the removed user was the indexed one and a duplicate may remain
+        if (idIndex.get(user.getUserId()) == user || nameIndex.get(user.getName()) == user) {
+            rebuildIndex();
+        }
+    }
+
+    private void rebuildIndex() {
+        idIndex.clear();
+        nameIndex.clear();
+        for (User user : this) index(user);
     }
 
     /**
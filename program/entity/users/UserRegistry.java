@@ -0,0 +1,50 @@
+package program.entity.users;
+
+import program.control.Main;
+
+/**
+ * <p>
+ * The {@code UserRegistry} class is the single point of lookup for users by NRIC across all roles.
+ * The role lists held by {@link Main} ({@code managerList}, {@code officerList} and {@code applicantList})
+ * act as its per-role views; each of them keeps its own hash index, so a registry lookup costs at most
+ * three constant-time probes regardless of how many users are registered.
+ * </p>
+ *
+ * <p>
+ * When the same NRIC appears in more than one role (for example, an officer who was promoted to manager
+ * and still has an officer record), the registry resolves to the highest role: manager, then officer,
+ * then applicant, which is the precedence used at login. Code that needs a different order, such as
+ * {@code UserFetcher.fetch(String)} attaching stored enquiries to their authors, probes the role lists itself.
+ * </p>
+ *
+ * @see UserList
+ */
+public class UserRegistry {
+
+    /**
+     * Resolves an NRIC to its user record, preferring the manager record, then the officer record,
+     * then the applicant record.
+     *
+     * @param NRIC the NRIC of the user to look up
+     * @return the matching {@link User}, or {@code null} if no role list contains the NRIC
+     */
+    public static User get(String NRIC) {
+        if (NRIC == null) return null;
+        User user = Main.managerList.get(NRIC, false);
+        if (user == null) user = Main.officerList.get(NRIC, false);
+        if (user == null) user = Main.applicantList.get(NRIC, false);
+        return user;
+    }
+
+    /**
+     * Updates the name indexes of the role lists after a user has been renamed.
+     *
+     * @param user the user whose name has changed
+     * @param oldName the name the user was indexed under before the change
+     */
+    static void rename(User user, String oldName) {
+        Main.managerList.reindexName(user, oldName);
+        Main.officerList.reindexName(user, oldName);
+        Main.applicantList.reindexName(user, oldName);
+    }
+}